@@ -0,0 +1,89 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import base.Medico;
+import base.Paciente;
+import base.Turno;
+import db.DBConnection;
+import db.MigradorEsquema;
+
+/**
+ * Base SQLite en un archivo temporal, con el esquema al día y los datos de {@link GeneradorDatos}
+ * (mismos datos en cada corrida con la misma semilla y tamaño).
+ *
+ * Hay que crearla antes de usar cualquier clase de {@code db}: {@link DBConnection} lee la URL
+ * ({@code turnera.db.url}) una sola vez, al cargarse. El archivo se borra al terminar la JVM.
+ *
+ * Los turnos terminan en {@link GeneradorDatos#HASTA_POR_DEFECTO}, una fecha fija del pasado
+ * (ver {@link #getHasta}); de hoy en adelante la agenda está libre para las mediciones que reservan.
+ */
+public class BaseTemporal {
+
+    private final Path archivo;
+    private final GeneradorDatos datos;
+
+    private BaseTemporal(Path archivo, GeneradorDatos datos) {
+        this.archivo = archivo;
+        this.datos = datos;
+    }
+
+    /**
+     * Crea la base, la migra y la llena.
+     * @param cantidadTurnos turnos a generar (los médicos y pacientes se escalan con este número)
+     */
+    public static BaseTemporal crear(long cantidadTurnos, long semilla) throws Exception {
+        Path archivo = Files.createTempFile("turnera-bench-", ".db");
+        archivo.toFile().deleteOnExit();
+        for (String sufijo : new String[] { "-wal", "-shm" }) {
+            Path.of(archivo + sufijo).toFile().deleteOnExit();
+        }
+        System.setProperty("turnera.db.url", "jdbc:sqlite:" + archivo);
+
+        MigradorEsquema.migrar();
+        GeneradorDatos datos = new GeneradorDatos(GeneradorDatos.Configuracion.escalada(cantidadTurnos, semilla));
+        datos.generar();
+        return new BaseTemporal(archivo, datos);
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /** El generador que la llenó (tiene el resumen de la distribución). */
+    public GeneradorDatos getDatos() {
+        return datos;
+    }
+
+    /** Último día con turnos generados (para armar períodos de reportes con datos). */
+    public LocalDate getHasta() {
+        return datos.getConfiguracion().hasta();
+    }
+
+    public long getTurnos() {
+        return datos.getTurnos();
+    }
+
+    public List<Medico> getMedicos() {
+        return datos.getMedicos();
+    }
+
+    public List<Paciente> getPacientes() {
+        return datos.getPacientes();
+    }
+
+    /** Algunos turnos generados, repartidos en todo el período (para consultar horarios ocupados). */
+    public List<Turno> getMuestraTurnos() {
+        return datos.getMuestraTurnos();
+    }
+
+    /** Tamaño en disco, contando lo que todavía está en el WAL. */
+    public long getTamanioBytes() throws IOException {
+        Path wal = Path.of(archivo + "-wal");
+        return Files.size(archivo) + (Files.exists(wal) ? Files.size(wal) : 0);
+    }
+}
@@ -0,0 +1,513 @@
+package bench;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import base.Medico;
+import base.ObraSocial;
+import base.Paciente;
+import base.Turno;
+import daoImp.RecaudacionDAOImpl;
+import daoImp.TurnoDAOImpl;
+import daoImp.UsuarioDAOImpl;
+import db.ConnectionLease;
+import db.DBConnection;
+import db.MigradorEsquema;
+import service.DisponibilidadService;
+
+/**
+ * Genera una clínica sintética (médicos, pacientes y años de turnos) para probar a escala
+ * de producción. Es la fuente de datos de {@link BaseTemporal} y del simulador de carga.
+ *
+ * Los datos se parecen a los reales:
+ * - Obras sociales con pesos distintos (más OSDE y PAMI que GALENO) y honorarios con cola larga.
+ * - Cada médico atiende 3 a 5 días fijos por semana (pocos los sábados; domingo cerrado) y
+ *   tiene su "popularidad": unos llenan la agenda y otros no.
+ * - Más turnos los lunes que los viernes, picos a media mañana y media tarde, enero flojo.
+ * - Algunos pacientes vienen mucho y la mayoría pocas veces.
+ *
+ * Con la misma configuración y semilla se generan exactamente los mismos datos: el período
+ * termina en una fecha fija ({@link Configuracion#hasta}), no en el día en que se corre.
+ * Los horarios son los de la agenda de la aplicación ({@link DisponibilidadService#PRIMER_HORARIO},
+ * cada {@link DisponibilidadService#MINUTOS_POR_TURNO} minutos), los mismos que se pueden reservar.
+ *
+ * Los turnos se generan día por día, en orden de fecha, y se guardan con
+ * {@link TurnoDAOImpl#guardarLote} (mismas columnas y costo que una reserva real) en transacciones
+ * grandes con {@code synchronous = OFF}. Al final se reconstruye el resumen de recaudación y se
+ * actualizan las estadísticas del planificador.
+ *
+ * Uso:
+ * <pre>
+ *   java -Dgenerador.turnos=20000000 -Dgenerador.semilla=7 -cp bin:lib/sqlite-jdbc-3.51.1.0.jar bench.GeneradorDatos
+ * </pre>
+ * Propiedades: {@code generador.archivo} (turnera-generada.db; no pisa uno existente salvo
+ * {@code generador.reemplazar=true}), {@code generador.turnos} (1000000), {@code generador.medicos}
+ * y {@code generador.pacientes} (por defecto se escalan con los turnos), {@code generador.anios} (3),
+ * {@code generador.hasta} (último día con turnos, 2025-12-31) y {@code generador.semilla} (42).
+ */
+public class GeneradorDatos {
+
+    /**
+     * Qué generar. Con {@link #escalada} médicos y pacientes salen de la cantidad de turnos.
+     * @param hasta último día con turnos; tiene que ser anterior a hoy para que las mediciones que
+     *              reservan de mañana en adelante encuentren la agenda libre
+     */
+    public record Configuracion(int medicos, int pacientes, long turnos, int anios, LocalDate hasta, long semilla) {
+
+        public static Configuracion escalada(long turnos, long semilla) {
+            int medicos = (int) Math.max(10, Math.min(5_000, turnos / 5_000));
+            int pacientes = (int) Math.max(100, Math.min(1_000_000, turnos / 40));
+            return new Configuracion(medicos, pacientes, turnos, 3, HASTA_POR_DEFECTO, semilla);
+        }
+    }
+
+    // Fin fijo del período: con 3 años quedan 2023 a 2025 completos
+    public static final LocalDate HASTA_POR_DEFECTO = LocalDate.of(2025, 12, 31);
+
+    // La agenda de la aplicación: 08:00 a 19:30 cada 30 minutos
+    private static final int SLOTS_POR_DIA = DisponibilidadService.HORARIOS_POR_DIA;
+    private static final int HORA_APERTURA = DisponibilidadService.PRIMER_HORARIO.getHour();
+    private static final int TURNOS_POR_LOTE = 10_000;
+    private static final int TURNOS_POR_TRANSACCION = 250_000;
+    private static final double OCUPACION_MAXIMA = 0.9;  // nunca más del 90% de la agenda de un día
+    private static final int INTENTOS_POR_TURNO = 20;
+    private static final int MUESTRAS = 1_000;
+    private static final int CACHE_CARGA_KB = 256 * 1024;
+    // Uno de cada cinco turnos es de un paciente "frecuente" (el 5% de los pacientes)
+    private static final double PROPORCION_FRECUENTES = 0.2;
+    private static final double PACIENTES_FRECUENTES = 0.05;
+
+    // Pesos en el orden de ObraSocial: OSDE, SWISS_MEDICAL, GALENO, PAMI, OSECAC, PARTICULAR
+    private static final double[] PESO_OBRA_SOCIAL = { 24, 14, 8, 22, 17, 15 };
+    private static final double[] ACUM_OBRA_SOCIAL = acumulados(PESO_OBRA_SOCIAL);
+    // Lunes a domingo
+    private static final double[] PESO_DIA = { 1.25, 1.15, 1.10, 1.05, 0.90, 0.35, 0 };
+    // Por hora, de 8 a 19
+    private static final double[] PESO_HORA = { 0.7, 1.2, 1.35, 1.2, 0.8, 0.45, 0.7, 0.95, 1.15, 1.1, 0.85, 0.55 };
+    // Enero a diciembre (vacaciones de verano e invierno)
+    private static final double[] PESO_MES = { 0.55, 0.8, 1.1, 1.05, 1.05, 1.0, 0.85, 1.05, 1.05, 1.05, 1.0, 0.8 };
+
+    private static final Locale ES = Locale.of("es");
+
+    private static final String[] NOMBRES = {
+        "María", "Juan", "Ana", "Carlos", "Lucía", "Jorge", "Sofía", "Martín", "Valentina", "Diego",
+        "Camila", "Pablo", "Julieta", "Santiago", "Florencia", "Nicolás", "Carolina", "Federico",
+        "Paula", "Gustavo", "Laura", "Alejandro", "Agustina", "Mariano", "Romina", "Sebastián",
+        "Natalia", "Facundo", "Silvina", "Hernán" };
+    private static final String[] APELLIDOS = {
+        "González", "Rodríguez", "Gómez", "Fernández", "López", "Díaz", "Martínez", "Pérez", "García",
+        "Sánchez", "Romero", "Sosa", "Álvarez", "Torres", "Ruiz", "Ramírez", "Flores", "Acosta",
+        "Benítez", "Medina", "Suárez", "Herrera", "Aguirre", "Pereyra", "Gutiérrez", "Giménez",
+        "Molina", "Silva", "Castro", "Rojas", "Ortiz", "Núñez", "Luna", "Juárez", "Cabrera", "Ríos",
+        "Morales", "Godoy", "Moreno", "Ferreyra", "Domínguez", "Carrizo", "Peralta", "Castillo",
+        "Ledesma", "Quiroga", "Vega", "Vera", "Muñoz", "Ojeda", "Ponce", "Villalba", "Cardozo",
+        "Navarro", "Coronel", "Vázquez", "Ramos", "Vargas", "Cáceres", "Arias" };
+
+    private final Configuracion config;
+    private final Random rnd;
+
+    private final List<Medico> medicos = new ArrayList<>();
+    private final List<Paciente> pacientes = new ArrayList<>();
+    private final List<Turno> muestraTurnos = new ArrayList<>();
+    private double[] popularidad;
+    private int[] diasDeAtencion;   // bit d = atiende el DayOfWeek d+1
+
+    // Distribución de lo generado, para el resumen
+    private long turnos;
+    private long descartados;
+    private double recaudado;
+    private final long[] porDia = new long[7];
+    private final long[] porHora = new long[PESO_HORA.length];
+    private final Map<Integer, Long> porAnio = new TreeMap<>();
+    private int[] turnosPorMedico;
+    private int[] turnosPorPaciente;
+    private long milisegundos;
+    private final Map<String, Long> etapas = new LinkedHashMap<>();
+
+    public GeneradorDatos(Configuracion config) {
+        this.config = config;
+        this.rnd = new Random(config.semilla());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path archivo = Path.of(System.getProperty("generador.archivo", "turnera-generada.db"));
+        if (Files.exists(archivo)) {
+            if (!Boolean.getBoolean("generador.reemplazar")) {
+                System.err.println(archivo + " ya existe (usar -Dgenerador.reemplazar=true para pisarlo).");
+                System.exit(1);
+            }
+            for (String sufijo : new String[] { "", "-wal", "-shm" }) {
+                Files.deleteIfExists(Path.of(archivo + sufijo));
+            }
+        }
+        long turnos = Long.getLong("generador.turnos", 1_000_000);
+        Configuracion escalada = Configuracion.escalada(turnos, Long.getLong("generador.semilla", 42));
+        Configuracion config = new Configuracion(
+                Integer.getInteger("generador.medicos", escalada.medicos()),
+                Integer.getInteger("generador.pacientes", escalada.pacientes()),
+                turnos, Integer.getInteger("generador.anios", escalada.anios()),
+                LocalDate.parse(System.getProperty("generador.hasta", escalada.hasta().toString())), escalada.semilla());
+
+        System.setProperty("turnera.db.url", "jdbc:sqlite:" + archivo);
+        MigradorEsquema.migrar();
+        GeneradorDatos generador = new GeneradorDatos(config);
+        generador.generar();
+        generador.imprimirResumen(System.out);
+        System.out.printf("Archivo: %s (%.1f MB)%n", archivo.toAbsolutePath(), Files.size(archivo) / (1024.0 * 1024.0));
+        DBConnection.closeConnection();
+    }
+
+    /**
+     * Genera todo en la base configurada en {@link DBConnection}, que ya tiene que estar migrada
+     * y sin usuarios con los DNI que se generan (conviene una base nueva).
+     */
+    public void generar() throws Exception {
+        long inicio = System.nanoTime();
+        long t = inicio;
+        try (ConnectionLease lease = DBConnection.borrow()) {
+            Connection conn = lease.getConnection();
+            // Carga masiva: si se corta la luz se vuelve a generar; no hace falta esperar al disco.
+            // Cache grande mientras dura la carga (la conexión vuelve al pool con la que tenía)
+            long cacheAnterior = leerPragma(conn, "cache_size");
+            fueraDeTransaccion(conn, "PRAGMA synchronous = OFF", "PRAGMA cache_size = -" + CACHE_CARGA_KB);
+            // Los índices se arman al final, de una vez: mantenerlos fila por fila es lo que más
+            // tarda. Se recrean con la misma definición que dejaron las migraciones.
+            List<String> indices = quitarIndices(conn, "usuarios");
+            indices.addAll(quitarIndices(conn, "turnos"));
+            lease.commit();
+            generarMedicos(new UsuarioDAOImpl(conn));
+            generarPacientes(new UsuarioDAOImpl(conn));
+            lease.commit();
+            t = etapa("usuarios", t);
+
+            generarTurnos(lease, new TurnoDAOImpl(conn));
+            t = etapa("turnos", t);
+            try (Statement st = conn.createStatement()) {
+                for (String sql : indices) st.execute(sql);
+            }
+            lease.commit();
+            t = etapa("índices", t);
+            new RecaudacionDAOImpl(conn).reconstruir();
+            lease.commit();
+            t = etapa("resumen", t);
+
+            // Estadísticas para el planificador (muestreando: con decenas de millones de filas un ANALYZE completo tarda)
+            fueraDeTransaccion(conn, "PRAGMA synchronous = NORMAL", "PRAGMA cache_size = " + cacheAnterior,
+                    "PRAGMA analysis_limit = 1000", "ANALYZE", "PRAGMA wal_checkpoint(TRUNCATE)");
+            etapa("estadísticas", t);
+        }
+        milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+    }
+
+    /** Anota cuánto tardó una etapa. @return el momento actual, inicio de la etapa siguiente */
+    private long etapa(String nombre, long desde) {
+        long ahora = System.nanoTime();
+        etapas.put(nombre, (ahora - desde) / 1_000_000);
+        return ahora;
+    }
+
+    private static long leerPragma(Connection conn, String pragma) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("PRAGMA " + pragma)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /** Sentencias que SQLite no acepta dentro de una transacción (la conexión del pool trabaja sin autoCommit). */
+    private static void fueraDeTransaccion(Connection conn, String... sentencias) throws SQLException {
+        conn.setAutoCommit(true);
+        try (Statement st = conn.createStatement()) {
+            for (String sql : sentencias) st.execute(sql);
+        } finally {
+            conn.setAutoCommit(false);
+        }
+    }
+
+    /** Borra los índices de la tabla. @return los CREATE INDEX para volver a crearlos */
+    private static List<String> quitarIndices(Connection conn, String tabla) throws SQLException {
+        List<String> nombres = new ArrayList<>();
+        List<String> definiciones = new ArrayList<>();
+        // sql IS NULL: índices automáticos (PRIMARY KEY, UNIQUE de columna), que no se pueden borrar
+        String sql = "SELECT name, sql FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND sql IS NOT NULL";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, tabla);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    nombres.add(rs.getString(1));
+                    definiciones.add(rs.getString(2));
+                }
+            }
+        }
+        try (Statement st = conn.createStatement()) {
+            for (String nombre : nombres) st.execute("DROP INDEX \"" + nombre + "\"");
+        }
+        return definiciones;
+    }
+
+    private void generarMedicos(UsuarioDAOImpl dao) throws Exception {
+        popularidad = new double[config.medicos()];
+        diasDeAtencion = new int[config.medicos()];
+        for (int i = 0; i < config.medicos(); i++) {
+            // Honorarios: log-normal alrededor de 3000, redondeados a 100 (muchos cerca, pocos muy caros)
+            double honorarios = Math.max(800, Math.round(3_000 * Math.exp(0.45 * rnd.nextGaussian()) / 100) * 100.0);
+            Medico m = new Medico(String.valueOf(10_000_000 + i), elegir(NOMBRES), elegir(APELLIDOS),
+                    "medico" + i + "@turnera.local", honorarios, elegirObraSocial());
+            dao.guardar(m);
+            medicos.add(m);
+            popularidad[i] = 0.3 + rnd.nextDouble() * 1.7;
+            diasDeAtencion[i] = elegirDiasDeAtencion();
+        }
+        turnosPorMedico = new int[config.medicos()];
+    }
+
+    private void generarPacientes(UsuarioDAOImpl dao) throws Exception {
+        for (int i = 0; i < config.pacientes(); i++) {
+            Paciente p = new Paciente(String.valueOf(20_000_000 + i), elegir(NOMBRES), elegir(APELLIDOS),
+                    "paciente" + i + "@turnera.local", elegirObraSocial());
+            dao.guardar(p);
+            pacientes.add(p);
+        }
+        turnosPorPaciente = new int[config.pacientes()];
+    }
+
+    /** 3 a 5 días de lunes a viernes, y a veces el sábado. */
+    private int elegirDiasDeAtencion() {
+        int dias = 0;
+        int cantidad = 3 + rnd.nextInt(3);
+        while (Integer.bitCount(dias) < cantidad) {
+            dias |= 1 << rnd.nextInt(5);
+        }
+        if (rnd.nextDouble() < 0.25) dias |= 1 << (DayOfWeek.SATURDAY.getValue() - 1);
+        return dias;
+    }
+
+    private void generarTurnos(ConnectionLease lease, TurnoDAOImpl dao) throws Exception {
+        LocalDate hasta = config.hasta();
+        LocalDate desde = hasta.minusYears(config.anios()).plusDays(1);
+        int dias = (int) (hasta.toEpochDay() - desde.toEpochDay() + 1);
+
+        double[] pesoDia = new double[dias];
+        double sumaPesos = 0;
+        for (int d = 0; d < dias; d++) {
+            LocalDate dia = desde.plusDays(d);
+            pesoDia[d] = PESO_DIA[dia.getDayOfWeek().getValue() - 1] * PESO_MES[dia.getMonthValue() - 1];
+            sumaPesos += pesoDia[d];
+        }
+        double[] acumSlots = acumulados(pesosPorSlot());
+        double[][] acumMedicosPorDia = new double[7][];
+        int[][] medicosPorDia = new int[7][];
+        for (int dow = 0; dow < 7; dow++) {
+            medicosPorDia[dow] = medicosQueAtienden(dow);
+            double[] pesos = new double[medicosPorDia[dow].length];
+            for (int k = 0; k < pesos.length; k++) pesos[k] = popularidad[medicosPorDia[dow][k]];
+            acumMedicosPorDia[dow] = acumulados(pesos);
+        }
+
+        long[] ocupados = new long[config.medicos()];   // bit s = slot s del día tomado (los slots del día entran en un long)
+        List<Turno> lote = new ArrayList<>(TURNOS_POR_LOTE);
+        long cadaCuanto = Math.max(1, config.turnos() / MUESTRAS);
+        long enTransaccion = 0;
+        double arrastre = 0;                            // fracción de turno que pasa al día siguiente
+
+        for (int d = 0; d < dias; d++) {
+            LocalDate dia = desde.plusDays(d);
+            int dow = dia.getDayOfWeek().getValue() - 1;
+            int[] atienden = medicosPorDia[dow];
+            double cuota = config.turnos() * pesoDia[d] / sumaPesos + arrastre;
+            int objetivo = (int) cuota;
+            arrastre = cuota - objetivo;
+            int capacidad = (int) (atienden.length * SLOTS_POR_DIA * OCUPACION_MAXIMA);
+            if (objetivo > capacidad) {
+                descartados += objetivo - capacidad;
+                objetivo = capacidad;
+            }
+            if (objetivo == 0) continue;
+
+            for (int m : atienden) ocupados[m] = 0;
+            for (int i = 0; i < objetivo; i++) {
+                boolean ubicado = false;
+                for (int intento = 0; intento < INTENTOS_POR_TURNO && !ubicado; intento++) {
+                    int m = atienden[buscar(acumMedicosPorDia[dow])];
+                    int slot = buscar(acumSlots);
+                    if ((ocupados[m] & (1L << slot)) == 0) {
+                        ocupados[m] |= 1L << slot;
+                        ubicado = true;
+                    }
+                }
+                if (!ubicado) descartados++;
+            }
+
+            // Se guardan en orden de hora (así el índice por fecha crece siempre al final)
+            LocalDateTime apertura = dia.atTime(DisponibilidadService.PRIMER_HORARIO);
+            for (int slot = 0; slot < SLOTS_POR_DIA; slot++) {
+                LocalDateTime fecha = apertura.plusMinutes((long) DisponibilidadService.MINUTOS_POR_TURNO * slot);
+                for (int m : atienden) {
+                    if ((ocupados[m] & (1L << slot)) == 0) continue;
+                    int p = elegirPaciente();
+                    Turno t = new Turno(fecha, medicos.get(m), pacientes.get(p));
+                    lote.add(t);
+                    contar(t, dia, dow, slot, m, p);
+                    if (turnos % cadaCuanto == 0 && muestraTurnos.size() < MUESTRAS) muestraTurnos.add(t);
+                    if (lote.size() == TURNOS_POR_LOTE) {
+                        dao.guardarLote(lote);
+                        enTransaccion += lote.size();
+                        lote.clear();
+                        if (enTransaccion >= TURNOS_POR_TRANSACCION) {
+                            lease.commit();
+                            enTransaccion = 0;
+                        }
+                    }
+                }
+            }
+        }
+        if (!lote.isEmpty()) dao.guardarLote(lote);
+        lease.commit();
+    }
+
+    private void contar(Turno t, LocalDate dia, int dow, int slot, int m, int p) {
+        turnos++;
+        recaudado += t.getCosto();
+        porDia[dow]++;
+        porHora[horaDelSlot(slot)]++;
+        porAnio.merge(dia.getYear(), 1L, Long::sum);
+        turnosPorMedico[m]++;
+        turnosPorPaciente[p]++;
+    }
+
+    private static double[] pesosPorSlot() {
+        double[] pesos = new double[SLOTS_POR_DIA];
+        for (int s = 0; s < SLOTS_POR_DIA; s++) pesos[s] = PESO_HORA[horaDelSlot(s)];
+        return pesos;
+    }
+
+    /** Hora del slot contada desde la apertura (0 = la primera hora), para PESO_HORA y el resumen. */
+    private static int horaDelSlot(int slot) {
+        return slot * DisponibilidadService.MINUTOS_POR_TURNO / 60;
+    }
+
+    private int[] medicosQueAtienden(int dow) {
+        return IntStream.range(0, config.medicos())
+                .filter(m -> (diasDeAtencion[m] & (1 << dow)) != 0).toArray();
+    }
+
+    /** Cualquier paciente, o uno de los frecuentes (los primeros de la lista). */
+    private int elegirPaciente() {
+        int frecuentes = Math.max(1, (int) (config.pacientes() * PACIENTES_FRECUENTES));
+        return (rnd.nextDouble() < PROPORCION_FRECUENTES) ? rnd.nextInt(frecuentes) : rnd.nextInt(config.pacientes());
+    }
+
+    private ObraSocial elegirObraSocial() {
+        return ObraSocial.values()[buscar(ACUM_OBRA_SOCIAL)];
+    }
+
+    private String elegir(String[] opciones) {
+        return opciones[rnd.nextInt(opciones.length)];
+    }
+
+    private static double[] acumulados(double[] pesos) {
+        double[] acum = new double[pesos.length];
+        double suma = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            suma += pesos[i];
+            acum[i] = suma;
+        }
+        return acum;
+    }
+
+    /** Índice elegido al azar con probabilidad proporcional a su peso (búsqueda binaria en los acumulados). */
+    private int buscar(double[] acumulados) {
+        double x = rnd.nextDouble() * acumulados[acumulados.length - 1];
+        int i = Arrays.binarySearch(acumulados, x);
+        return Math.min((i >= 0) ? i + 1 : -i - 1, acumulados.length - 1);
+    }
+
+    public List<Medico> getMedicos() {
+        return medicos;
+    }
+
+    public List<Paciente> getPacientes() {
+        return pacientes;
+    }
+
+    /** Algunos turnos generados, repartidos en todo el período. */
+    public List<Turno> getMuestraTurnos() {
+        return muestraTurnos;
+    }
+
+    public Configuracion getConfiguracion() {
+        return config;
+    }
+
+    /** Turnos generados (puede ser algo menos que lo pedido si la agenda no daba para tantos). */
+    public long getTurnos() {
+        return turnos;
+    }
+
+    public void imprimirResumen(PrintStream out) {
+        out.printf(Locale.ROOT, "Generados %d médicos, %d pacientes y %d turnos (%d no entraron en la agenda) "
+                + "en %.1f s - %.0f turnos/s, semilla %d, hasta %s%n", medicos.size(), pacientes.size(), turnos, descartados,
+                milisegundos / 1000.0, turnos * 1000.0 / Math.max(1, milisegundos), config.semilla(), config.hasta());
+        StringBuilder tiempos = new StringBuilder("Tiempos:");
+        etapas.forEach((etapa, ms) -> tiempos.append(String.format(Locale.ROOT, " %s %.1f s", etapa, ms / 1000.0)));
+        out.println(tiempos);
+        out.printf(Locale.ROOT, "Recaudado: %.2f%n", recaudado);
+
+        Map<ObraSocial, Integer> medicosPorOs = new EnumMap<>(ObraSocial.class);
+        Map<ObraSocial, Integer> pacientesPorOs = new EnumMap<>(ObraSocial.class);
+        medicos.forEach(m -> medicosPorOs.merge(m.getObraSocial(), 1, Integer::sum));
+        pacientes.forEach(p -> pacientesPorOs.merge(p.getObraSocial(), 1, Integer::sum));
+        out.println("Obra social        médicos  pacientes");
+        for (ObraSocial os : ObraSocial.values()) {
+            out.printf("  %-15s %8d %10d%n", os, medicosPorOs.getOrDefault(os, 0), pacientesPorOs.getOrDefault(os, 0));
+        }
+        double[] honorarios = medicos.stream().mapToDouble(Medico::getHonorariosPorConsulta).sorted().toArray();
+        out.printf(Locale.ROOT, "Honorarios: mín %.0f, mediana %.0f, p95 %.0f, máx %.0f%n", honorarios[0],
+                percentil(honorarios, 0.5), percentil(honorarios, 0.95), honorarios[honorarios.length - 1]);
+
+        out.println("Turnos por día de la semana:");
+        for (DayOfWeek d : DayOfWeek.values()) {
+            imprimirBarra(out, d.getDisplayName(TextStyle.SHORT, ES), porDia[d.ordinal()]);
+        }
+        out.println("Turnos por hora:");
+        for (int h = 0; h < porHora.length; h++) {
+            imprimirBarra(out, String.format("%02d:00", HORA_APERTURA + h), porHora[h]);
+        }
+        out.println("Turnos por año:");
+        porAnio.forEach((anio, n) -> imprimirBarra(out, String.valueOf(anio), n));
+
+        double[] porMedico = Arrays.stream(turnosPorMedico).asDoubleStream().sorted().toArray();
+        out.printf(Locale.ROOT, "Turnos por médico: mín %.0f, mediana %.0f, máx %.0f%n",
+                porMedico[0], percentil(porMedico, 0.5), porMedico[porMedico.length - 1]);
+        double[] porPaciente = Arrays.stream(turnosPorPaciente).asDoubleStream().sorted().toArray();
+        out.printf(Locale.ROOT, "Turnos por paciente: mediana %.0f, p99 %.0f, máx %.0f%n",
+                percentil(porPaciente, 0.5), percentil(porPaciente, 0.99), porPaciente[porPaciente.length - 1]);
+    }
+
+    private void imprimirBarra(PrintStream out, String etiqueta, long cantidad) {
+        double pct = (turnos == 0) ? 0 : 100.0 * cantidad / turnos;
+        out.printf(Locale.ROOT, "  %-6s %10d %5.1f%% %s%n", etiqueta, cantidad, pct, "#".repeat((int) Math.round(pct)));
+    }
+
+    private static double percentil(double[] ordenados, double p) {
+        return ordenados[(int) Math.min(ordenados.length - 1, Math.floor(p * ordenados.length))];
+    }
+}
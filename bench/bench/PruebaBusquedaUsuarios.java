@@ -0,0 +1,94 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import base.Medico;
+import base.ObraSocial;
+import base.Paciente;
+import base.Rol;
+import base.Usuario;
+import daoImp.UsuarioDAOImpl;
+import db.ConnectionLease;
+import db.DBConnection;
+import service.UsuarioService;
+
+/**
+ * Chequeo de {@link UsuarioService#buscarUsuarios} (el buscador de los selectores) sobre una
+ * {@link BaseTemporal} chica con algunos usuarios conocidos:
+ * - prefijos de 1 o 2 letras en mayúsculas, minúsculas o mezcladas (incluida la Z, que en
+ *   mayúscula queda justo antes de "[" y en minúscula después);
+ * - un apellido escrito todo en mayúsculas;
+ * - un apellido con más de mil pacientes cargados antes que el único médico que lo tiene:
+ *   buscando médicos tiene que aparecer igual.
+ *
+ * Termina con código 1 si falla algún caso.
+ * <pre>
+ *   java -cp bin:lib/sqlite-jdbc-3.51.1.0.jar bench.PruebaBusquedaUsuarios
+ * </pre>
+ */
+public class PruebaBusquedaUsuarios {
+
+    // Pacientes con el apellido del médico, cargados antes que él (más que los que se rankeaban antes)
+    private static final int PACIENTES_HOMONIMOS = 1_500;
+    private static final int LIMITE = 15;
+
+    private final List<String> fallas = new ArrayList<>();
+    private UsuarioService usuarios;
+
+    public static void main(String[] args) throws Exception {
+        PruebaBusquedaUsuarios prueba = new PruebaBusquedaUsuarios();
+        boolean ok = prueba.correr();
+        DBConnection.closeConnection();
+        System.exit(ok ? 0 : 1);
+    }
+
+    /** @return true si pasaron todos los casos */
+    public boolean correr() throws Exception {
+        BaseTemporal.crear(2_000, 7);
+        cargarUsuarios();
+        usuarios = new UsuarioService();
+
+        for (String texto : new String[] { "Z", "z", "ZU", "Zu", "zu" }) {
+            esperarMedico(texto, "Zubizarreta");
+        }
+        esperarMedico("ZUBIZARRETA", "Zubizarreta");
+        esperarMedico("PEREYRAZ", "Pereyraz");
+        esperarMedico("Ibarrola", "Ibarrola");
+        esperarMedico("IBARROLA", "Ibarrola");
+
+        List<Usuario> todos = usuarios.buscarUsuarios("Ibarrola", null, LIMITE);
+        if (todos.size() != LIMITE) {
+            fallas.add("\"Ibarrola\" sin rol: " + todos.size() + " resultados, se esperaban " + LIMITE);
+        }
+        List<Usuario> porApellido = usuarios.buscarPorApellido("ZU");
+        if (porApellido.stream().noneMatch(u -> u.getApellido().equals("Zubizarreta"))) {
+            fallas.add("buscarPorApellido(\"ZU\") no encontró a Zubizarreta");
+        }
+
+        fallas.forEach(f -> System.out.println("FALLA: " + f));
+        System.out.println(fallas.isEmpty() ? "OK: búsqueda de usuarios" : fallas.size() + " casos fallidos");
+        return fallas.isEmpty();
+    }
+
+    private void cargarUsuarios() throws Exception {
+        try (ConnectionLease lease = DBConnection.borrow()) {
+            UsuarioDAOImpl dao = new UsuarioDAOImpl(lease.getConnection());
+            for (int i = 0; i < PACIENTES_HOMONIMOS; i++) {
+                dao.guardar(new Paciente(String.valueOf(30_000_000 + i), "Paciente", "Ibarrola",
+                        "ibarrola" + i + "@turnera.local", ObraSocial.PAMI));
+            }
+            dao.guardar(new Medico("40000001", "Ana", "Ibarrola", "aibarrola@turnera.local", 3000, ObraSocial.OSDE));
+            dao.guardar(new Medico("40000002", "Juan", "Zubizarreta", "jzubizarreta@turnera.local", 3000, ObraSocial.OSDE));
+            dao.guardar(new Medico("40000003", "Luis", "Pereyraz", "lpereyraz@turnera.local", 3000, ObraSocial.OSDE));
+            lease.commit();
+        }
+    }
+
+    private void esperarMedico(String texto, String apellido) throws Exception {
+        List<Usuario> encontrados = usuarios.buscarUsuarios(texto, Rol.MEDICO, LIMITE);
+        if (encontrados.stream().noneMatch(u -> u.getApellido().equals(apellido))) {
+            fallas.add("\"" + texto + "\" (médicos) no encontró a " + apellido + ": " + encontrados.size() + " resultados");
+        }
+    }
+}
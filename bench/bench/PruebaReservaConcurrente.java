@@ -0,0 +1,128 @@
+package bench;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import base.Medico;
+import base.Paciente;
+import base.Turno;
+import daoImp.TurnoDAOImpl;
+import db.ConnectionLease;
+import db.ConnectionPool;
+import db.DBConnection;
+import exceptions.TurnoNoDisponibleException;
+import service.TurnoService;
+
+/**
+ * Chequeo de la regla "un turno por médico y horario" bajo concurrencia, sobre una {@link BaseTemporal}.
+ *
+ * En cada ronda, {@code prueba.hilos} hilos arrancan a la vez e intentan reservar el mismo
+ * médico y horario (cada uno para un paciente distinto). Tiene que haber exactamente una reserva
+ * y {@code hilos - 1} {@link TurnoNoDisponibleException}, y en la base un solo turno en ese horario.
+ * Se prueba de dos formas:
+ * - servicio: {@link TurnoService#registrarTurno}, como la pantalla (en modo WAL las escrituras
+ *   se ordenan en el único escritor del pool);
+ * - conexiones propias: cada hilo con su conexión y {@link TurnoDAOImpl#guardar}, para que las
+ *   transacciones compitan de verdad en SQLite y lo que decida sea el índice único.
+ *
+ * Termina con código 1 si alguna ronda falla.
+ * <pre>
+ *   java -Dprueba.hilos=16 -Dprueba.rondas=20 -cp bin:lib/sqlite-jdbc-3.51.1.0.jar bench.PruebaReservaConcurrente
+ * </pre>
+ */
+public class PruebaReservaConcurrente {
+
+    private interface Reserva {
+        void reservar(Turno turno) throws Exception;
+    }
+
+    private final int hilos = Integer.getInteger("prueba.hilos", 16);
+    private final int rondas = Integer.getInteger("prueba.rondas", 20);
+
+    private final List<String> fallas = new ArrayList<>();
+    private Medico medico;
+    private List<Paciente> pacientes;
+    private TurnoService turnos;
+    private LocalDateTime proximoHorario;
+
+    public static void main(String[] args) throws Exception {
+        PruebaReservaConcurrente prueba = new PruebaReservaConcurrente();
+        boolean ok = prueba.correr();
+        DBConnection.closeConnection();
+        System.exit(ok ? 0 : 1);
+    }
+
+    /** @return true si todas las rondas terminaron con una sola reserva */
+    public boolean correr() throws Exception {
+        BaseTemporal base = BaseTemporal.crear(1_000, 11);
+        medico = base.getMedicos().get(0);
+        pacientes = base.getPacientes();
+        turnos = new TurnoService();
+        // La base solo tiene turnos pasados: de mañana en adelante la agenda está libre
+        proximoHorario = LocalDate.now().plusDays(1).atTime(8, 0);
+
+        System.out.printf("== %d hilos por horario, %d rondas, modo %s%n", hilos, rondas, DBConnection.getModo());
+        probar("servicio", turnos::registrarTurno);
+
+        ConnectionPool propias = new ConnectionPool(System.getProperty("turnera.db.url"), hilos, 10_000, 10_000);
+        try {
+            probar("conexiones propias", turno -> {
+                try (ConnectionLease lease = propias.borrow()) {
+                    new TurnoDAOImpl(lease.getConnection()).guardar(turno);
+                    lease.commit();
+                }
+            });
+        } finally {
+            propias.shutdown();
+        }
+
+        fallas.forEach(f -> System.out.println("FALLA: " + f));
+        System.out.println(fallas.isEmpty() ? "OK: una sola reserva por horario" : fallas.size() + " rondas fallidas");
+        return fallas.isEmpty();
+    }
+
+    private void probar(String forma, Reserva reserva) throws Exception {
+        for (int r = 0; r < rondas; r++) {
+            LocalDateTime horario = proximoHorario;
+            proximoHorario = proximoHorario.plusMinutes(15);
+
+            AtomicInteger reservados = new AtomicInteger();
+            AtomicInteger ocupados = new AtomicInteger();
+            List<Exception> errores = new ArrayList<>();
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Thread> lista = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                Turno turno = new Turno(horario, medico, pacientes.get((r * hilos + i) % pacientes.size()));
+                lista.add(Thread.ofPlatform().name("reserva-", i).start(() -> {
+                    try {
+                        largada.await();
+                        reserva.reservar(turno);
+                        reservados.incrementAndGet();
+                    } catch (TurnoNoDisponibleException e) {
+                        ocupados.incrementAndGet();
+                    } catch (Exception e) {
+                        synchronized (errores) {
+                            errores.add(e);
+                        }
+                    }
+                }));
+            }
+            largada.countDown();
+            for (Thread t : lista) t.join();
+
+            long enBase = turnos.listarTurnosPorMedico(medico.getId()).stream()
+                    .filter(t -> !t.isSobreturno() && t.getFechaHora().equals(horario))
+                    .count();
+            if (reservados.get() != 1 || ocupados.get() != hilos - 1 || !errores.isEmpty() || enBase != 1) {
+                fallas.add(String.format("%s, %s: %d reservas, %d ocupados, %d errores, %d turnos en la base%s",
+                        forma, horario, reservados.get(), ocupados.get(), errores.size(), enBase,
+                        errores.isEmpty() ? "" : " (primer error: " + errores.get(0) + ")"));
+            }
+        }
+        System.out.printf("%s: %d rondas%n", forma, rondas);
+    }
+}
@@ -0,0 +1,299 @@
+package bench;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import base.Medico;
+import base.Paciente;
+import base.Turno;
+import db.DBConnection;
+import db.DBUtils;
+import db.MigradorEsquema;
+import exceptions.ConnectionException;
+import exceptions.TurnoNoDisponibleException;
+import service.DisponibilidadService;
+import service.ReporteService;
+import service.TurnoService;
+import service.UsuarioService;
+import utils.RegistroMetricas;
+
+/**
+ * Simula varios puestos de recepción trabajando a la vez sobre la misma base, sin interfaz.
+ *
+ * Cada puesto es un hilo virtual que, hasta que se acaba el tiempo, elige una operación al azar
+ * según la mezcla configurada y la ejecuta por los servicios, como lo haría la pantalla:
+ * - reserva: {@link TurnoService#registrarTurno} en un horario de los próximos días (si otro
+ *   puesto ya lo tomó, es un conflicto, no un error)
+ * - listado: una página de la agenda de la semana de un médico
+ * - login: {@link UsuarioService#buscarPorDni}
+ * - reporte: {@link ReporteService#generarResumenRecaudacion} de un período pasado al azar
+ *
+ * Al final informa, por operación y en total: operaciones por segundo, latencias p50/p99/p999 y
+ * máxima, conflictos, errores SQLITE_BUSY/LOCKED, esperas de conexión agotadas y otros errores.
+ * Es la prueba de aceptación de los cambios de concurrencia en {@code db} y {@code service}:
+ * termina con código 1 si hubo algún BUSY, espera agotada o error.
+ *
+ * Uso:
+ * <pre>
+ *   java -Dsim.puestos=16 -Dsim.segundos=60 -cp bin:lib/sqlite-jdbc-3.51.1.0.jar bench.SimuladorRecepcion
+ * </pre>
+ * Propiedades: {@code sim.puestos} (8), {@code sim.segundos} (30), {@code sim.calentamiento}
+ * (segundos sin medir, 5), {@code sim.mezcla} ("reserva=40,listado=30,login=20,reporte=10"),
+ * {@code sim.pausaMs} (pausa entre operaciones de un puesto, 0), {@code sim.dias} (días hacia
+ * adelante donde se reserva, 14), {@code sim.virtuales} (false = hilos de plataforma, para comparar),
+ * {@code sim.semilla} (42) y la base: {@code sim.archivo} (una base existente, por ejemplo de
+ * {@link GeneradorDatos}; se le agregan turnos, y {@code sim.hasta} es su último día con turnos,
+ * por defecto {@link GeneradorDatos#HASTA_POR_DEFECTO}) o si no, una {@link BaseTemporal} de
+ * {@code sim.turnos} (200000) turnos. Los reportes piden períodos del último año de datos.
+ */
+public class SimuladorRecepcion {
+
+    public enum Operacion { RESERVA, LISTADO, LOGIN, REPORTE }
+
+    private enum Resultado { OK, CONFLICTO, BUSY, SIN_CONEXION, ERROR }
+
+    /** Latencias (ns) y resultados de un tipo de operación, de un solo puesto (sin sincronizar). */
+    private static class Registro {
+        long[] latencias = new long[1024];
+        int cantidad;
+        final long[] porResultado = new long[Resultado.values().length];
+
+        void anotar(long nanos, Resultado r) {
+            porResultado[r.ordinal()]++;
+            if (r != Resultado.OK && r != Resultado.CONFLICTO) return;  // las fallidas no cuentan en la latencia
+            if (cantidad == latencias.length) latencias = Arrays.copyOf(latencias, cantidad * 2);
+            latencias[cantidad++] = nanos;
+        }
+
+        void sumar(Registro otro) {
+            if (cantidad + otro.cantidad > latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad + otro.cantidad);
+            }
+            System.arraycopy(otro.latencias, 0, latencias, cantidad, otro.cantidad);
+            cantidad += otro.cantidad;
+            for (int i = 0; i < porResultado.length; i++) porResultado[i] += otro.porResultado[i];
+        }
+
+        long total() {
+            return Arrays.stream(porResultado).sum();
+        }
+
+        long get(Resultado r) {
+            return porResultado[r.ordinal()];
+        }
+    }
+
+    private final int puestos = Integer.getInteger("sim.puestos", 8);
+    private final long segundos = Long.getLong("sim.segundos", 30);
+    private final long calentamiento = Long.getLong("sim.calentamiento", 5);
+    private final long pausaMs = Long.getLong("sim.pausaMs", 0);
+    private final int diasReserva = Integer.getInteger("sim.dias", 14);
+    private LocalDate finDatos; // último día con turnos generados, para pedir reportes con datos
+    private final boolean virtuales = Boolean.parseBoolean(System.getProperty("sim.virtuales", "true"));
+    private final long semilla = Long.getLong("sim.semilla", 42);
+    private final Map<Operacion, Integer> mezcla = leerMezcla(
+            System.getProperty("sim.mezcla", "reserva=40,listado=30,login=20,reporte=10"));
+
+    private List<Medico> medicos;
+    private List<Paciente> pacientes;
+    // Primer error de cada tipo, para mostrarlo al final (con cientos de errores iguales alcanza uno)
+    private final Map<String, Throwable> primerosErrores = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        SimuladorRecepcion sim = new SimuladorRecepcion();
+        boolean limpio = sim.correr();
+        DBConnection.closeConnection();
+        System.exit(limpio ? 0 : 1);
+    }
+
+    /** @return true si no hubo BUSY, esperas agotadas ni errores */
+    public boolean correr() throws Exception {
+        String archivo = System.getProperty("sim.archivo");
+        if (archivo != null) {
+            System.setProperty("turnera.db.url", "jdbc:sqlite:" + Path.of(archivo));
+            MigradorEsquema.migrar();
+            finDatos = LocalDate.parse(System.getProperty("sim.hasta", GeneradorDatos.HASTA_POR_DEFECTO.toString()));
+        } else {
+            finDatos = BaseTemporal.crear(Long.getLong("sim.turnos", 200_000), semilla).getHasta();
+        }
+        UsuarioService usuarios = new UsuarioService();
+        medicos = usuarios.listarMedicos();
+        pacientes = usuarios.listarPacientes();
+
+        System.out.printf("== %d puestos (%s, %d núcleos), %d s + %d s de calentamiento, mezcla %s, %d médicos, %d pacientes, modo %s%n",
+                puestos, virtuales ? "hilos virtuales" : "hilos de plataforma", Runtime.getRuntime().availableProcessors(),
+                segundos, calentamiento, mezcla, medicos.size(), pacientes.size(), DBConnection.getModo());
+
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + calentamiento * 1_000_000_000L;
+        long fin = inicioMedicion + segundos * 1_000_000_000L;
+
+        List<Map<Operacion, Registro>> registros = new ArrayList<>();
+        List<Thread> hilos = new ArrayList<>();
+        Thread.Builder constructor = virtuales ? Thread.ofVirtual().name("puesto-", 1) : Thread.ofPlatform().name("puesto-", 1);
+        for (int i = 0; i < puestos; i++) {
+            Map<Operacion, Registro> registro = new EnumMap<>(Operacion.class);
+            for (Operacion op : Operacion.values()) registro.put(op, new Registro());
+            registros.add(registro);
+            Puesto puesto = new Puesto(new Random(semilla + i), registro, inicioMedicion, fin);
+            hilos.add(constructor.start(puesto));
+        }
+        for (Thread h : hilos) h.join();
+        double duracion = (System.nanoTime() - inicioMedicion) / 1e9;
+
+        return informar(registros, duracion);
+    }
+
+    /** Un puesto de recepción: opera hasta que se acaba el tiempo. */
+    private class Puesto implements Runnable {
+        private final Random rnd;
+        private final Map<Operacion, Registro> registro;
+        private final long inicioMedicion;
+        private final long fin;
+        private final int[] acumMezcla;
+
+        Puesto(Random rnd, Map<Operacion, Registro> registro, long inicioMedicion, long fin) {
+            this.rnd = rnd;
+            this.registro = registro;
+            this.inicioMedicion = inicioMedicion;
+            this.fin = fin;
+            this.acumMezcla = new int[Operacion.values().length];
+            int suma = 0;
+            for (Operacion op : Operacion.values()) {
+                suma += mezcla.getOrDefault(op, 0);
+                acumMezcla[op.ordinal()] = suma;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                TurnoService turnos = new TurnoService();
+                UsuarioService usuarios = new UsuarioService();
+                ReporteService reportes = new ReporteService();
+                long ahora;
+                while ((ahora = System.nanoTime()) < fin) {
+                    Operacion op = elegir();
+                    Resultado r;
+                    try {
+                        ejecutar(op, turnos, usuarios, reportes);
+                        r = Resultado.OK;
+                    } catch (TurnoNoDisponibleException e) {
+                        r = Resultado.CONFLICTO;
+                    } catch (Exception e) {
+                        r = clasificar(e);
+                        primerosErrores.putIfAbsent(op + " " + r, e);
+                    }
+                    long despues = System.nanoTime();
+                    if (ahora >= inicioMedicion) registro.get(op).anotar(despues - ahora, r);
+                    if (pausaMs > 0) Thread.sleep(pausaMs);
+                }
+            } catch (Exception e) {
+                primerosErrores.putIfAbsent("puesto " + Thread.currentThread().getName(), e);
+            }
+        }
+
+        private Operacion elegir() {
+            int x = rnd.nextInt(acumMezcla[acumMezcla.length - 1]);
+            for (Operacion op : Operacion.values()) {
+                if (x < acumMezcla[op.ordinal()]) return op;
+            }
+            return Operacion.LOGIN;
+        }
+
+        private void ejecutar(Operacion op, TurnoService turnos, UsuarioService usuarios, ReporteService reportes)
+                throws Exception {
+            Medico medico = medicos.get(rnd.nextInt(medicos.size()));
+            LocalDate hoy = LocalDate.now();
+            switch (op) {
+                case RESERVA -> {
+                    // Uno de los horarios que un puesto puede elegir en la pantalla
+                    LocalDateTime horario = hoy.plusDays(1 + rnd.nextInt(diasReserva))
+                            .atTime(DisponibilidadService.PRIMER_HORARIO)
+                            .plusMinutes((long) DisponibilidadService.MINUTOS_POR_TURNO
+                                    * rnd.nextInt(DisponibilidadService.HORARIOS_POR_DIA));
+                    turnos.registrarTurno(new Turno(horario, medico, pacientes.get(rnd.nextInt(pacientes.size()))));
+                }
+                case LISTADO -> turnos.listarPaginaTurnos(medico.getId(), -1, hoy, hoy.plusDays(7), null, 50);
+                case LOGIN -> usuarios.buscarPorDni(pacientes.get(rnd.nextInt(pacientes.size())).getDni());
+                case REPORTE -> {
+                    LocalDate desde = finDatos.minusDays(30 + rnd.nextInt(365));
+                    int idMedico = rnd.nextBoolean() ? -1 : medico.getId();
+                    reportes.generarResumenRecaudacion(desde, desde.plusDays(6 + rnd.nextInt(85)), idMedico);
+                }
+            }
+        }
+    }
+
+    private static Resultado clasificar(Exception e) {
+        if (DBUtils.esBloqueo(e)) return Resultado.BUSY;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            // El pool no dio una conexión a tiempo (sin una SQLException debajo: no es un error de SQLite)
+            if (t instanceof ConnectionException && t.getCause() == null) return Resultado.SIN_CONEXION;
+        }
+        return Resultado.ERROR;
+    }
+
+    private boolean informar(List<Map<Operacion, Registro>> registros, double duracion) {
+        Map<Operacion, Registro> porOperacion = new EnumMap<>(Operacion.class);
+        Registro total = new Registro();
+        for (Operacion op : Operacion.values()) {
+            Registro r = new Registro();
+            for (Map<Operacion, Registro> delPuesto : registros) r.sumar(delPuesto.get(op));
+            porOperacion.put(op, r);
+            total.sumar(r);
+        }
+
+        System.out.printf("%-8s %9s %9s %8s %8s %8s %8s %10s %6s %8s %7s%n", "Op", "ops", "ops/s",
+                "p50 ms", "p99 ms", "p999 ms", "máx ms", "conflictos", "busy", "sin con.", "errores");
+        porOperacion.forEach((op, r) -> imprimirFila(op.name().toLowerCase(), r, duracion));
+        imprimirFila("TOTAL", total, duracion);
+
+        Registro reservas = porOperacion.get(Operacion.RESERVA);
+        if (reservas.total() > 0) {
+            System.out.printf(Locale.ROOT, "Tasa de conflictos en reservas: %.2f%%%n",
+                    100.0 * reservas.get(Resultado.CONFLICTO) / reservas.total());
+        }
+        primerosErrores.forEach((tipo, e) -> System.out.println("Primer " + tipo + ": " + e));
+
+        // Desglose por DAO/servicio (incluye el calentamiento)
+        if (RegistroMetricas.isActivo()) System.out.print(RegistroMetricas.getInstancia().formatear());
+
+        return total.get(Resultado.BUSY) == 0 && total.get(Resultado.SIN_CONEXION) == 0
+                && total.get(Resultado.ERROR) == 0 && primerosErrores.isEmpty();
+    }
+
+    private static void imprimirFila(String nombre, Registro r, double duracion) {
+        long[] ordenadas = Arrays.copyOf(r.latencias, r.cantidad);
+        Arrays.sort(ordenadas);
+        System.out.printf(Locale.ROOT, "%-8s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %10d %6d %8d %7d%n", nombre,
+                r.total(), r.total() / duracion, ms(ordenadas, 0.50), ms(ordenadas, 0.99), ms(ordenadas, 0.999),
+                ms(ordenadas, 1.0), r.get(Resultado.CONFLICTO), r.get(Resultado.BUSY),
+                r.get(Resultado.SIN_CONEXION), r.get(Resultado.ERROR));
+    }
+
+    /** Percentil (0..1) en milisegundos, por el método del rango más cercano. */
+    private static double ms(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) return 0;
+        int i = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(i, ordenadas.length - 1))] / 1e6;
+    }
+
+    private static Map<Operacion, Integer> leerMezcla(String texto) {
+        Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+        for (String parte : texto.split(",")) {
+            String[] kv = parte.trim().split("=");
+            mezcla.put(Operacion.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+        }
+        return mezcla;
+    }
+}
@@ -0,0 +1,240 @@
+package bench;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import base.Medico;
+import base.Paciente;
+import base.Rol;
+import base.Turno;
+import base.Usuario;
+import daoImp.TurnoDAOImpl;
+import daoImp.UsuarioDAOImpl;
+import db.ConnectionLease;
+import db.DBConnection;
+import service.DisponibilidadService;
+import service.TurnoService;
+
+/**
+ * Mediciones JMH de los caminos más usados de DAO y servicios, sobre una {@link BaseTemporal}.
+ *
+ * Cada benchmark y cada tamaño ({@code turnos}) corre en su propia JVM (fork): {@link DBConnection}
+ * lee la URL de la base una sola vez, así que cada fork crea y llena su base temporal en el
+ * {@code @Setup}. Las escrituras (guardar, registrarTurno) agregan turnos solo a la base de su fork.
+ * Para comparar antes/después de un cambio: misma semilla, tamaños y máquina.
+ *
+ * ejecutarConsultaListado y mapRow son privados: se miden por listarPorMedico/listarPorPaciente
+ * y por buscarPorRol (devuelve todos los médicos; casi todo el tiempo es mapear filas).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarksTurnero {
+
+    /** La base del fork y los datos para elegir parámetros al azar. */
+    @State(Scope.Benchmark)
+    public static class Base {
+        @Param({ "10000", "100000" })
+        long turnos;
+
+        @Param("42")
+        long semilla;
+
+        Random rnd;
+        List<Medico> medicos;
+        List<Paciente> pacientes;
+        List<Turno> muestra;
+        LocalDate hastaDatos;
+        // Próximo horario libre para las escrituras (de mañana en adelante la agenda está vacía)
+        LocalDateTime proximo;
+
+        // Último horario de la agenda del día (19:30)
+        private static final LocalTime ULTIMO_HORARIO = DisponibilidadService.PRIMER_HORARIO
+                .plusMinutes((long) DisponibilidadService.MINUTOS_POR_TURNO * (DisponibilidadService.HORARIOS_POR_DIA - 1));
+
+        @Setup(Level.Trial)
+        public void crear() throws Exception {
+            BaseTemporal base = BaseTemporal.crear(turnos, semilla);
+            rnd = new Random(semilla);
+            medicos = base.getMedicos();
+            pacientes = base.getPacientes();
+            muestra = base.getMuestraTurnos();
+            hastaDatos = base.getHasta();
+            proximo = LocalDate.now().plusDays(1).atTime(DisponibilidadService.PRIMER_HORARIO);
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() {
+            DBConnection.closeConnection();
+        }
+
+        Medico medico() {
+            return medicos.get(rnd.nextInt(medicos.size()));
+        }
+
+        Paciente paciente() {
+            return pacientes.get(rnd.nextInt(pacientes.size()));
+        }
+
+        Turno turnoExistente() {
+            return muestra.get(rnd.nextInt(muestra.size()));
+        }
+
+        /**
+         * Horarios de la agenda en orden (cada 30 minutos de 08:00 a 19:30, después el día siguiente):
+         * los mismos que se reservan desde la pantalla, así registrarTurno también actualiza la
+         * disponibilidad en memoria como en una reserva real.
+         */
+        LocalDateTime siguienteHorario() {
+            LocalDateTime h = proximo;
+            proximo = proximo.plusMinutes(DisponibilidadService.MINUTOS_POR_TURNO);
+            if (proximo.toLocalTime().isAfter(ULTIMO_HORARIO)) {
+                proximo = proximo.toLocalDate().plusDays(1).atTime(DisponibilidadService.PRIMER_HORARIO);
+            }
+            return h;
+        }
+    }
+
+    /** Una conexión de lectura para toda la medición: se mide el DAO, no el pool. */
+    @State(Scope.Benchmark)
+    public static class Lecturas {
+        ConnectionLease lease;
+        TurnoDAOImpl turnos;
+        UsuarioDAOImpl usuarios;
+        LocalDateTime desde;
+        LocalDateTime hasta;
+
+        @Setup(Level.Trial)
+        public void abrir(Base base) throws Exception {
+            lease = DBConnection.borrowLectura();
+            turnos = new TurnoDAOImpl(lease.getConnection());
+            usuarios = new UsuarioDAOImpl(lease.getConnection());
+            // Reportes de 30 días cerca del final de los datos generados
+            desde = base.hastaDatos.minusDays(90).atStartOfDay();
+            hasta = base.hastaDatos.minusDays(60).atTime(23, 59);
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() {
+            lease.close();
+        }
+    }
+
+    /** La conexión de escritura para guardar; confirma cada 100 turnos. */
+    @State(Scope.Benchmark)
+    public static class Escrituras {
+        private static final int TURNOS_POR_COMMIT = 100;
+
+        ConnectionLease lease;
+        TurnoDAOImpl turnos;
+        int pendientes;
+
+        @Setup(Level.Trial)
+        public void abrir(Base base) throws Exception {
+            lease = DBConnection.borrow();
+            turnos = new TurnoDAOImpl(lease.getConnection());
+        }
+
+        void guardado() throws Exception {
+            if (++pendientes == TURNOS_POR_COMMIT) {
+                lease.commit();
+                pendientes = 0;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() throws Exception {
+            lease.commit();
+            lease.close();
+        }
+    }
+
+    /** El servicio de turnos, creado después de la base (lee la agenda de ella). */
+    @State(Scope.Benchmark)
+    public static class Servicio {
+        TurnoService turnos;
+
+        @Setup(Level.Trial)
+        public void crear(Base base) throws Exception {
+            turnos = new TurnoService();
+        }
+    }
+
+    @Benchmark
+    public boolean existeTurnoMedicoOcupado(Base base, Lecturas l) throws Exception {
+        Turno t = base.turnoExistente();
+        return l.turnos.existeTurnoMedico(t.getMedico().getId(), t.getFechaHora());
+    }
+
+    @Benchmark
+    public boolean existeTurnoMedicoLibre(Base base, Lecturas l) throws Exception {
+        Turno t = base.turnoExistente();
+        return l.turnos.existeTurnoMedico(t.getMedico().getId(), t.getFechaHora().plusMinutes(7));
+    }
+
+    @Benchmark
+    public List<Turno> listarPorMedico(Base base, Lecturas l) throws Exception {
+        return l.turnos.listarPorMedico(base.medico().getId());
+    }
+
+    @Benchmark
+    public List<Turno> listarPorPaciente(Base base, Lecturas l) throws Exception {
+        return l.turnos.listarPorPaciente(base.paciente().getId());
+    }
+
+    @Benchmark
+    public Object[] obtenerReporteMedico(Base base, Lecturas l) throws Exception {
+        return l.turnos.obtenerReporteMedico(base.medico().getId(), l.desde, l.hasta);
+    }
+
+    @Benchmark
+    public List<Object[]> obtenerReporteGeneral(Lecturas l) throws Exception {
+        return l.turnos.obtenerReporteGeneral(l.desde, l.hasta);
+    }
+
+    @Benchmark
+    public Usuario buscarPorDni(Base base, Lecturas l) throws Exception {
+        return l.usuarios.buscarPorDni(base.paciente().getDni());
+    }
+
+    @Benchmark
+    public List<Usuario> mapRowBuscarPorRol(Lecturas l) throws Exception {
+        return l.usuarios.buscarPorRol(Rol.MEDICO);
+    }
+
+    @Benchmark
+    public int guardar(Base base, Escrituras e) throws Exception {
+        Turno t = new Turno(base.siguienteHorario(), base.medicos.get(0), base.paciente());
+        e.turnos.guardar(t);
+        e.guardado();
+        return t.getId();
+    }
+
+    /** Punta a punta: conexión del pool, INSERT, resumen de recaudación, commit y agenda en memoria. */
+    @Benchmark
+    public int registrarTurno(Base base, Servicio s) throws Exception {
+        Turno t = new Turno(base.siguienteHorario(), base.medicos.get(1), base.paciente());
+        s.turnos.registrarTurno(t);
+        return t.getId();
+    }
+}
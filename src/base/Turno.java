@@ -15,6 +15,9 @@ public class Turno {
     private Paciente paciente;
     // Si no es SobreTurno, queda null
     private Integer turnoPadreId;  
+    // Lo que se cobró al reservar (queda fijo aunque después cambien los honorarios o la obra social).
+    // null = turno todavía sin guardar: el costo se calcula con los datos actuales
+    private Double costo;
 
     public Turno(int id, LocalDateTime fechaHora, Medico medico, Paciente paciente, Integer turnoPadreId) {
         this.id = id;
@@ -51,7 +54,15 @@ public class Turno {
         return paciente;
     }
     
+    /**
+     * Costo del turno: el registrado al reservar, o el que corresponde hoy si todavía no se guardó.
+     */
     public double getCosto() {
+        return (costo != null) ? costo : calcularCosto();
+    }
+
+    /** Costo según los honorarios y obras sociales actuales del médico y el paciente. */
+    public double calcularCosto() {
     	double costoBase = medico.getHonorariosPorConsulta();
         
         // Si ambos tienen obra social, no son PARTICULAR, y coinciden
@@ -85,6 +96,10 @@ public class Turno {
         this.paciente = paciente;
     }
     
+    public void setCosto(Double costo) {
+        this.costo = costo;
+    }
+
     public void setTurnoPadreId(Integer turnoPadreId) {
         this.turnoPadreId = turnoPadreId;
     }
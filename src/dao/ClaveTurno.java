@@ -0,0 +1,24 @@
+package dao;
+
+import java.time.LocalDateTime;
+
+import base.Turno;
+
+/**
+ * Posición de un turno en los listados paginados, que se ordenan por (fechaHora, id).
+ * El id desempata los turnos del mismo horario (por ejemplo, sobreturnos o distintos médicos).
+ */
+public record ClaveTurno(LocalDateTime fechaHora, int id) implements Comparable<ClaveTurno> {
+
+    /** Clave para seguir listando después de este turno. */
+    public static ClaveTurno de(Turno turno) {
+        return new ClaveTurno(turno.getFechaHora(), turno.getId());
+    }
+
+    /** Mismo orden que los listados: por fecha y, en el mismo horario, por id. */
+    @Override
+    public int compareTo(ClaveTurno otra) {
+        int c = fechaHora.compareTo(otra.fechaHora);
+        return (c != 0) ? c : Integer.compare(id, otra.id);
+    }
+}
@@ -0,0 +1,14 @@
+package dao;
+
+import java.time.LocalDate;
+
+import base.ObraSocial;
+
+/**
+ * Una fila del resumen de recaudación: lo cobrado por un médico en un día a pacientes de una obra social.
+ *
+ * @param obraSocial obra social del paciente al reservar (PARTICULAR si no tenía)
+ * @param total      suma de lo cobrado en esos turnos
+ */
+public record FilaRecaudacion(int idMedico, String nombre, String apellido, LocalDate dia,
+                              ObraSocial obraSocial, int cantidad, double total) {}
@@ -0,0 +1,7 @@
+package dao;
+
+/**
+ * Una fila del reporte de recaudación por médico: cuántos turnos tuvo en el período y cuánto recaudó.
+ * Reemplaza a los Object[] {nombre, apellido, cantidad, total} de los reportes.
+ */
+public record FilaReporte(int idMedico, String nombre, String apellido, int cantidad, double total) {}
@@ -0,0 +1,38 @@
+package dao;
+
+import java.util.List;
+
+/**
+ * Una página de resultados de un listado paginado por clave (keyset).
+ * No guarda un número de página ni un OFFSET: para pedir la siguiente se usa la clave
+ * del último elemento, así las páginas del final cuestan lo mismo que la primera.
+ *
+ * @param <T> tipo de los elementos listados
+ */
+public class Pagina<T> {
+    private final List<T> elementos;
+    private final boolean hayMas;
+
+    public Pagina(List<T> elementos, boolean hayMas) {
+        this.elementos = elementos;
+        this.hayMas = hayMas;
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /** true si después del último elemento quedan más resultados. */
+    public boolean hayMas() {
+        return hayMas;
+    }
+
+    public boolean isEmpty() {
+        return elementos.isEmpty();
+    }
+
+    /** Último elemento de la página (de donde sale la clave para pedir la siguiente), o null si está vacía. */
+    public T getUltimo() {
+        return elementos.isEmpty() ? null : elementos.get(elementos.size() - 1);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * DAO: define que acciones se pueden hacer (guardar, borrar, listar, etc) pero no como se hacen.
+ * Me sirve para cambiar la base de datos en el futuro sin romper todo el programa.
+*/
+package dao;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import base.Turno;
+import exceptions.DAOException;
+
+/**
+ * Resumen de recaudación por médico, día y obra social del paciente (tabla {@code recaudacion_diaria}).
+ *
+ * Los reportes leen este resumen en lugar de contar y sumar los turnos: un año son unas
+ * pocas filas por médico y día, sin importar cuántos turnos haya. Se mantiene al día
+ * sumando cada turno reservado en la misma transacción que lo inserta.
+ */
+public interface RecaudacionDAO {
+
+    /**
+     * Suma los turnos al resumen de su médico, día y obra social, con el costo que quedó
+     * registrado en cada turno. Debe correr en la misma transacción que inserta los turnos.
+     */
+    void sumarTurnos(List<Turno> turnos) throws DAOException;
+
+    /**
+     * Vuelve a calcular todo el resumen a partir de la tabla turnos (por ejemplo, para una base
+     * con turnos cargados por fuera de la aplicación).
+     * @return cantidad de filas (médico, día) del resumen
+     */
+    int reconstruir() throws DAOException;
+
+    /**
+     * Recorre las filas del resumen entre las dos fechas (inclusive), sin orden particular.
+     * @param idMedico -1 = todos los médicos
+     */
+    void recorrerResumen(LocalDate desde, LocalDate hasta, int idMedico,
+                         Consumer<? super FilaRecaudacion> visitante) throws DAOException;
+}
@@ -6,15 +6,89 @@ package dao;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 import base.Turno;
 import exceptions.DAOException;
+import exceptions.TurnoNoDisponibleException;
 
 public interface TurnoDAO {
-    void guardar(Turno turno) throws DAOException;
+    /**
+     * Inserta el turno y le asigna el ID generado.
+     * El doble turno lo impide la base (índice único de médico + fecha para turnos que no son sobreturno),
+     * así la reserva es un único INSERT seguro aunque varios puestos reserven a la vez.
+     * @throws TurnoNoDisponibleException si el médico ya tiene un turno en esa fecha y hora
+     */
+    void guardar(Turno turno) throws DAOException, TurnoNoDisponibleException;
     List<Turno> listarTodos() throws DAOException;
     boolean existeTurnoMedico(int idMedico, LocalDateTime fechaHora) throws DAOException;
+
+    /**
+     * Inserta varios turnos en un solo batch JDBC (un viaje a la base en lugar de uno por turno).
+     * Los turnos cuyo horario ya está ocupado no se insertan ni cortan el lote: quedan con 0 en el resultado.
+     * No asigna IDs a los turnos insertados.
+     * @return por cada turno, en el mismo orden: 1 si se insertó, 0 si el horario ya estaba tomado
+     * @throws DAOException si algún turno viola otra restricción de la tabla: falla el lote entero
+     */
+    int[] guardarLote(List<Turno> turnos) throws DAOException;
+
+    /**
+     * Versión en lote de {@link #existeTurnoMedico}: revisa todos los turnos con una sola consulta.
+     * Los sobreturnos nunca se consideran ocupados.
+     * @return por cada turno, en el mismo orden: true si el médico ya tiene un turno en ese horario
+     */
+    boolean[] existenTurnosMedico(List<Turno> turnos) throws DAOException;
     List<Turno> listarPorPaciente(int idPaciente) throws DAOException;
     List<Turno> listarPorMedico(int idMedico) throws DAOException;
+
+    /**
+     * Versiones "streaming" de los listados: en lugar de armar una lista, leen las filas de a una
+     * y le pasan cada turno al visitante. La memoria usada no depende de la cantidad de turnos,
+     * así que sirven para exportar o procesar todo el historial.
+     * El visitante corre mientras la consulta está abierta: no debe usar la misma conexión.
+     */
+    void recorrerTodos(Consumer<? super Turno> visitante) throws DAOException;
+    void recorrerPorPaciente(int idPaciente, Consumer<? super Turno> visitante) throws DAOException;
+    void recorrerPorMedico(int idMedico, Consumer<? super Turno> visitante) throws DAOException;
+
+    /**
+     * Consulta liviana para la agenda de disponibilidad: solo médico y horario de los turnos
+     * normales (no sobreturnos) entre las dos fechas, sin joins ni armado de objetos.
+     * @param visitante recibe (fechaHora, idMedico) por cada horario ocupado
+     */
+    void recorrerHorariosOcupados(LocalDateTime desde, LocalDateTime hasta,
+                                  ObjIntConsumer<LocalDateTime> visitante) throws DAOException;
+
+    /**
+     * Listado paginado por clave, ordenado por (fechaHora, id).
+     * @param idMedico   filtra por médico; -1 = todos
+     * @param idPaciente filtra por paciente; -1 = todos
+     * @param desde      inicio de la ventana de fechas (inclusive); null = sin límite
+     * @param hasta      fin de la ventana de fechas (inclusive); null = sin límite
+     * @param despuesDe  clave del último turno de la página anterior; null = primera página
+     * @param tamanio    cantidad máxima de turnos de la página
+     */
+    Pagina<Turno> listarPagina(int idMedico, int idPaciente, LocalDateTime desde, LocalDateTime hasta,
+                               ClaveTurno despuesDe, int tamanio) throws DAOException;
+
+    /**
+     * Cantidad de turnos de {@link #listarPagina} con esos filtros de médico y paciente, sin
+     * recorrer toda la tabla. Con filtro cuenta el rango del índice de ese médico o paciente; sin
+     * filtro devuelve el id más alto, que es el total porque los ids son AUTOINCREMENT y los
+     * turnos no se borran (si alguien borró turnos a mano, es una estimación por arriba).
+     */
+    int contarTurnos(int idMedico, int idPaciente) throws DAOException;
+
+    /**
+     * Clave del turno que está {@code saltar} lugares después de {@code desde} en el orden de
+     * {@link #listarPagina} (o antes, si {@code saltar} es negativo), para pedir una página lejana
+     * sin traer las intermedias. Recorre solo el índice de fechas (sin joins ni armado de objetos),
+     * así que el costo crece con la distancia: conviene saltar desde la clave conocida más cercana.
+     * @param desde  clave de partida (no se cuenta); null = antes del primero, o después del último si se retrocede
+     * @param saltar 1 = el siguiente a {@code desde}, -1 = el anterior; no puede ser 0
+     * @return la clave, o null si el listado no llega tan lejos
+     */
+    ClaveTurno buscarClave(int idMedico, int idPaciente, ClaveTurno desde, int saltar) throws DAOException;
     /**
      * Reporte Individual: Obtiene datos agregados de un médico específico.
      * Retorna un Object[] donde:
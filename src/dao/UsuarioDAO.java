@@ -9,14 +9,18 @@ import java.util.List;
 import base.Rol;
 import base.Usuario;
 import exceptions.DAOException;
+import exceptions.DatosInvalidosException;
 
 /**
  * Interfaz DAO para operaciones ABM genéricas sobre usuarios.
  * Define métodos para crear, leer, actualizar y eliminar usuarios.
  */
 public interface UsuarioDAO {
-    /** Inserta un nuevo usuario en la db. */
-    boolean guardar(Usuario usuario) throws DAOException;
+    /**
+     * Inserta un nuevo usuario en la db y le asigna el ID generado.
+     * @throws DatosInvalidosException si ya hay un usuario con ese DNI (lo rechaza el índice único de la base)
+     */
+    boolean guardar(Usuario usuario) throws DAOException, DatosInvalidosException;
 
     /** Actualiza los datos de un usuario existente. */
     boolean actualizar(Usuario usuario) throws DAOException;
@@ -36,9 +40,27 @@ public interface UsuarioDAO {
     /**  Lista usuarios según rol */
     List<Usuario> buscarPorRol(Rol rol) throws DAOException;
 
-    /** Busca usuarios por nombre (o parte de él). */
+    /**
+     * Listado paginado por clave, ordenado por ID.
+     * @param rol        filtra por rol; null = todos
+     * @param despuesDeId ID del último usuario de la página anterior; 0 = primera página
+     * @param tamanio    cantidad máxima de usuarios de la página
+     */
+    Pagina<Usuario> listarPagina(Rol rol, int despuesDeId, int tamanio) throws DAOException;
+
+    /**
+     * Búsqueda por nombre, apellido o DNI (o parte de ellos), para buscadores que consultan
+     * a medida que se escribe. Con 3 letras o más busca en cualquier parte del texto (índice
+     * de texto completo, ordenado por relevancia); con 1 o 2 letras busca por comienzo.
+     * @param texto  una o más palabras; se devuelven los usuarios que contienen todas
+     * @param rol    filtra por rol; null = todos
+     * @param limite cantidad máxima de resultados
+     */
+    List<Usuario> buscar(String texto, Rol rol, int limite) throws DAOException;
+
+    /** Busca usuarios por nombre (o parte de él; con menos de 3 letras, por comienzo). */
     List<Usuario> buscarPorNombre(String nombre) throws DAOException;
 
-    /** Busca usuarios por apellido (o parte de él). */
+    /** Busca usuarios por apellido (o parte de él; con menos de 3 letras, por comienzo). */
     List<Usuario> buscarPorApellido(String apellido) throws DAOException;
 }
@@ -0,0 +1,33 @@
+package daoImp;
+
+import java.sql.Connection;
+
+import dao.TurnoDAO;
+import dao.UsuarioDAO;
+import utils.EventoSql;
+import utils.RegistroMetricas;
+
+/**
+ * Crea los DAO que usan los servicios sobre la conexión que pidieron prestada.
+ * Si las métricas están activas ({@link RegistroMetricas#isActivo()}) o una grabación de Flight
+ * Recorder tiene activo {@link EventoSql}, el DAO viene envuelto en su decorador que mide cada
+ * llamada; si no, es la implementación directa.
+ */
+public class FabricaDAO {
+
+    private FabricaDAO() {}
+
+    public static TurnoDAO turnos(Connection conn) {
+        TurnoDAO dao = new TurnoDAOImpl(conn);
+        return medir() ? new TurnoDAOMedido(dao) : dao;
+    }
+
+    public static UsuarioDAO usuarios(Connection conn) {
+        UsuarioDAO dao = new UsuarioDAOImpl(conn);
+        return medir() ? new UsuarioDAOMedido(dao) : dao;
+    }
+
+    private static boolean medir() {
+        return RegistroMetricas.isActivo() || EventoSql.isHabilitado();
+    }
+}
@@ -0,0 +1,60 @@
+package daoImp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import base.Medico;
+import base.Paciente;
+
+/**
+ * Mapa de identidad (identity map) para el armado de turnos.
+ *
+ * Al listar turnos, el mismo médico aparece en miles de filas. En lugar de crear un
+ * objeto Medico/Paciente nuevo por fila, el mapper pregunta acá si ya armó ese usuario
+ * (por ID) y reutiliza la misma instancia. Un médico con 5.000 turnos queda como un solo objeto.
+ *
+ * Por defecto el DAO usa un mapa nuevo por consulta; si se le pasa uno en el constructor,
+ * lo comparte entre consultas (por ejemplo, durante una sesión de pantalla).
+ * No es thread-safe: cada hilo debe usar el suyo.
+ */
+public class MapaIdentidad {
+
+    // Tope de usuarios recordados: al recorrer historiales enormes, pasado este número se
+    // sigue reutilizando lo que ya está pero no se guardan usuarios nuevos (memoria acotada).
+    private static final int MAXIMO_POR_TIPO = 10_000;
+
+    private final Map<Integer, Medico> medicos = new HashMap<>();
+    private final Map<Integer, Paciente> pacientes = new HashMap<>();
+
+    /** Médico ya armado con ese ID, o null si todavía no se vio. */
+    Medico getMedico(int id) {
+        return medicos.get(id);
+    }
+
+    /** Paciente ya armado con ese ID, o null si todavía no se vio. */
+    Paciente getPaciente(int id) {
+        return pacientes.get(id);
+    }
+
+    void registrar(Medico medico) {
+        if (medicos.size() < MAXIMO_POR_TIPO) {
+            medicos.put(medico.getId(), medico);
+        }
+    }
+
+    void registrar(Paciente paciente) {
+        if (pacientes.size() < MAXIMO_POR_TIPO) {
+            pacientes.put(paciente.getId(), paciente);
+        }
+    }
+
+    /** Olvida todo (por ejemplo, después de editar un usuario). */
+    public void limpiar() {
+        medicos.clear();
+        pacientes.clear();
+    }
+
+    public int size() {
+        return medicos.size() + pacientes.size();
+    }
+}
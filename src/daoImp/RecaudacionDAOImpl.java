@@ -0,0 +1,113 @@
+package daoImp;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import base.ObraSocial;
+import base.Turno;
+import dao.FilaRecaudacion;
+import dao.RecaudacionDAO;
+import exceptions.DAOException;
+
+public class RecaudacionDAOImpl implements RecaudacionDAO {
+
+    private final Connection conn;
+
+    // Constructor para inyección de conexión: el Service le pasa la conexión que pidió prestada al pool
+    public RecaudacionDAOImpl(Connection conn) {
+        this.conn = conn;
+    }
+
+    /** Médico, día (epoch day) y obra social de una fila del resumen. */
+    private record Clave(int idMedico, long dia, String obraSocial) {}
+
+    @Override
+    public void sumarTurnos(List<Turno> turnos) throws DAOException {
+        // Agrupo primero en memoria: un lote de 100 turnos del mismo médico, día y obra social es un solo UPSERT
+        Map<Clave, Integer> cantidades = new LinkedHashMap<>();
+        Map<Clave, Double> totales = new HashMap<>();
+        for (Turno t : turnos) {
+            ObraSocial os = t.getPaciente().getObraSocial();
+            Clave clave = new Clave(t.getMedico().getId(), t.getFechaHora().toLocalDate().toEpochDay(),
+                    (os != null) ? os.name() : ObraSocial.PARTICULAR.name());
+            cantidades.merge(clave, 1, Integer::sum);
+            // El mismo costo que TurnoDAO guardó en el turno
+            totales.merge(clave, t.getCosto(), Double::sum);
+        }
+        String sql = """
+            INSERT INTO recaudacion_diaria (medico_id, dia, obra_social, cantidad, total)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT(medico_id, dia, obra_social) DO UPDATE SET
+                cantidad = cantidad + excluded.cantidad,
+                total = total + excluded.total
+            """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Map.Entry<Clave, Integer> e : cantidades.entrySet()) {
+                Clave c = e.getKey();
+                ps.setInt(1, c.idMedico());
+                ps.setLong(2, c.dia());
+                ps.setString(3, c.obraSocial());
+                ps.setInt(4, e.getValue());
+                ps.setDouble(5, totales.get(c));
+                ps.addBatch();
+            }
+            ps.executeBatch(); //el commit lo hace el servicio, junto con el INSERT de los turnos
+        } catch (SQLException e) {
+            throw new DAOException("Error al actualizar el resumen de recaudación", e);
+        }
+    }
+
+    @Override
+    public int reconstruir() throws DAOException {
+        // fecha_min / 1440 = días desde 1970 (misma cuenta que LocalDate.toEpochDay(), ver FechaUtils)
+        String sql = """
+            INSERT INTO recaudacion_diaria (medico_id, dia, obra_social, cantidad, total)
+            SELECT medico_id, fecha_min / 1440, COALESCE(obra_social, 'PARTICULAR'), COUNT(*), TOTAL(costo)
+            FROM turnos
+            GROUP BY 1, 2, 3
+            """;
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM recaudacion_diaria");
+            return st.executeUpdate(sql);
+        } catch (SQLException e) {
+            throw new DAOException("Error al reconstruir el resumen de recaudación", e);
+        }
+    }
+
+    @Override
+    public void recorrerResumen(LocalDate desde, LocalDate hasta, int idMedico,
+                                Consumer<? super FilaRecaudacion> visitante) throws DAOException {
+        String sql = """
+            SELECT r.medico_id, m.nombre, m.apellido, r.dia, r.obra_social, r.cantidad, r.total
+            FROM recaudacion_diaria r
+            JOIN usuarios m ON r.medico_id = m.id
+            WHERE r.dia BETWEEN ? AND ?
+            """ + ((idMedico != -1) ? " AND r.medico_id = ?" : "");
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, desde.toEpochDay());
+            ps.setLong(2, hasta.toEpochDay());
+            if (idMedico != -1) {
+                ps.setInt(3, idMedico);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    visitante.accept(new FilaRecaudacion(
+                        rs.getInt(1), rs.getString(2), rs.getString(3),
+                        LocalDate.ofEpochDay(rs.getLong(4)), ObraSocial.valueOf(rs.getString(5)),
+                        rs.getInt(6), rs.getDouble(7)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Error al leer el resumen de recaudación", e);
+        }
+    }
+}
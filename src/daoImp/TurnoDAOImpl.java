@@ -6,54 +6,139 @@ import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 import base.Medico;
 import base.Paciente;
 import base.Turno;
 import base.ObraSocial;
+import dao.ClaveTurno;
+import dao.Pagina;
 import dao.TurnoDAO;
 import db.DBConnection;
+import db.DBUtils;
+import db.FormatoFecha;
 import exceptions.DAOException;
+import exceptions.TurnoNoDisponibleException;
+import utils.FechaUtils;
 
 public class TurnoDAOImpl implements TurnoDAO {
+
     
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");  //esto es porque SQLite no tiene tipo de dato nativo para datetime
     private final Connection conn;
+    // Si no es null, el mapa de identidad se comparte entre todas las consultas de este DAO
+    private final MapaIdentidad mapaSesion;
+
+    // Se escriben siempre las dos columnas (fechaHora y fecha_min); el formato decide cuál se lee y filtra.
+    // Con EPOCH_MINUTOS no hay parseo de texto al leer y los rangos comparan enteros.
+    private final boolean fechaNumerica;
+    private final String colFecha;
+    private final String sqlListarTodos;
+    private final String sqlListarPorPaciente;
+    private final String sqlListarPorMedico;
     
-    // Constructor para inyección de conexión (usado por Service para transacciones)
+    // Constructor para inyección de conexión: el Service le pasa la conexión que pidió prestada al pool
     public TurnoDAOImpl(Connection conn) {
+        this(conn, null);
+    }
+
+    // Igual que el anterior, pero reutilizando los médicos/pacientes ya armados en otras consultas
+    public TurnoDAOImpl(Connection conn, MapaIdentidad mapaSesion) {
+        this(conn, mapaSesion, DBConnection.getFormatoFecha());
+    }
+
+    // Permite elegir la columna de fecha en lugar de tomar la configurada (benchmarks, herramientas)
+    public TurnoDAOImpl(Connection conn, MapaIdentidad mapaSesion, FormatoFecha formato) {
         this.conn = conn;
+        this.mapaSesion = mapaSesion;
+        this.fechaNumerica = (formato == FormatoFecha.EPOCH_MINUTOS);
+        this.colFecha = fechaNumerica ? "fecha_min" : "fechaHora";
+        String select = SELECT_LISTADO.formatted(colFecha);
+        this.sqlListarTodos = select + "ORDER BY t." + colFecha + " ASC";
+        this.sqlListarPorPaciente = select + "WHERE t.paciente_id = ? ORDER BY t." + colFecha + " ASC";
+        this.sqlListarPorMedico = select + "WHERE t.medico_id = ? ORDER BY t." + colFecha + " ASC";
     }
 
- // Constructor vacío (Obtiene su propia conexión). Para operaciones de lectura y similares
-    public TurnoDAOImpl() throws DAOException {
-        try {
-            this.conn = DBConnection.getConnection();
-        } catch (SQLException e) {
-            throw new DAOException("Error al conectar con la BD en TurnoDAO", e);
+    /** Valor a bindear para comparar contra la columna de fecha activa. */
+    private Object valorFecha(LocalDateTime fechaHora) {
+        return fechaNumerica ? (Object) FechaUtils.aMinutos(fechaHora) : fechaHora.format(formatter);
+    }
+
+    private void setFecha(PreparedStatement ps, int indice, LocalDateTime fechaHora) throws SQLException {
+        if (fechaNumerica) {
+            ps.setLong(indice, FechaUtils.aMinutos(fechaHora));
+        } else {
+            ps.setString(indice, fechaHora.format(formatter));
         }
     }
 
+    private LocalDateTime leerFecha(ResultSet rs, int columna) throws SQLException {
+        return fechaNumerica
+            ? FechaUtils.desdeMinutos(rs.getLong(columna))            // entero: sin parseo
+            : LocalDateTime.parse(rs.getString(columna), formatter); //convertir string a fecha
+    }
+
+    private static final String COLUMNAS_INSERT =
+            "(fechaHora, fecha_min, medico_id, paciente_id, turno_padre_id, costo, obra_social)";
+
+    /**
+     * Parámetros de un INSERT con {@link #COLUMNAS_INSERT}. Devuelve el costo grabado, para fijarlo
+     * en el turno recién cuando la fila se insertó: los reportes suman lo que se cobró al reservar,
+     * no los honorarios de hoy, y un turno rechazado tiene que seguir sin costo fijo.
+     */
+    private double setParametrosInsert(PreparedStatement ps, Turno turno) throws SQLException {
+        ps.setString(1, turno.getFechaHora().format(formatter));
+        ps.setLong(2, FechaUtils.aMinutos(turno.getFechaHora()));
+        ps.setInt(3, turno.getMedico().getId());
+        ps.setInt(4, turno.getPaciente().getId());
+        if (turno.isSobreturno()) {
+            ps.setInt(5, turno.getTurnoPadreId());
+        } else {
+            ps.setNull(5, Types.INTEGER);
+        }
+        double costo = turno.getCosto();
+        ps.setDouble(6, costo);
+        // Obra social con la que se atendió (la del paciente al reservar), para el reporte por obra social
+        ObraSocial os = turno.getPaciente().getObraSocial();
+        ps.setString(7, (os != null) ? os.name() : null);
+        return costo;
+    }
+
     @Override
-    public void guardar(Turno turno) throws DAOException {
-        String sql = "INSERT INTO turnos (fechaHora, medico_id, paciente_id) VALUES (?, ?, ?)"; //uso ? ? ? para evitar SQL injections
-        try (PreparedStatement ps = conn.prepareStatement(sql)) { //seteo los parámetros a guardar
-            ps.setString(1, turno.getFechaHora().format(formatter));
-            ps.setInt(2, turno.getMedico().getId());
-            ps.setInt(3, turno.getPaciente().getId());
+    public void guardar(Turno turno) throws DAOException, TurnoNoDisponibleException {
+        String sql = "INSERT INTO turnos " + COLUMNAS_INSERT + " VALUES (?, ?, ?, ?, ?, ?, ?)"; //uso ? ? ? para evitar SQL injections
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) { //seteo los parámetros a guardar
+            double costo = setParametrosInsert(ps, turno);
             ps.executeUpdate(); //acá no hay un conn commit porque la responsabilidad de confirmar el cambio es del servicio
+            turno.setCosto(costo);
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    turno.setId(keys.getInt(1));
+                }
+            }
         } catch (SQLException e) {
+            // El índice único ux_turnos_medico_fecha saltó: otro turno ganó ese horario
+            if (DBUtils.esViolacionUnica(e)) {
+                throw new TurnoNoDisponibleException("El médico ya tiene un turno asignado en esa fecha y hora.");
+            }
             throw new DAOException("Error al guardar turno", e);
         }
     }
 
     @Override
     public boolean existeTurnoMedico(int idMedico, LocalDateTime fechaHora) throws DAOException {
-        String sql = "SELECT COUNT(*) FROM turnos WHERE medico_id = ? AND fechaHora = ?"; //cuantos turnos tiene este medico a esta hora en particular
+        String sql = "SELECT COUNT(*) FROM turnos WHERE medico_id = ? AND " + colFecha + " = ?"; //cuantos turnos tiene este medico a esta hora en particular
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, idMedico);
-            ps.setString(2, fechaHora.format(formatter));
+            setFecha(ps, 2, fechaHora);
             try (ResultSet rs = ps.executeQuery()) {
                 return rs.next() && rs.getInt(1) > 0; //si es mayor a 0, el médico está ocupado en ese horario
             }
@@ -63,104 +148,355 @@ public class TurnoDAOImpl implements TurnoDAO {
     }
 
     @Override
-    public List<Turno> listarTodos() throws DAOException { //convierte filas de tablas en objetos
-        // AGREGADO: ORDER BY t.fechaHora
-    	// Une la tabla turnos con la tabla usuarios por id para ver nombres y no números de id 
-        String sql = """
-            SELECT t.id, t.fechaHora,
+    public int[] guardarLote(List<Turno> turnos) throws DAOException {
+        // ON CONFLICT DO NOTHING solo cubre las restricciones de unicidad, y en turnos las únicas son
+        // las de (médico, fecha): si el horario ya está tomado se saltea esa fila y el lote sigue, con
+        // 0 filas insertadas en el resultado de executeBatch. Cualquier otra restricción (NOT NULL,
+        // CHECK, FK) hace fallar el lote. Sin nombrar el índice, porque GeneradorDatos carga sin índices.
+        String sql = "INSERT INTO turnos " + COLUMNAS_INSERT + " VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            double[] costos = new double[turnos.size()];
+            for (int i = 0; i < turnos.size(); i++) {
+                costos[i] = setParametrosInsert(ps, turnos.get(i));
+                ps.addBatch();
+            }
+            int[] insertados = ps.executeBatch(); //el commit lo hace el servicio, una sola vez para todo el lote
+            for (int i = 0; i < insertados.length; i++) {
+                if (insertados[i] > 0) turnos.get(i).setCosto(costos[i]);
+            }
+            return insertados;
+        } catch (SQLException e) {
+            throw new DAOException("Error al guardar lote de turnos", e);
+        }
+    }
+
+    // Pares (médico, fecha) por consulta en existenTurnosMedico: SQLite admite hasta 32766 parámetros
+    private static final int PARES_POR_CONSULTA = 500;
+
+    @Override
+    public boolean[] existenTurnosMedico(List<Turno> turnos) throws DAOException {
+        boolean[] ocupados = new boolean[turnos.size()];
+        // Índices de los turnos a revisar (los sobreturnos se permiten siempre)
+        List<Integer> aRevisar = new ArrayList<>();
+        for (int i = 0; i < turnos.size(); i++) {
+            if (!turnos.get(i).isSobreturno()) aRevisar.add(i);
+        }
+
+        for (int desde = 0; desde < aRevisar.size(); desde += PARES_POR_CONSULTA) {
+            List<Integer> tramo = aRevisar.subList(desde, Math.min(desde + PARES_POR_CONSULTA, aRevisar.size()));
+            // WHERE (medico_id, fecha) IN (VALUES (?, ?), (?, ?), ...): cada par es una búsqueda en el índice único
+            String sql = "SELECT medico_id, " + colFecha + " FROM turnos WHERE turno_padre_id IS NULL AND (medico_id, "
+                    + colFecha + ") IN (VALUES " + String.join(", ", Collections.nCopies(tramo.size(), "(?, ?)")) + ")";
+
+            // medico_id -> horarios ocupados que devolvió la base
+            Map<Integer, Set<LocalDateTime>> encontrados = new HashMap<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int p = 1;
+                for (int i : tramo) {
+                    Turno t = turnos.get(i);
+                    ps.setInt(p++, t.getMedico().getId());
+                    setFecha(ps, p++, t.getFechaHora());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        encontrados.computeIfAbsent(rs.getInt(1), k -> new HashSet<>()).add(leerFecha(rs, 2));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DAOException("Error al verificar disponibilidad del lote", e);
+            }
+
+            for (int i : tramo) {
+                Turno t = turnos.get(i);
+                Set<LocalDateTime> delMedico = encontrados.get(t.getMedico().getId());
+                ocupados[i] = delMedico != null && delMedico.contains(t.getFechaHora());
+            }
+        }
+        return ocupados;
+    }
+
+    // Columnas y joins comunes a todos los listados: une la tabla turnos con la tabla usuarios
+    // por id (dos veces, médico y paciente) para ver nombres y no números de id.
+    // Cada listado le agrega su WHERE y su ORDER BY. %1$s es la columna de fecha activa.
+    private static final String SELECT_LISTADO = """
+            SELECT t.id, t.%1$s, t.turno_padre_id,
                    m.id as m_id, m.dni as m_dni, m.nombre as m_nom, m.apellido as m_ape, m.email as m_mail, m.honorariosPorConsulta as m_hon, m.obra_social as m_os,
-                   p.id as p_id, p.dni as p_dni, p.nombre as p_nom, p.apellido as p_ape, p.email as p_mail, p.obra_social as p_os
+                   p.id as p_id, p.dni as p_dni, p.nombre as p_nom, p.apellido as p_ape, p.email as p_mail, p.obra_social as p_os,
+                   t.costo
             FROM turnos t
             JOIN usuarios m ON t.medico_id = m.id
             JOIN usuarios p ON t.paciente_id = p.id
-            ORDER BY t.fechaHora ASC
-        """;
-        return ejecutarConsultaListado(sql, -1);
+            """;
+    // Posición de cada columna en SELECT_LISTADO: leer por índice evita buscar la etiqueta en cada fila
+    private static final int COL_ID = 1, COL_FECHA = 2, COL_PADRE = 3;
+    private static final int COL_M_ID = 4, COL_M_DNI = 5, COL_M_NOM = 6, COL_M_APE = 7, COL_M_MAIL = 8, COL_M_HON = 9, COL_M_OS = 10;
+    private static final int COL_P_ID = 11, COL_P_DNI = 12, COL_P_NOM = 13, COL_P_APE = 14, COL_P_MAIL = 15, COL_P_OS = 16;
+    private static final int COL_COSTO = 17;
+
+    // Filas que el driver trae por vez al recorrer: el resto se lee a medida que se avanza
+    private static final int FETCH_SIZE = 500;
+
+    @Override
+    public List<Turno> listarTodos() throws DAOException { //convierte filas de tablas en objetos
+        return ejecutarConsultaListado(sqlListarTodos, -1);
     }
 
     @Override
     public List<Turno> listarPorPaciente(int idPaciente) throws DAOException {
-        // AGREGADO: ORDER BY t.fechaHora
-        String sql = """
-            SELECT t.id, t.fechaHora,
-                   m.id as m_id, m.dni as m_dni, m.nombre as m_nom, m.apellido as m_ape, m.email as m_mail, m.honorariosPorConsulta as m_hon, m.obra_social as m_os,
-                   p.id as p_id, p.dni as p_dni, p.nombre as p_nom, p.apellido as p_ape, p.email as p_mail, p.obra_social as p_os
-            FROM turnos t
-            JOIN usuarios m ON t.medico_id = m.id
-            JOIN usuarios p ON t.paciente_id = p.id
-            WHERE t.paciente_id = ?
-            ORDER BY t.fechaHora ASC
-        """;
-        return ejecutarConsultaListado(sql, idPaciente);
+        return ejecutarConsultaListado(sqlListarPorPaciente, idPaciente);
     }
 
     @Override
     public List<Turno> listarPorMedico(int idMedico) throws DAOException {
-        // AGREGADO: ORDER BY t.fechaHora
-        String sql = """
-            SELECT t.id, t.fechaHora,
-                   m.id as m_id, m.dni as m_dni, m.nombre as m_nom, m.apellido as m_ape, m.email as m_mail, m.honorariosPorConsulta as m_hon, m.obra_social as m_os,
-                   p.id as p_id, p.dni as p_dni, p.nombre as p_nom, p.apellido as p_ape, p.email as p_mail, p.obra_social as p_os
-            FROM turnos t
-            JOIN usuarios m ON t.medico_id = m.id
-            JOIN usuarios p ON t.paciente_id = p.id
-            WHERE t.medico_id = ?
-            ORDER BY t.fechaHora ASC
-        """;
-        return ejecutarConsultaListado(sql, idMedico);
+        return ejecutarConsultaListado(sqlListarPorMedico, idMedico);
+    }
+
+    @Override
+    public void recorrerTodos(Consumer<? super Turno> visitante) throws DAOException {
+        recorrerConsulta(sqlListarTodos, -1, visitante);
+    }
+
+    @Override
+    public void recorrerPorPaciente(int idPaciente, Consumer<? super Turno> visitante) throws DAOException {
+        recorrerConsulta(sqlListarPorPaciente, idPaciente, visitante);
+    }
+
+    @Override
+    public void recorrerPorMedico(int idMedico, Consumer<? super Turno> visitante) throws DAOException {
+        recorrerConsulta(sqlListarPorMedico, idMedico, visitante);
+    }
+
+    /** Condiciones de médico y paciente de los listados paginados (sin alias de tabla). */
+    private static String filtroListado(int idMedico, int idPaciente, List<Object> params) {
+        StringBuilder where = new StringBuilder("WHERE 1 = 1");
+        if (idMedico != -1) {
+            where.append(" AND medico_id = ?");
+            params.add(idMedico);
+        }
+        if (idPaciente != -1) {
+            where.append(" AND paciente_id = ?");
+            params.add(idPaciente);
+        }
+        return where.toString();
+    }
+
+    @Override
+    public int contarTurnos(int idMedico, int idPaciente) throws DAOException {
+        List<Object> params = new ArrayList<>();
+        // Sin filtro, MAX(id) sale del final del índice de la clave: no depende del tamaño de la tabla
+        String sql = (idMedico == -1 && idPaciente == -1)
+                ? "SELECT MAX(id) FROM turnos"
+                : "SELECT COUNT(*) FROM turnos " + filtroListado(idMedico, idPaciente, params);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Error al contar turnos", e);
+        }
+    }
+
+    @Override
+    public ClaveTurno buscarClave(int idMedico, int idPaciente, ClaveTurno desde, int saltar) throws DAOException {
+        if (saltar == 0) {
+            throw new IllegalArgumentException("saltar no puede ser 0");
+        }
+        boolean adelante = saltar > 0;
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(colFecha).append(", id FROM turnos ")
+                .append(filtroListado(idMedico, idPaciente, params));
+        if (desde != null) {
+            sql.append(" AND (").append(colFecha).append(", id) ").append(adelante ? ">" : "<").append(" (?, ?)");
+            params.add(valorFecha(desde.fechaHora()));
+            params.add(desde.id());
+        }
+        // Mismo orden que listarPagina (al revés para retroceder): SQLite saltea las filas en el índice de fechas
+        String orden = adelante ? " ASC" : " DESC";
+        sql.append(" ORDER BY ").append(colFecha).append(orden).append(", id").append(orden).append(" LIMIT 1 OFFSET ?");
+        params.add(Math.abs(saltar) - 1);
+
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? new ClaveTurno(leerFecha(rs, 1), rs.getInt(2)) : null;
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Error al buscar posición en turnos", e);
+        }
+    }
+
+    @Override
+    public void recorrerHorariosOcupados(LocalDateTime desde, LocalDateTime hasta,
+                                         ObjIntConsumer<LocalDateTime> visitante) throws DAOException {
+        String sql = "SELECT medico_id, " + colFecha + " FROM turnos WHERE turno_padre_id IS NULL AND "
+                + colFecha + " >= ? AND " + colFecha + " <= ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setFetchSize(FETCH_SIZE);
+            setFecha(ps, 1, desde);
+            setFecha(ps, 2, hasta);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    visitante.accept(leerFecha(rs, 2), rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Error al obtener horarios ocupados", e);
+        }
+    }
+
+    @Override
+    public Pagina<Turno> listarPagina(int idMedico, int idPaciente, LocalDateTime desde, LocalDateTime hasta,
+                                      ClaveTurno despuesDe, int tamanio) throws DAOException {
+        // Armo el WHERE según los filtros que vengan; los valores van siempre como parámetros
+        StringBuilder sql = new StringBuilder(SELECT_LISTADO.formatted(colFecha)).append("WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (idMedico != -1) {
+            sql.append(" AND t.medico_id = ?");
+            params.add(idMedico);
+        }
+        if (idPaciente != -1) {
+            sql.append(" AND t.paciente_id = ?");
+            params.add(idPaciente);
+        }
+        if (desde != null) {
+            sql.append(" AND t.").append(colFecha).append(" >= ?");
+            params.add(valorFecha(desde));
+        }
+        if (hasta != null) {
+            sql.append(" AND t.").append(colFecha).append(" <= ?");
+            params.add(valorFecha(hasta));
+        }
+        if (despuesDe != null) {
+            // Comparación de tuplas: SQLite la resuelve con el índice de fecha (el id es el rowid del índice)
+            sql.append(" AND (t.").append(colFecha).append(", t.id) > (?, ?)");
+            params.add(valorFecha(despuesDe.fechaHora()));
+            params.add(despuesDe.id());
+        }
+        // Pido uno de más para saber si hay otra página sin hacer un COUNT
+        sql.append(" ORDER BY t.").append(colFecha).append(" ASC, t.id ASC LIMIT ?");
+        params.add(tamanio + 1);
+
+        List<Turno> lista = new ArrayList<>(Math.min(tamanio + 1, FETCH_SIZE));
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            MapaIdentidad mapa = mapaParaConsulta();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapearTurno(rs, mapa));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar página de turnos", e);
+        }
+
+        boolean hayMas = lista.size() > tamanio;
+        if (hayMas) {
+            lista.remove(lista.size() - 1);
+        }
+        return new Pagina<>(lista, hayMas);
     }
 
     private List<Turno> ejecutarConsultaListado(String sql, int idFiltro) throws DAOException { //este método lo uso para reutilizar código y no andar copiando y pegando
         List<Turno> lista = new ArrayList<>();
+        recorrerConsulta(sql, idFiltro, lista::add); //guardo cada turno en la lista
+        return lista;
+    }
+
+    /**
+     * Recorre el resultado fila por fila y le pasa cada turno al visitante, sin acumularlos.
+     * El ResultSet se cierra al terminar (o si el visitante lanza una excepción).
+     */
+    private void recorrerConsulta(String sql, int idFiltro, Consumer<? super Turno> visitante) throws DAOException {
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             if (idFiltro != -1) { //si es -1, no hay filtro
                 ps.setInt(1, idFiltro);
             }
+            ps.setFetchSize(FETCH_SIZE);
             
+            MapaIdentidad mapa = mapaParaConsulta();
             try (ResultSet rs = ps.executeQuery()) {
                 while(rs.next()) { //lo uso para pasar los datos que obtuve de la db a los objetos correspondientes
-                    ObraSocial osMedico = rs.getString("m_os") != null ? ObraSocial.valueOf(rs.getString("m_os")) : null; //obra social del medico
-                    //creo objeto medico
-                    Medico medico = new Medico(
-                        rs.getInt("m_id"), rs.getString("m_dni"), rs.getString("m_nom"), 
-                        rs.getString("m_ape"), rs.getString("m_mail"), rs.getDouble("m_hon"), osMedico
-                    );
-                    
-                    //reconstruyo objeto paciente y creo uno nuevo
-                    ObraSocial osPaciente = rs.getString("p_os") != null ? ObraSocial.valueOf(rs.getString("p_os")) : null;
-                    Paciente paciente = new Paciente(
-                        rs.getInt("p_id"), rs.getString("p_dni"), rs.getString("p_nom"), 
-                        rs.getString("p_ape"), rs.getString("p_mail"), osPaciente
-                    );
-                    
-                    LocalDateTime fecha = LocalDateTime.parse(rs.getString("fechaHora"), formatter); //convertir string a fechqa
-                    
-                    Turno t = new Turno(rs.getInt("id"), fecha, medico, paciente, null); //turno final uniendo todo
-                    lista.add(t); //guardo en la lista
+                    visitante.accept(mapearTurno(rs, mapa));
                 }
             }
         } catch (SQLException e) {
             throw new DAOException("Error al listar turnos", e);
         }
-        return lista;
+    }
+
+    private MapaIdentidad mapaParaConsulta() {
+        return (mapaSesion != null) ? mapaSesion : new MapaIdentidad();
+    }
+
+    /**
+     * Arma un turno a partir de la fila actual de SELECT_LISTADO.
+     * El médico y el paciente se buscan primero en el mapa de identidad: solo se leen sus
+     * columnas y se crea el objeto la primera vez que aparece cada ID.
+     */
+    private Turno mapearTurno(ResultSet rs, MapaIdentidad mapa) throws SQLException {
+        int idMedico = rs.getInt(COL_M_ID);
+        Medico medico = mapa.getMedico(idMedico);
+        if (medico == null) {
+            //creo objeto medico (solo la primera vez que aparece)
+            medico = new Medico(
+                idMedico, rs.getString(COL_M_DNI), rs.getString(COL_M_NOM),
+                rs.getString(COL_M_APE), rs.getString(COL_M_MAIL), rs.getDouble(COL_M_HON), leerObraSocial(rs, COL_M_OS)
+            );
+            mapa.registrar(medico);
+        }
+        
+        int idPaciente = rs.getInt(COL_P_ID);
+        Paciente paciente = mapa.getPaciente(idPaciente);
+        if (paciente == null) {
+            paciente = new Paciente(
+                idPaciente, rs.getString(COL_P_DNI), rs.getString(COL_P_NOM),
+                rs.getString(COL_P_APE), rs.getString(COL_P_MAIL), leerObraSocial(rs, COL_P_OS)
+            );
+            mapa.registrar(paciente);
+        }
+        
+        LocalDateTime fecha = leerFecha(rs, COL_FECHA);
+        
+        int padre = rs.getInt(COL_PADRE);
+        Integer turnoPadreId = rs.wasNull() ? null : padre; //null si no es sobreturno
+        
+        Turno turno = new Turno(rs.getInt(COL_ID), fecha, medico, paciente, turnoPadreId); //turno final uniendo todo
+        double costo = rs.getDouble(COL_COSTO);
+        if (!rs.wasNull()) {
+            turno.setCosto(costo); // lo cobrado al reservar
+        }
+        return turno;
+    }
+
+    private static ObraSocial leerObraSocial(ResultSet rs, int columna) throws SQLException {
+        String os = rs.getString(columna);
+        return (os != null) ? ObraSocial.valueOf(os) : null;
     }
     
     @Override
     public Object[] obtenerReporteMedico(int idMedico, LocalDateTime desde, LocalDateTime hasta) throws DAOException {
         // Consulta: Une turnos con médicos, filtra por ID y Fechas, y calcula totales
+        // El total suma lo cobrado en cada turno (t.costo, con el descuento de obra social ya aplicado)
     	//TODO: Manejar mejor estos errores
         String sql = """
-            SELECT m.nombre, m.apellido, COUNT(t.id) as cantidad, SUM(m.honorariosPorConsulta) as total
+            SELECT m.nombre, m.apellido, COUNT(t.id) as cantidad, TOTAL(t.costo) as total
             FROM turnos t
             JOIN usuarios m ON t.medico_id = m.id
             WHERE t.medico_id = ? 
-            AND t.fechaHora >= ? AND t.fechaHora <= ?
-        """;
+            AND t.%1$s >= ? AND t.%1$s <= ?
+        """.formatted(colFecha);
 
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, idMedico);
-            ps.setString(2, desde.format(formatter));
-            ps.setString(3, hasta.format(formatter));
+            setFecha(ps, 2, desde);
+            setFecha(ps, 3, hasta);
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -184,19 +520,20 @@ public class TurnoDAOImpl implements TurnoDAO {
     @Override
     public List<Object[]> obtenerReporteGeneral(LocalDateTime desde, LocalDateTime hasta) throws DAOException {
         // Consulta: Agrupa por médico para mostrar cuánto recaudó cada uno en el periodo
+        // (sumando t.costo, lo cobrado al reservar)
         String sql = """
-            SELECT m.nombre, m.apellido, COUNT(t.id) as cantidad, SUM(m.honorariosPorConsulta) as total
+            SELECT m.nombre, m.apellido, COUNT(t.id) as cantidad, TOTAL(t.costo) as total
             FROM turnos t
             JOIN usuarios m ON t.medico_id = m.id
-            WHERE t.fechaHora >= ? AND t.fechaHora <= ?
+            WHERE t.%1$s >= ? AND t.%1$s <= ?
             GROUP BY m.id, m.nombre, m.apellido
             ORDER BY total DESC
-        """;
+        """.formatted(colFecha);
 
         List<Object[]> lista = new ArrayList<>();
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, desde.format(formatter));
-            ps.setString(2, hasta.format(formatter));
+            setFecha(ps, 1, desde);
+            setFecha(ps, 2, hasta);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
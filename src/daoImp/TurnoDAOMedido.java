@@ -0,0 +1,364 @@
+package daoImp;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import base.Turno;
+import dao.ClaveTurno;
+import dao.Pagina;
+import dao.TurnoDAO;
+import exceptions.DAOException;
+import exceptions.TurnoNoDisponibleException;
+import utils.EventoSql;
+import utils.MetricaOperacion;
+import utils.RegistroMetricas;
+
+/**
+ * Decorador de {@link TurnoDAO} que mide cada método en {@link RegistroMetricas}
+ * (llamadas, errores y latencia) y lo registra como {@link EventoSql} para Flight Recorder.
+ * No cambia el comportamiento: delega todo al DAO envuelto.
+ * En los métodos {@code recorrer...} la latencia incluye lo que tarda el visitante.
+ * Se crea con {@link FabricaDAO#turnos}.
+ */
+public class TurnoDAOMedido implements TurnoDAO {
+
+    private static final MetricaOperacion GUARDAR = metrica("guardar");
+    private static final MetricaOperacion LISTAR_TODOS = metrica("listarTodos");
+    private static final MetricaOperacion EXISTE_TURNO_MEDICO = metrica("existeTurnoMedico");
+    private static final MetricaOperacion GUARDAR_LOTE = metrica("guardarLote");
+    private static final MetricaOperacion EXISTEN_TURNOS_MEDICO = metrica("existenTurnosMedico");
+    private static final MetricaOperacion LISTAR_POR_PACIENTE = metrica("listarPorPaciente");
+    private static final MetricaOperacion LISTAR_POR_MEDICO = metrica("listarPorMedico");
+    private static final MetricaOperacion RECORRER_TODOS = metrica("recorrerTodos");
+    private static final MetricaOperacion RECORRER_POR_PACIENTE = metrica("recorrerPorPaciente");
+    private static final MetricaOperacion RECORRER_POR_MEDICO = metrica("recorrerPorMedico");
+    private static final MetricaOperacion RECORRER_HORARIOS_OCUPADOS = metrica("recorrerHorariosOcupados");
+    private static final MetricaOperacion LISTAR_PAGINA = metrica("listarPagina");
+    private static final MetricaOperacion CONTAR_TURNOS = metrica("contarTurnos");
+    private static final MetricaOperacion BUSCAR_CLAVE = metrica("buscarClave");
+    private static final MetricaOperacion REPORTE_MEDICO = metrica("obtenerReporteMedico");
+    private static final MetricaOperacion REPORTE_GENERAL = metrica("obtenerReporteGeneral");
+
+    private final TurnoDAO dao;
+
+    public TurnoDAOMedido(TurnoDAO dao) {
+        this.dao = dao;
+    }
+
+    private static MetricaOperacion metrica(String metodo) {
+        return RegistroMetricas.getInstancia().metrica("TurnoDAO." + metodo);
+    }
+
+    @Override
+    public void guardar(Turno turno) throws DAOException, TurnoNoDisponibleException {
+        long inicio = GUARDAR.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            dao.guardar(turno);
+            filas = 1;
+        } catch (TurnoNoDisponibleException e) {
+            // Un horario ya ocupado es una respuesta normal, no un error: no insertó nada
+            filas = 0;
+            throw e;
+        } catch (DAOException | RuntimeException e) {
+            GUARDAR.fallo();
+            throw e;
+        } finally {
+            GUARDAR.terminar(inicio);
+            evento.terminar(GUARDAR, filas);
+        }
+    }
+
+    @Override
+    public List<Turno> listarTodos() throws DAOException {
+        long inicio = LISTAR_TODOS.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            List<Turno> resultado = dao.listarTodos();
+            filas = resultado.size();
+            return resultado;
+        } catch (Exception e) {
+            LISTAR_TODOS.fallo();
+            throw e;
+        } finally {
+            LISTAR_TODOS.terminar(inicio);
+            evento.terminar(LISTAR_TODOS, filas);
+        }
+    }
+
+    @Override
+    public boolean existeTurnoMedico(int idMedico, LocalDateTime fechaHora) throws DAOException {
+        long inicio = EXISTE_TURNO_MEDICO.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            boolean ocupado = dao.existeTurnoMedico(idMedico, fechaHora);
+            filas = 1;
+            return ocupado;
+        } catch (Exception e) {
+            EXISTE_TURNO_MEDICO.fallo();
+            throw e;
+        } finally {
+            EXISTE_TURNO_MEDICO.terminar(inicio);
+            evento.terminar(EXISTE_TURNO_MEDICO, filas);
+        }
+    }
+
+    @Override
+    public int[] guardarLote(List<Turno> turnos) throws DAOException {
+        long inicio = GUARDAR_LOTE.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            int[] insertados = dao.guardarLote(turnos);
+            filas = 0;
+            for (int n : insertados) {
+                if (n > 0) filas += n;
+            }
+            return insertados;
+        } catch (Exception e) {
+            GUARDAR_LOTE.fallo();
+            throw e;
+        } finally {
+            GUARDAR_LOTE.terminar(inicio);
+            evento.terminar(GUARDAR_LOTE, filas);
+        }
+    }
+
+    @Override
+    public boolean[] existenTurnosMedico(List<Turno> turnos) throws DAOException {
+        long inicio = EXISTEN_TURNOS_MEDICO.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            boolean[] ocupados = dao.existenTurnosMedico(turnos);
+            filas = 0;
+            for (boolean o : ocupados) {
+                if (o) filas++;
+            }
+            return ocupados;
+        } catch (Exception e) {
+            EXISTEN_TURNOS_MEDICO.fallo();
+            throw e;
+        } finally {
+            EXISTEN_TURNOS_MEDICO.terminar(inicio);
+            evento.terminar(EXISTEN_TURNOS_MEDICO, filas);
+        }
+    }
+
+    @Override
+    public List<Turno> listarPorPaciente(int idPaciente) throws DAOException {
+        long inicio = LISTAR_POR_PACIENTE.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            List<Turno> resultado = dao.listarPorPaciente(idPaciente);
+            filas = resultado.size();
+            return resultado;
+        } catch (Exception e) {
+            LISTAR_POR_PACIENTE.fallo();
+            throw e;
+        } finally {
+            LISTAR_POR_PACIENTE.terminar(inicio);
+            evento.terminar(LISTAR_POR_PACIENTE, filas);
+        }
+    }
+
+    @Override
+    public List<Turno> listarPorMedico(int idMedico) throws DAOException {
+        long inicio = LISTAR_POR_MEDICO.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            List<Turno> resultado = dao.listarPorMedico(idMedico);
+            filas = resultado.size();
+            return resultado;
+        } catch (Exception e) {
+            LISTAR_POR_MEDICO.fallo();
+            throw e;
+        } finally {
+            LISTAR_POR_MEDICO.terminar(inicio);
+            evento.terminar(LISTAR_POR_MEDICO, filas);
+        }
+    }
+
+    @Override
+    public void recorrerTodos(Consumer<? super Turno> visitante) throws DAOException {
+        long inicio = RECORRER_TODOS.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            int[] contador = {0};
+            dao.recorrerTodos(t -> {
+                contador[0]++;
+                visitante.accept(t);
+            });
+            filas = contador[0];
+        } catch (Exception e) {
+            RECORRER_TODOS.fallo();
+            throw e;
+        } finally {
+            RECORRER_TODOS.terminar(inicio);
+            evento.terminar(RECORRER_TODOS, filas);
+        }
+    }
+
+    @Override
+    public void recorrerPorPaciente(int idPaciente, Consumer<? super Turno> visitante) throws DAOException {
+        long inicio = RECORRER_POR_PACIENTE.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            int[] contador = {0};
+            dao.recorrerPorPaciente(idPaciente, t -> {
+                contador[0]++;
+                visitante.accept(t);
+            });
+            filas = contador[0];
+        } catch (Exception e) {
+            RECORRER_POR_PACIENTE.fallo();
+            throw e;
+        } finally {
+            RECORRER_POR_PACIENTE.terminar(inicio);
+            evento.terminar(RECORRER_POR_PACIENTE, filas);
+        }
+    }
+
+    @Override
+    public void recorrerPorMedico(int idMedico, Consumer<? super Turno> visitante) throws DAOException {
+        long inicio = RECORRER_POR_MEDICO.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            int[] contador = {0};
+            dao.recorrerPorMedico(idMedico, t -> {
+                contador[0]++;
+                visitante.accept(t);
+            });
+            filas = contador[0];
+        } catch (Exception e) {
+            RECORRER_POR_MEDICO.fallo();
+            throw e;
+        } finally {
+            RECORRER_POR_MEDICO.terminar(inicio);
+            evento.terminar(RECORRER_POR_MEDICO, filas);
+        }
+    }
+
+    @Override
+    public void recorrerHorariosOcupados(LocalDateTime desde, LocalDateTime hasta,
+                                         ObjIntConsumer<LocalDateTime> visitante) throws DAOException {
+        long inicio = RECORRER_HORARIOS_OCUPADOS.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            int[] contador = {0};
+            dao.recorrerHorariosOcupados(desde, hasta, (fechaHora, idMedico) -> {
+                contador[0]++;
+                visitante.accept(fechaHora, idMedico);
+            });
+            filas = contador[0];
+        } catch (Exception e) {
+            RECORRER_HORARIOS_OCUPADOS.fallo();
+            throw e;
+        } finally {
+            RECORRER_HORARIOS_OCUPADOS.terminar(inicio);
+            evento.terminar(RECORRER_HORARIOS_OCUPADOS, filas);
+        }
+    }
+
+    @Override
+    public Pagina<Turno> listarPagina(int idMedico, int idPaciente, LocalDateTime desde, LocalDateTime hasta,
+                                      ClaveTurno despuesDe, int tamanio) throws DAOException {
+        long inicio = LISTAR_PAGINA.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            Pagina<Turno> pagina = dao.listarPagina(idMedico, idPaciente, desde, hasta, despuesDe, tamanio);
+            filas = pagina.getElementos().size();
+            return pagina;
+        } catch (Exception e) {
+            LISTAR_PAGINA.fallo();
+            throw e;
+        } finally {
+            LISTAR_PAGINA.terminar(inicio);
+            evento.terminar(LISTAR_PAGINA, filas);
+        }
+    }
+
+    @Override
+    public int contarTurnos(int idMedico, int idPaciente) throws DAOException {
+        long inicio = CONTAR_TURNOS.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            int total = dao.contarTurnos(idMedico, idPaciente);
+            filas = 1;
+            return total;
+        } catch (Exception e) {
+            CONTAR_TURNOS.fallo();
+            throw e;
+        } finally {
+            CONTAR_TURNOS.terminar(inicio);
+            evento.terminar(CONTAR_TURNOS, filas);
+        }
+    }
+
+    @Override
+    public ClaveTurno buscarClave(int idMedico, int idPaciente, ClaveTurno desde, int saltar) throws DAOException {
+        long inicio = BUSCAR_CLAVE.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            ClaveTurno clave = dao.buscarClave(idMedico, idPaciente, desde, saltar);
+            filas = (clave != null) ? 1 : 0;
+            return clave;
+        } catch (Exception e) {
+            BUSCAR_CLAVE.fallo();
+            throw e;
+        } finally {
+            BUSCAR_CLAVE.terminar(inicio);
+            evento.terminar(BUSCAR_CLAVE, filas);
+        }
+    }
+
+    @Override
+    public Object[] obtenerReporteMedico(int idMedico, LocalDateTime desde, LocalDateTime hasta) throws DAOException {
+        long inicio = REPORTE_MEDICO.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            Object[] reporte = dao.obtenerReporteMedico(idMedico, desde, hasta);
+            filas = 1;
+            return reporte;
+        } catch (Exception e) {
+            REPORTE_MEDICO.fallo();
+            throw e;
+        } finally {
+            REPORTE_MEDICO.terminar(inicio);
+            evento.terminar(REPORTE_MEDICO, filas);
+        }
+    }
+
+    @Override
+    public List<Object[]> obtenerReporteGeneral(LocalDateTime desde, LocalDateTime hasta) throws DAOException {
+        long inicio = REPORTE_GENERAL.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            List<Object[]> resultado = dao.obtenerReporteGeneral(desde, hasta);
+            filas = resultado.size();
+            return resultado;
+        } catch (Exception e) {
+            REPORTE_GENERAL.fallo();
+            throw e;
+        } finally {
+            REPORTE_GENERAL.terminar(inicio);
+            evento.terminar(REPORTE_GENERAL, filas);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package daoImp;
 
+import dao.Pagina;
 import dao.UsuarioDAO;
+import db.DBUtils;
 import exceptions.DAOException;
+import exceptions.DatosInvalidosException;
 import base.Administrador;
 import base.Medico;
 import base.ObraSocial;
@@ -11,22 +14,17 @@ import base.Usuario;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
-import db.DBConnection;
 
 public class UsuarioDAOImpl implements UsuarioDAO {
     private final Connection conn;
 
-    public UsuarioDAOImpl() throws DAOException {
-        try {
-            this.conn = DBConnection.getConnection();
-            // Eliminada la llamada a crearTablaUsuarios()
-        } catch (SQLException e) {
-            throw new DAOException("Error al inicializar DAO de Usuario", e);
-        }
+    // Recibe la conexión que el Service pidió prestada al pool (una por transacción)
+    public UsuarioDAOImpl(Connection conn) {
+        this.conn = conn;
     }
 
     @Override
-    public boolean guardar(Usuario usuario) throws DAOException {
+    public boolean guardar(Usuario usuario) throws DAOException, DatosInvalidosException {
         String sql = """
             INSERT INTO usuarios
               (dni, nombre, apellido, email, rol, honorariosPorConsulta, obra_social)
@@ -57,6 +55,9 @@ public class UsuarioDAOImpl implements UsuarioDAO {
             }
             return true;
         } catch (SQLException e) {
+            if (DBUtils.esViolacionUnica(e)) {
+                throw new DatosInvalidosException("El usuario con DNI " + usuario.getDni() + " ya se encuentra registrado.");
+            }
             throw new DAOException("Error al guardar usuario", e);
         }
     }
@@ -158,33 +159,167 @@ public class UsuarioDAOImpl implements UsuarioDAO {
     }
 
     @Override
-    public List<Usuario> buscarPorNombre(String nombre) throws DAOException {
-        String sql = "SELECT * FROM usuarios WHERE nombre LIKE ?";
+    public Pagina<Usuario> listarPagina(Rol rol, int despuesDeId, int tamanio) throws DAOException {
+        // Con rol, el índice idx_usuarios_rol ya viene ordenado por id dentro de cada rol
+        String sql = (rol != null)
+            ? "SELECT * FROM usuarios WHERE rol = ? AND id > ? ORDER BY id LIMIT ?"
+            : "SELECT * FROM usuarios WHERE id > ? ORDER BY id LIMIT ?";
         List<Usuario> lista = new ArrayList<>();
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, "%" + nombre + "%");
+            int i = 1;
+            if (rol != null) ps.setString(i++, rol.name());
+            ps.setInt(i++, despuesDeId);
+            ps.setInt(i, tamanio + 1); // uno de más para saber si hay otra página
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) lista.add(mapRow(rs));
             }
-            return lista;
         } catch (SQLException e) {
-            throw new DAOException("Error al buscar usuarios por nombre", e);
+            throw new DAOException("Error al listar página de usuarios", e);
+        }
+        boolean hayMas = lista.size() > tamanio;
+        if (hayMas) lista.remove(lista.size() - 1);
+        return new Pagina<>(lista, hayMas);
+    }
+
+    // Con menos letras que esto el índice de trigramas no encuentra nada: se busca por comienzo
+    private static final int LARGO_MINIMO_TEXTO_COMPLETO = 3;
+
+    @Override
+    public List<Usuario> buscar(String texto, Rol rol, int limite) throws DAOException {
+        List<String> palabras = palabras(texto);
+        if (palabras.isEmpty()) return new ArrayList<>();
+
+        List<String> largas = palabras.stream().filter(p -> p.length() >= LARGO_MINIMO_TEXTO_COMPLETO).toList();
+        if (largas.isEmpty()) {
+            // 1 o 2 letras: comienzo de apellido, nombre o DNI, cada uno con su índice
+            return buscarPorPrefijo(palabras.get(0), new String[]{"apellido", "nombre", "dni"}, rol, limite);
         }
+        // Las palabras cortas no sirven para el índice de trigramas; alcanza con las largas
+        return buscarTextoCompleto(consultaFts(null, largas), rol, limite);
+    }
+
+    @Override
+    public List<Usuario> buscarPorNombre(String nombre) throws DAOException {
+        return buscarEnColumna("nombre", nombre);
     }
 
     @Override
     public List<Usuario> buscarPorApellido(String apellido) throws DAOException {
-        String sql = "SELECT * FROM usuarios WHERE apellido LIKE ?";
+        return buscarEnColumna("apellido", apellido);
+    }
+
+    /** Búsqueda sin límite en una sola columna (nombre o apellido). */
+    private List<Usuario> buscarEnColumna(String columna, String texto) throws DAOException {
+        String limpio = (texto == null) ? "" : texto.trim();
+        if (limpio.isEmpty()) return listarTodos(); // igual que LIKE '%%'
+        if (limpio.length() < LARGO_MINIMO_TEXTO_COMPLETO) {
+            return buscarPorPrefijo(limpio, new String[]{columna}, null, -1);
+        }
+        return buscarTextoCompleto(consultaFts(columna, List.of(limpio)), null, -1);
+    }
+
+    /**
+     * Busca en la tabla virtual usuarios_fts (FTS5 con tokenizador de trigramas, ver MigradorEsquema):
+     * encuentra el texto en cualquier parte de la palabra y ordena por relevancia (bm25, pesando más el apellido).
+     * El filtro por rol y el orden por relevancia se aplican a todas las coincidencias, antes del límite.
+     * @param limite -1 = sin límite
+     */
+    private List<Usuario> buscarTextoCompleto(String consulta, Rol rol, int limite) throws DAOException {
+        // CROSS JOIN obliga a SQLite a resolver primero el MATCH y después buscar cada usuario por id;
+        // con JOIN común, filtrando por rol puede elegir recorrer usuarios y evaluar el MATCH fila por fila.
+        String sql = "SELECT u.* FROM usuarios_fts f CROSS JOIN usuarios u ON u.id = f.rowid"
+                + " WHERE usuarios_fts MATCH ?" + (rol != null ? " AND u.rol = ?" : "")
+                + " ORDER BY f.rank LIMIT ?";
         List<Usuario> lista = new ArrayList<>();
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, "%" + apellido + "%");
+            int i = 1;
+            ps.setString(i++, consulta);
+            if (rol != null) ps.setString(i++, rol.name());
+            ps.setInt(i, limite);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) lista.add(mapRow(rs));
             }
             return lista;
         } catch (SQLException e) {
-            throw new DAOException("Error al buscar usuarios por apellido", e);
+            throw new DAOException("Error al buscar usuarios", e);
+        }
+    }
+
+    /**
+     * Usuarios cuya columna empieza con el prefijo (sin distinguir mayúsculas), por rango sobre
+     * los índices NOCASE de nombre y apellido (y el índice único de DNI). Cada columna aporta
+     * como máximo {@code limite} resultados, recorriendo su índice en orden.
+     * @param limite -1 = sin límite
+     */
+    private List<Usuario> buscarPorPrefijo(String prefijo, String[] columnas, Rol rol, int limite) throws DAOException {
+        // Rango [prefijo, prefijo con la última letra siguiente): "pe" -> [pe, pf). NOCASE compara pasando
+        // A-Z a minúsculas, así que el rango se arma igual: con "Z" tal cual el tope sería "[" (< "z")
+        String desde = minusculasAscii(prefijo);
+        String hasta = desde.substring(0, desde.length() - 1) + (char) (desde.charAt(desde.length() - 1) + 1);
+        // Los candidatos primero (CROSS JOIN): si no, SQLite puede recorrer todo el índice de apellido para ordenar
+        StringBuilder sql = new StringBuilder("SELECT u.* FROM (");
+        for (int c = 0; c < columnas.length; c++) {
+            // El DNI son solo dígitos: su índice único (sin NOCASE) alcanza
+            String col = columnas[c].equals("dni") ? "dni" : columnas[c] + " COLLATE NOCASE";
+            if (c > 0) sql.append(" UNION ");
+            sql.append("SELECT id FROM (SELECT id FROM usuarios WHERE ").append(col).append(" >= ? AND ")
+               // +rol: que no use idx_usuarios_rol (tendría que ordenar todo el rol); el rango va por el índice de la columna
+               .append(col).append(" < ?").append(rol != null ? " AND +rol = ?" : "")
+               .append(" ORDER BY ").append(col).append(" LIMIT ?)");
+        }
+        sql.append(") c CROSS JOIN usuarios u ON u.id = c.id ORDER BY u.apellido COLLATE NOCASE, u.nombre COLLATE NOCASE LIMIT ?");
+
+        List<Usuario> lista = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            for (int c = 0; c < columnas.length; c++) {
+                ps.setString(i++, desde);
+                ps.setString(i++, hasta);
+                if (rol != null) ps.setString(i++, rol.name());
+                ps.setInt(i++, limite);
+            }
+            ps.setInt(i, limite);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) lista.add(mapRow(rs));
+            }
+            return lista;
+        } catch (SQLException e) {
+            throw new DAOException("Error al buscar usuarios", e);
+        }
+    }
+
+    /** Pasa solo A-Z a minúsculas, como COLLATE NOCASE (las letras acentuadas no se tocan). */
+    private static String minusculasAscii(String texto) {
+        char[] letras = texto.toCharArray();
+        for (int i = 0; i < letras.length; i++) {
+            if (letras[i] >= 'A' && letras[i] <= 'Z') letras[i] += 'a' - 'A';
+        }
+        return new String(letras);
+    }
+
+    /** Palabras del texto buscado, sin espacios de más. */
+    private static List<String> palabras(String texto) {
+        List<String> lista = new ArrayList<>();
+        if (texto == null) return lista;
+        for (String p : texto.trim().split("\\s+")) {
+            if (!p.isEmpty()) lista.add(p);
+        }
+        return lista;
+    }
+
+    /**
+     * Arma la consulta MATCH de FTS5: cada palabra entre comillas (así los caracteres especiales
+     * se toman literales) y todas obligatorias. Con columna, busca solo en esa columna.
+     */
+    private static String consultaFts(String columna, List<String> palabras) {
+        StringBuilder sb = new StringBuilder();
+        if (columna != null) sb.append(columna).append(" : (");
+        for (int i = 0; i < palabras.size(); i++) {
+            if (i > 0) sb.append(' ');
+            sb.append('"').append(palabras.get(i).replace("\"", "\"\"")).append('"');
         }
+        if (columna != null) sb.append(')');
+        return sb.toString();
     }
 
     private Usuario mapRow(ResultSet rs) throws SQLException, DAOException {
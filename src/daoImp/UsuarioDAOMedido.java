@@ -0,0 +1,242 @@
+package daoImp;
+
+import java.util.List;
+
+import base.Rol;
+import base.Usuario;
+import dao.Pagina;
+import dao.UsuarioDAO;
+import exceptions.DAOException;
+import exceptions.DatosInvalidosException;
+import utils.EventoSql;
+import utils.MetricaOperacion;
+import utils.RegistroMetricas;
+
+/**
+ * Decorador de {@link UsuarioDAO} que mide cada método en {@link RegistroMetricas}
+ * (llamadas, errores y latencia) y lo registra como {@link EventoSql} para Flight Recorder.
+ * No cambia el comportamiento: delega todo al DAO envuelto.
+ * Se crea con {@link FabricaDAO#usuarios}.
+ */
+public class UsuarioDAOMedido implements UsuarioDAO {
+
+    private static final MetricaOperacion GUARDAR = metrica("guardar");
+    private static final MetricaOperacion ACTUALIZAR = metrica("actualizar");
+    private static final MetricaOperacion ELIMINAR = metrica("eliminar");
+    private static final MetricaOperacion BUSCAR_POR_ID = metrica("buscarPorId");
+    private static final MetricaOperacion BUSCAR_POR_DNI = metrica("buscarPorDni");
+    private static final MetricaOperacion LISTAR_TODOS = metrica("listarTodos");
+    private static final MetricaOperacion BUSCAR_POR_ROL = metrica("buscarPorRol");
+    private static final MetricaOperacion LISTAR_PAGINA = metrica("listarPagina");
+    private static final MetricaOperacion BUSCAR = metrica("buscar");
+    private static final MetricaOperacion BUSCAR_POR_NOMBRE = metrica("buscarPorNombre");
+    private static final MetricaOperacion BUSCAR_POR_APELLIDO = metrica("buscarPorApellido");
+
+    private final UsuarioDAO dao;
+
+    public UsuarioDAOMedido(UsuarioDAO dao) {
+        this.dao = dao;
+    }
+
+    private static MetricaOperacion metrica(String metodo) {
+        return RegistroMetricas.getInstancia().metrica("UsuarioDAO." + metodo);
+    }
+
+    @Override
+    public boolean guardar(Usuario usuario) throws DAOException, DatosInvalidosException {
+        long inicio = GUARDAR.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            boolean ok = dao.guardar(usuario);
+            filas = ok ? 1 : 0;
+            return ok;
+        } catch (Exception e) {
+            GUARDAR.fallo();
+            throw e;
+        } finally {
+            GUARDAR.terminar(inicio);
+            evento.terminar(GUARDAR, filas);
+        }
+    }
+
+    @Override
+    public boolean actualizar(Usuario usuario) throws DAOException {
+        long inicio = ACTUALIZAR.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            boolean ok = dao.actualizar(usuario);
+            filas = ok ? 1 : 0;
+            return ok;
+        } catch (Exception e) {
+            ACTUALIZAR.fallo();
+            throw e;
+        } finally {
+            ACTUALIZAR.terminar(inicio);
+            evento.terminar(ACTUALIZAR, filas);
+        }
+    }
+
+    @Override
+    public boolean eliminar(int id) throws DAOException {
+        long inicio = ELIMINAR.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            boolean ok = dao.eliminar(id);
+            filas = ok ? 1 : 0;
+            return ok;
+        } catch (Exception e) {
+            ELIMINAR.fallo();
+            throw e;
+        } finally {
+            ELIMINAR.terminar(inicio);
+            evento.terminar(ELIMINAR, filas);
+        }
+    }
+
+    @Override
+    public Usuario buscarPorId(int id) throws DAOException {
+        long inicio = BUSCAR_POR_ID.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            Usuario usuario = dao.buscarPorId(id);
+            filas = (usuario != null) ? 1 : 0;
+            return usuario;
+        } catch (Exception e) {
+            BUSCAR_POR_ID.fallo();
+            throw e;
+        } finally {
+            BUSCAR_POR_ID.terminar(inicio);
+            evento.terminar(BUSCAR_POR_ID, filas);
+        }
+    }
+
+    @Override
+    public Usuario buscarPorDni(String dni) throws DAOException {
+        long inicio = BUSCAR_POR_DNI.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            Usuario usuario = dao.buscarPorDni(dni);
+            filas = (usuario != null) ? 1 : 0;
+            return usuario;
+        } catch (Exception e) {
+            BUSCAR_POR_DNI.fallo();
+            throw e;
+        } finally {
+            BUSCAR_POR_DNI.terminar(inicio);
+            evento.terminar(BUSCAR_POR_DNI, filas);
+        }
+    }
+
+    @Override
+    public List<Usuario> listarTodos() throws DAOException {
+        long inicio = LISTAR_TODOS.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            List<Usuario> resultado = dao.listarTodos();
+            filas = resultado.size();
+            return resultado;
+        } catch (Exception e) {
+            LISTAR_TODOS.fallo();
+            throw e;
+        } finally {
+            LISTAR_TODOS.terminar(inicio);
+            evento.terminar(LISTAR_TODOS, filas);
+        }
+    }
+
+    @Override
+    public List<Usuario> buscarPorRol(Rol rol) throws DAOException {
+        long inicio = BUSCAR_POR_ROL.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            List<Usuario> resultado = dao.buscarPorRol(rol);
+            filas = resultado.size();
+            return resultado;
+        } catch (Exception e) {
+            BUSCAR_POR_ROL.fallo();
+            throw e;
+        } finally {
+            BUSCAR_POR_ROL.terminar(inicio);
+            evento.terminar(BUSCAR_POR_ROL, filas);
+        }
+    }
+
+    @Override
+    public Pagina<Usuario> listarPagina(Rol rol, int despuesDeId, int tamanio) throws DAOException {
+        long inicio = LISTAR_PAGINA.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            Pagina<Usuario> pagina = dao.listarPagina(rol, despuesDeId, tamanio);
+            filas = pagina.getElementos().size();
+            return pagina;
+        } catch (Exception e) {
+            LISTAR_PAGINA.fallo();
+            throw e;
+        } finally {
+            LISTAR_PAGINA.terminar(inicio);
+            evento.terminar(LISTAR_PAGINA, filas);
+        }
+    }
+
+    @Override
+    public List<Usuario> buscar(String texto, Rol rol, int limite) throws DAOException {
+        long inicio = BUSCAR.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            List<Usuario> resultado = dao.buscar(texto, rol, limite);
+            filas = resultado.size();
+            return resultado;
+        } catch (Exception e) {
+            BUSCAR.fallo();
+            throw e;
+        } finally {
+            BUSCAR.terminar(inicio);
+            evento.terminar(BUSCAR, filas);
+        }
+    }
+
+    @Override
+    public List<Usuario> buscarPorNombre(String nombre) throws DAOException {
+        long inicio = BUSCAR_POR_NOMBRE.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            List<Usuario> resultado = dao.buscarPorNombre(nombre);
+            filas = resultado.size();
+            return resultado;
+        } catch (Exception e) {
+            BUSCAR_POR_NOMBRE.fallo();
+            throw e;
+        } finally {
+            BUSCAR_POR_NOMBRE.terminar(inicio);
+            evento.terminar(BUSCAR_POR_NOMBRE, filas);
+        }
+    }
+
+    @Override
+    public List<Usuario> buscarPorApellido(String apellido) throws DAOException {
+        long inicio = BUSCAR_POR_APELLIDO.iniciar();
+        EventoSql evento = EventoSql.iniciar();
+        int filas = -1;
+        try {
+            List<Usuario> resultado = dao.buscarPorApellido(apellido);
+            filas = resultado.size();
+            return resultado;
+        } catch (Exception e) {
+            BUSCAR_POR_APELLIDO.fallo();
+            throw e;
+        } finally {
+            BUSCAR_POR_APELLIDO.terminar(inicio);
+            evento.terminar(BUSCAR_POR_APELLIDO, filas);
+        }
+    }
+}
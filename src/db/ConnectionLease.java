@@ -0,0 +1,74 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import exceptions.ConnectionException;
+
+/**
+ * Préstamo de una conexión del {@link ConnectionPool} para una transacción.
+ * Se usa con try-with-resources: al cerrarse, si no se hizo commit se deshace todo lo
+ * pendiente y la conexión vuelve al pool limpia para el próximo que la pida.
+ */
+public class ConnectionLease implements AutoCloseable {
+
+    private final ConnectionPool pool;
+    private Connection conn;
+    private boolean sana = true;
+
+    ConnectionLease(ConnectionPool pool, Connection conn) {
+        this.pool = pool;
+        this.conn = conn;
+    }
+
+    /**
+     * Conexión prestada. No se debe cerrar ni guardar fuera del lease.
+     */
+    public Connection getConnection() {
+        if (conn == null) {
+            throw new IllegalStateException("La conexión ya fue devuelta al pool.");
+        }
+        return conn;
+    }
+
+    /** Confirma la transacción en curso. */
+    public void commit() throws ConnectionException {
+        try {
+            DBUtils.commit(getConnection());
+        } catch (ConnectionException e) {
+            sana = false;
+            throw e;
+        }
+    }
+
+    /** Deshace la transacción en curso. */
+    public void rollback() throws ConnectionException {
+        try {
+            DBUtils.rollback(getConnection());
+        } catch (ConnectionException e) {
+            sana = false;
+            throw e;
+        }
+    }
+
+    /**
+     * Devuelve la conexión al pool. Lo que no se haya commiteado se rollbackea
+     * (también cierra las transacciones de solo lectura que abre SQLite al hacer un SELECT).
+     */
+    @Override
+    public void close() {
+        if (conn == null) return;
+        try {
+            if (sana && !conn.getAutoCommit()) {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            // Si no se pudo limpiar, no la devolvemos al pool
+            sana = false;
+            e.printStackTrace();
+        } finally {
+            pool.release(conn, sana);
+            conn = null;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import exceptions.ConnectionException;
+
+/**
+ * Pool acotado de conexiones JDBC.
+ * Reemplaza a la conexión única compartida: cada servicio pide prestada una conexión
+ * (un {@link ConnectionLease}) para una transacción y la devuelve al terminar, así el
+ * commit/rollback de un servicio no toca el trabajo sin confirmar de otro.
+ *
+ * - Nunca hay más de {@code tamanioMaximo} conexiones abiertas a la vez.
+ * - Si no hay conexiones libres, el pedido espera hasta {@code timeoutMillis} y después falla.
+ * - Antes de entregar una conexión reutilizada se verifica que siga sana (isValid).
+ */
+public class ConnectionPool {
+
+    private static final int TIMEOUT_VALIDACION_SEG = 2;
+
+    private final String url;
+    private final int tamanioMaximo;
+    private final long timeoutMillis;
+    private final int busyTimeoutMillis;
+    private final ConfiguradorConexion configurador;
+
+    // Conexiones abiertas que nadie está usando. LIFO para reutilizar siempre las más "calientes".
+    private final LinkedBlockingDeque<Connection> libres = new LinkedBlockingDeque<>();
+    // Un permiso por conexión que se puede prestar; acota el total de conexiones abiertas.
+    private final Semaphore permisos;
+
+    private final AtomicInteger activas = new AtomicInteger();
+    private final AtomicInteger esperando = new AtomicInteger();
+    private volatile boolean cerrado = false;
+
+    /**
+     * Ajustes que se aplican a cada conexión nueva (por ejemplo los PRAGMA de SQLite).
+     */
+    @FunctionalInterface
+    public interface ConfiguradorConexion {
+        void configurar(Connection conn) throws SQLException;
+    }
+
+    /**
+     * @param url               URL JDBC de la base
+     * @param tamanioMaximo     cantidad máxima de conexiones abiertas
+     * @param timeoutMillis     cuánto esperar una conexión libre antes de fallar
+     * @param busyTimeoutMillis cuánto espera SQLite un lock antes de devolver SQLITE_BUSY
+     */
+    public ConnectionPool(String url, int tamanioMaximo, long timeoutMillis, int busyTimeoutMillis) {
+        this(url, tamanioMaximo, timeoutMillis, busyTimeoutMillis, conn -> {});
+    }
+
+    /**
+     * @param configurador ajustes extra para cada conexión recién abierta, antes de prestarla
+     */
+    public ConnectionPool(String url, int tamanioMaximo, long timeoutMillis, int busyTimeoutMillis,
+                          ConfiguradorConexion configurador) {
+        if (tamanioMaximo < 1) {
+            throw new IllegalArgumentException("El pool necesita al menos una conexión.");
+        }
+        this.url = url;
+        this.tamanioMaximo = tamanioMaximo;
+        this.timeoutMillis = timeoutMillis;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        this.configurador = configurador;
+        this.permisos = new Semaphore(tamanioMaximo, true); // fair: el que espera primero, se atiende primero
+    }
+
+    /**
+     * Pide prestada una conexión. Hay que devolverla cerrando el lease (try-with-resources).
+     * @return lease con una conexión sana y en modo transaccional (autoCommit = false)
+     * @throws ConnectionException si se agota el tiempo de espera o no se puede abrir la conexión
+     */
+    public ConnectionLease borrow() throws ConnectionException {
+        if (cerrado) {
+            throw new ConnectionException("El pool de conexiones está cerrado.");
+        }
+
+        esperando.incrementAndGet();
+        try {
+            if (!permisos.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ConnectionException("No hay conexiones libres (se esperó " + timeoutMillis + " ms).");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionException("Interrumpido esperando una conexión.", e);
+        } finally {
+            esperando.decrementAndGet();
+        }
+
+        // A partir de acá tenemos un permiso: si algo falla hay que devolverlo
+        try {
+            Connection conn = tomarLibreSana();
+            if (conn == null) {
+                conn = crearConexion();
+            }
+            activas.incrementAndGet();
+            return new ConnectionLease(this, conn);
+        } catch (SQLException e) {
+            permisos.release();
+            throw new ConnectionException("Error al abrir conexión con la base de datos.", e);
+        }
+    }
+
+    /**
+     * Recibe una conexión devuelta por un lease.
+     * @param conn   la conexión prestada
+     * @param sana   false si hubo un error que la dejó en estado dudoso (se descarta)
+     */
+    void release(Connection conn, boolean sana) {
+        activas.decrementAndGet();
+        try {
+            if (sana && !cerrado) {
+                libres.offerFirst(conn);
+            } else {
+                cerrarSilencioso(conn);
+            }
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /** Saca conexiones libres hasta encontrar una que responda; las rotas se cierran. */
+    private Connection tomarLibreSana() {
+        Connection conn;
+        while ((conn = libres.pollFirst()) != null) {
+            try {
+                if (conn.isValid(TIMEOUT_VALIDACION_SEG)) {
+                    return conn;
+                }
+            } catch (SQLException e) {
+                // cae al cierre de abajo
+            }
+            cerrarSilencioso(conn);
+        }
+        return null;
+    }
+
+    private Connection crearConexion() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try {
+            try (Statement st = conn.createStatement()) {
+                // Si otra conexión tiene el lock de escritura, SQLite reintenta en lugar de fallar enseguida
+                st.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            }
+            // Los PRAGMA se aplican con autoCommit activo (algunos no se pueden cambiar dentro de una transacción)
+            configurador.configurar(conn);
+        } catch (SQLException e) {
+            cerrarSilencioso(conn);
+            throw e;
+        }
+        // Igual que antes: las transacciones las manejan los servicios
+        conn.setAutoCommit(false);
+        return conn;
+    }
+
+    private static void cerrarSilencioso(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Conexiones prestadas en este momento. */
+    public int getActiveCount() {
+        return activas.get();
+    }
+
+    /** Conexiones abiertas esperando ser reutilizadas. */
+    public int getIdleCount() {
+        return libres.size();
+    }
+
+    /** Hilos esperando que se libere una conexión. */
+    public int getWaitingCount() {
+        return esperando.get();
+    }
+
+    public int getMaxSize() {
+        return tamanioMaximo;
+    }
+
+    /**
+     * Cierra todas las conexiones libres y rechaza pedidos nuevos.
+     * Las conexiones prestadas se cierran cuando sus leases se devuelven.
+     */
+    public void shutdown() {
+        cerrado = true;
+        Connection conn;
+        while ((conn = libres.pollFirst()) != null) {
+            cerrarSilencioso(conn);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool [activas=%d, libres=%d, esperando=%d, max=%d]",
+                getActiveCount(), getIdleCount(), getWaitingCount(), tamanioMaximo);
+    }
+}
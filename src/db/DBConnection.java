@@ -1,49 +1,144 @@
 package db;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+
+import exceptions.ConnectionException;
 
 /**
- * Clase para gestionar la conexión a la base de datos SQLite.
- * Mantiene una única conexión abierta durante el ciclo de vida de la aplicación.
- * Acá uso full patrón Singleton: una sola conexión abierta a la base de datos a la vez para evitar conflictos.
+ * Clase para gestionar el acceso a la base de datos SQLite.
+ * Antes mantenía una única conexión abierta compartida por toda la aplicación; ahora
+ * administra pools de conexiones y cada servicio pide prestada una conexión
+ * por transacción, así un reporte largo no bloquea a las reservas y el commit/rollback
+ * de un servicio no pisa el trabajo de otro.
+ *
+ * Según el {@link ModoAlmacenamiento}:
+ * - CLASICO: un único pool para todo, con el journal de rollback de siempre.
+ * - WAL: una conexión escritora dedicada ({@link #borrow()}) y un pool de conexiones de
+ *   solo lectura ({@link #borrowLectura()}) para listados y reportes. En WAL los lectores
+ *   no bloquean al escritor ni el escritor a los lectores.
+ *
+ * Se configura con las propiedades del sistema {@code turnera.db.url},
+ * {@code turnera.db.modo} (CLASICO o WAL), {@code turnera.db.pool} (cantidad de lectores)
+ * y {@code turnera.db.fecha} (TEXTO o EPOCH_MINUTOS, ver {@link FormatoFecha}).
  */
 public class DBConnection {
-    private static final String URL = "jdbc:sqlite:turnera.db";
-    private static Connection conn;
+    private static final String URL = System.getProperty("turnera.db.url", "jdbc:sqlite:turnera.db");
+    private static final ModoAlmacenamiento MODO =
+            ModoAlmacenamiento.valueOf(System.getProperty("turnera.db.modo", ModoAlmacenamiento.WAL.name()));
+    private static final FormatoFecha FORMATO_FECHA =
+            FormatoFecha.valueOf(System.getProperty("turnera.db.fecha", FormatoFecha.EPOCH_MINUTOS.name()));
+    private static final int TAMANIO_POOL = Integer.getInteger("turnera.db.pool", 4);
+    // Cuánto esperamos por una conexión libre antes de avisar al usuario
+    private static final long TIMEOUT_ESPERA_MS = 10_000;
+    // Cuánto espera SQLite el lock de escritura de otra conexión
+    private static final int BUSY_TIMEOUT_MS = 5_000;
+
+    // Ajustes de rendimiento para WAL (ver PRAGMA en la documentación de SQLite)
+    private static final int CACHE_KB = 16_384;              // cache de páginas por conexión: 16 MB
+    private static final long MMAP_BYTES = 256L * 1024 * 1024; // lecturas por memoria mapeada: hasta 256 MB
+
+    private static ConnectionPool escritor;
+    private static ConnectionPool lectores;
 
     // Constructor privado para evitar instanciación
     private DBConnection() {}
 
     /**
-     * Devuelve la conexión única a la base de datos. Si no existe o está cerrada, la crea.
-     * @return Connection abierta
-     * @throws SQLException si ocurre un error al conectar
+     * Devuelve el pool usado para escribir, creándolo la primera vez (sigue siendo un Singleton).
+     * En modo CLASICO es el único pool y también atiende las lecturas.
      */
-    public static synchronized Connection getConnection() throws SQLException {
-        if (conn == null || conn.isClosed()) {
-            conn = DriverManager.getConnection(URL);
-            // gestionamos transacciones manualmente
-            // de esta manera, si tenemos varias operaciones (insertar turno y actualizar agenda) si falla alguna rollbackeamos todas y no individualmente
-            // porque las transacciones son binarias, se hacen completas o no se hacen.
-            conn.setAutoCommit(false); 
+    public static synchronized ConnectionPool getPool() {
+        if (escritor == null) {
+            if (MODO == ModoAlmacenamiento.WAL) {
+                // SQLite admite un solo escritor a la vez: más conexiones solo agregarían esperas por el lock
+                escritor = new ConnectionPool(URL, 1, TIMEOUT_ESPERA_MS, BUSY_TIMEOUT_MS, DBConnection::configurarEscritorWal);
+            } else {
+                escritor = new ConnectionPool(URL, TAMANIO_POOL, TIMEOUT_ESPERA_MS, BUSY_TIMEOUT_MS);
+            }
         }
-        return conn;
+        return escritor;
     }
 
     /**
-     * Cierra la conexión a la base de datos, si está abierta.
+     * Devuelve el pool de solo lectura. En modo CLASICO es el mismo que {@link #getPool()}.
+     */
+    public static synchronized ConnectionPool getPoolLectura() {
+        if (MODO != ModoAlmacenamiento.WAL) {
+            return getPool();
+        }
+        if (lectores == null) {
+            // Creamos antes el escritor: es quien deja la base en journal_mode = WAL
+            getPool();
+            lectores = new ConnectionPool(URL, TAMANIO_POOL, TIMEOUT_ESPERA_MS, BUSY_TIMEOUT_MS, DBConnection::configurarLectorWal);
+        }
+        return lectores;
+    }
+
+    public static ModoAlmacenamiento getModo() {
+        return MODO;
+    }
+
+    /** Columna de fecha que usan los DAO para leer y filtrar turnos. */
+    public static FormatoFecha getFormatoFecha() {
+        return FORMATO_FECHA;
+    }
+
+    /**
+     * Pide prestada una conexión para una transacción que escribe. Usar con try-with-resources.
+     * @return lease con la conexión (autoCommit = false)
+     * @throws ConnectionException si no hay conexiones libres a tiempo o falla la conexión
+     */
+    public static ConnectionLease borrow() throws ConnectionException {
+        return getPool().borrow();
+    }
+
+    /**
+     * Pide prestada una conexión para consultas (listados, reportes). No se puede escribir con ella.
+     * @throws ConnectionException si no hay conexiones libres a tiempo o falla la conexión
+     */
+    public static ConnectionLease borrowLectura() throws ConnectionException {
+        return getPoolLectura().borrow();
+    }
+
+    private static void configurarEscritorWal(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // journal_mode queda guardado en el archivo: alcanza con que lo pida el escritor
+            st.execute("PRAGMA journal_mode = WAL");
+            // En WAL, NORMAL no pierde consistencia; solo puede perder la última transacción ante un corte de luz
+            st.execute("PRAGMA synchronous = NORMAL");
+        }
+        configurarComunWal(conn);
+    }
+
+    private static void configurarLectorWal(Connection conn) throws SQLException {
+        configurarComunWal(conn);
+        try (Statement st = conn.createStatement()) {
+            // Cualquier INSERT/UPDATE/DELETE por esta conexión falla: las escrituras van solo por el escritor
+            st.execute("PRAGMA query_only = ON");
+        }
+    }
+
+    private static void configurarComunWal(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("PRAGMA cache_size = -" + CACHE_KB); // negativo = tamaño en KB
+            st.execute("PRAGMA mmap_size = " + MMAP_BYTES);
+            st.execute("PRAGMA temp_store = MEMORY");       // ORDER BY/GROUP BY temporales en memoria
+        }
+    }
+
+    /**
+     * Cierra los pools y sus conexiones libres.
      */
     public static synchronized void closeConnection() {
-        if (conn != null) {
-            try {
-                if (!conn.isClosed()) {
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+        if (lectores != null) {
+            lectores.shutdown();
+            lectores = null;
+        }
+        if (escritor != null) {
+            escritor.shutdown();
+            escritor = null;
         }
     }
 }
@@ -9,6 +9,38 @@ import exceptions.ConnectionException;
  */
 public class DBUtils {
 
+    // Códigos de SQLite: SQLITE_CONSTRAINT y su variante extendida SQLITE_CONSTRAINT_UNIQUE
+    private static final int SQLITE_CONSTRAINT = 19;
+    private static final int SQLITE_CONSTRAINT_UNIQUE = 2067;
+    // Otra conexión tiene el lock de la base (BUSY) o de una tabla (LOCKED)
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    /**
+     * Indica si el error es porque un INSERT/UPDATE violó un índice único
+     * (por ejemplo, DNI repetido o médico ya ocupado en ese horario).
+     */
+    public static boolean esViolacionUnica(SQLException e) {
+        int codigo = e.getErrorCode();
+        return (codigo == SQLITE_CONSTRAINT || codigo == SQLITE_CONSTRAINT_UNIQUE)
+                && e.getMessage() != null && e.getMessage().contains("UNIQUE");
+    }
+
+    /**
+     * Indica si el error es SQLITE_BUSY o SQLITE_LOCKED (o una de sus variantes): otra conexión
+     * tuvo el lock más tiempo que el busy_timeout. Busca en toda la cadena de causas.
+     */
+    public static boolean esBloqueo(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql) {
+                // Los códigos extendidos llevan el código base en el byte bajo (SQLITE_BUSY_SNAPSHOT = 5 | 2 << 8)
+                int codigo = sql.getErrorCode() & 0xFF;
+                if (codigo == SQLITE_BUSY || codigo == SQLITE_LOCKED) return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Realiza commit de la transacción en la conexión dada.
      * @param conn Conexión activa
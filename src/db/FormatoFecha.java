@@ -0,0 +1,13 @@
+/*
+ * ENUMERADOR
+ * Columna que usan los DAO para leer, filtrar y ordenar la fecha de los turnos.
+ */
+
+package db;
+
+public enum FormatoFecha {
+    // Columna fechaHora: texto yyyy-MM-dd HH:mm:ss (cada lectura hace un parse y los rangos comparan strings)
+    TEXTO,
+    // Columna fecha_min: entero con los minutos desde 1970 (sin parseo, rangos con comparación de enteros)
+    EPOCH_MINUTOS
+}
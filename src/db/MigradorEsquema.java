@@ -0,0 +1,358 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import exceptions.ConnectionException;
+
+/**
+ * Crea y actualiza el esquema de la base al iniciar la aplicación.
+ *
+ * Cada cambio de esquema es una {@link Migracion} con un número de versión. La tabla
+ * {@code schema_version} guarda cuáles ya se aplicaron, así que al arrancar solo se corren
+ * las pendientes, en orden y cada una en su propia transacción (si falla, no queda a medias).
+ *
+ * Para agregar un cambio: sumar una migración al final de {@link #MIGRACIONES} con el
+ * siguiente número. Nunca modificar una migración ya publicada.
+ */
+public class MigradorEsquema {
+
+    /** Un paso de la evolución del esquema. */
+    private record Migracion(int version, String descripcion, String... sentencias) {}
+
+    /** Consulta que tiene que resolverse con un índice; se revisa con EXPLAIN QUERY PLAN. */
+    private record VerificacionPlan(String nombre, String tabla, String sql, String indiceEsperado) {}
+
+    // Con tablas chicas SQLite elige recorrerlas enteras (y está bien): ahí el autochequeo no aplica
+    private static final int FILAS_MINIMAS_VERIFICACION = 1_000;
+
+    // UPDATE que completa costo y obra social de turnos a partir de médico y paciente (migración 7).
+    // %1$s / %2$s: columnas con el ID del médico y del paciente; %3$s: WHERE opcional
+    private static final String COSTO_SEGUN_USUARIOS = """
+            UPDATE turnos SET (costo, obra_social) = (
+                SELECT CASE WHEN m.obra_social IS NOT NULL AND m.obra_social <> 'PARTICULAR'
+                                 AND m.obra_social = p.obra_social
+                            THEN m.honorariosPorConsulta * 0.5
+                            ELSE m.honorariosPorConsulta END,
+                       p.obra_social
+                FROM usuarios m, usuarios p
+                WHERE m.id = %1$s AND p.id = %2$s)%3$s""";
+
+    private static final List<Migracion> MIGRACIONES = List.of(
+        new Migracion(1, "Tablas base de usuarios y turnos",
+            """
+            CREATE TABLE IF NOT EXISTS usuarios (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                dni TEXT NOT NULL UNIQUE,
+                nombre TEXT NOT NULL,
+                apellido TEXT NOT NULL,
+                email TEXT,
+                rol TEXT NOT NULL,
+                honorariosPorConsulta REAL DEFAULT 0.0,
+                obra_social TEXT)
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS turnos (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                fechaHora TEXT NOT NULL,
+                medico_id INTEGER NOT NULL,
+                paciente_id INTEGER NOT NULL,
+                FOREIGN KEY(medico_id) REFERENCES usuarios(id),
+                FOREIGN KEY(paciente_id) REFERENCES usuarios(id))
+            """),
+
+        new Migracion(2, "Índices para disponibilidad, agendas, reportes y roles",
+            // existeTurnoMedico y agenda del médico (ordenada por fecha)
+            "CREATE INDEX IF NOT EXISTS idx_turnos_medico_fecha ON turnos(medico_id, fechaHora)",
+            // turnos del paciente (ordenados por fecha)
+            "CREATE INDEX IF NOT EXISTS idx_turnos_paciente_fecha ON turnos(paciente_id, fechaHora)",
+            // rangos de fecha de los reportes y el listado general
+            "CREATE INDEX IF NOT EXISTS idx_turnos_fecha ON turnos(fechaHora)",
+            // listarMedicos / listarPacientes
+            "CREATE INDEX IF NOT EXISTS idx_usuarios_rol ON usuarios(rol)"),
+
+        new Migracion(3, "Sobreturnos y unicidad de (médico, fecha) para turnos normales",
+            // null = turno normal; si tiene valor, es un sobreturno colgado de ese turno
+            "ALTER TABLE turnos ADD COLUMN turno_padre_id INTEGER REFERENCES turnos(id)",
+            // La base rechaza el doble turno aunque dos puestos reserven a la vez.
+            // Si la base ya tiene turnos repetidos esta migración falla y hay que depurarlos a mano.
+            """
+            CREATE UNIQUE INDEX IF NOT EXISTS ux_turnos_medico_fecha
+                ON turnos(medico_id, fechaHora) WHERE turno_padre_id IS NULL
+            """),
+
+        new Migracion(4, "Fecha de turnos como entero (minutos desde 1970)",
+            "ALTER TABLE turnos ADD COLUMN fecha_min INTEGER",
+            // strftime('%s') toma el texto como hora UTC: igual que FechaUtils.aMinutos
+            "UPDATE turnos SET fecha_min = CAST(strftime('%s', fechaHora) AS INTEGER) / 60",
+            // Si alguien inserta solo el texto (herramientas externas, versiones viejas), completamos el entero
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_turnos_fecha_min AFTER INSERT ON turnos
+            WHEN NEW.fecha_min IS NULL
+            BEGIN
+                UPDATE turnos SET fecha_min = CAST(strftime('%s', NEW.fechaHora) AS INTEGER) / 60 WHERE id = NEW.id;
+            END
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_turnos_medico_min ON turnos(medico_id, fecha_min)",
+            "CREATE INDEX IF NOT EXISTS idx_turnos_paciente_min ON turnos(paciente_id, fecha_min)",
+            "CREATE INDEX IF NOT EXISTS idx_turnos_min ON turnos(fecha_min)",
+            """
+            CREATE UNIQUE INDEX IF NOT EXISTS ux_turnos_medico_min
+                ON turnos(medico_id, fecha_min) WHERE turno_padre_id IS NULL
+            """),
+
+        new Migracion(5, "Búsqueda de usuarios por nombre, apellido y DNI",
+            // Índice de texto completo sobre usuarios (sin copiar los datos: content='usuarios').
+            // Trigramas: encuentra cualquier parte de una palabra ("onza" en "Gonzalez"), sin
+            // distinguir mayúsculas ni acentos.
+            """
+            CREATE VIRTUAL TABLE IF NOT EXISTS usuarios_fts USING fts5(
+                nombre, apellido, dni,
+                content='usuarios', content_rowid='id',
+                tokenize='trigram remove_diacritics 1')
+            """,
+            // Los triggers mantienen el índice al día con cualquier alta, baja o modificación
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_usuarios_fts_ai AFTER INSERT ON usuarios BEGIN
+                INSERT INTO usuarios_fts(rowid, nombre, apellido, dni) VALUES (NEW.id, NEW.nombre, NEW.apellido, NEW.dni);
+            END
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_usuarios_fts_ad AFTER DELETE ON usuarios BEGIN
+                INSERT INTO usuarios_fts(usuarios_fts, rowid, nombre, apellido, dni) VALUES ('delete', OLD.id, OLD.nombre, OLD.apellido, OLD.dni);
+            END
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_usuarios_fts_au AFTER UPDATE OF nombre, apellido, dni ON usuarios BEGIN
+                INSERT INTO usuarios_fts(usuarios_fts, rowid, nombre, apellido, dni) VALUES ('delete', OLD.id, OLD.nombre, OLD.apellido, OLD.dni);
+                INSERT INTO usuarios_fts(rowid, nombre, apellido, dni) VALUES (NEW.id, NEW.nombre, NEW.apellido, NEW.dni);
+            END
+            """,
+            // Indexa los usuarios que ya existían
+            "INSERT INTO usuarios_fts(usuarios_fts) VALUES ('rebuild')",
+            // Relevancia (columna rank): bm25 pesando más el apellido, después el nombre y el DNI
+            "INSERT INTO usuarios_fts(usuarios_fts, rank) VALUES ('rank', 'bm25(2.0, 3.0, 1.0)')",
+            // Búsqueda por comienzo con 1 o 2 letras (el índice de trigramas necesita 3)
+            "CREATE INDEX IF NOT EXISTS idx_usuarios_apellido_nocase ON usuarios(apellido COLLATE NOCASE)",
+            "CREATE INDEX IF NOT EXISTS idx_usuarios_nombre_nocase ON usuarios(nombre COLLATE NOCASE)"),
+
+        new Migracion(6, "Resumen de recaudación por médico y día",
+            // dia = días desde 1970 (LocalDate.toEpochDay). Lo mantiene TurnoService al reservar.
+            """
+            CREATE TABLE IF NOT EXISTS recaudacion_diaria (
+                medico_id INTEGER NOT NULL REFERENCES usuarios(id),
+                dia INTEGER NOT NULL,
+                cantidad INTEGER NOT NULL,
+                total REAL NOT NULL,
+                PRIMARY KEY (medico_id, dia)) WITHOUT ROWID
+            """,
+            // Reporte general: rango de días de todos los médicos
+            "CREATE INDEX IF NOT EXISTS idx_recaudacion_dia ON recaudacion_diaria(dia)",
+            // Resumen de los turnos que ya existían (lo mismo que RecaudacionDAO.reconstruir)
+            """
+            INSERT OR REPLACE INTO recaudacion_diaria (medico_id, dia, cantidad, total)
+            SELECT t.medico_id, t.fecha_min / 1440, COUNT(*), COUNT(*) * m.honorariosPorConsulta
+            FROM turnos t
+            JOIN usuarios m ON t.medico_id = m.id
+            GROUP BY t.medico_id, t.fecha_min / 1440
+            """),
+
+        new Migracion(7, "Costo cobrado y obra social en cada turno; resumen de recaudación por obra social",
+            // Lo cobrado al reservar: los reportes ya no dependen de los honorarios actuales del médico
+            "ALTER TABLE turnos ADD COLUMN costo REAL",
+            "ALTER TABLE turnos ADD COLUMN obra_social TEXT",
+            // Turnos existentes: se calcula con los datos de hoy, con la misma regla que Turno.calcularCosto
+            // (50% si médico y paciente tienen la misma obra social y no es PARTICULAR)
+            COSTO_SEGUN_USUARIOS.formatted("turnos.medico_id", "turnos.paciente_id", ""),
+            // Si alguien inserta sin costo (herramientas externas, versiones viejas), lo completamos igual
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_turnos_costo AFTER INSERT ON turnos
+            WHEN NEW.costo IS NULL
+            BEGIN
+                %s;
+            END
+            """.formatted(COSTO_SEGUN_USUARIOS.formatted("NEW.medico_id", "NEW.paciente_id", " WHERE id = NEW.id")),
+            // El resumen suma una dimensión: se vuelve a crear con la obra social en la clave
+            "DROP TABLE IF EXISTS recaudacion_diaria",
+            """
+            CREATE TABLE recaudacion_diaria (
+                medico_id INTEGER NOT NULL REFERENCES usuarios(id),
+                dia INTEGER NOT NULL,
+                obra_social TEXT NOT NULL,
+                cantidad INTEGER NOT NULL,
+                total REAL NOT NULL,
+                PRIMARY KEY (medico_id, dia, obra_social)) WITHOUT ROWID
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_recaudacion_dia ON recaudacion_diaria(dia)",
+            // Igual que RecaudacionDAO.reconstruir
+            """
+            INSERT INTO recaudacion_diaria (medico_id, dia, obra_social, cantidad, total)
+            SELECT medico_id, fecha_min / 1440, COALESCE(obra_social, 'PARTICULAR'), COUNT(*), TOTAL(costo)
+            FROM turnos
+            GROUP BY 1, 2, 3
+            """)
+    );
+
+    private static final List<VerificacionPlan> VERIFICACIONES = List.of(
+        new VerificacionPlan("existeTurnoMedico", "turnos",
+            "SELECT COUNT(*) FROM turnos WHERE medico_id = ? AND fechaHora = ?",
+            "idx_turnos_medico_fecha"),
+        new VerificacionPlan("listarPorMedico", "turnos",
+            "SELECT t.id FROM turnos t JOIN usuarios p ON t.paciente_id = p.id WHERE t.medico_id = ? ORDER BY t.fechaHora",
+            "idx_turnos_medico_fecha"),
+        new VerificacionPlan("listarPorPaciente", "turnos",
+            "SELECT t.id FROM turnos t JOIN usuarios m ON t.medico_id = m.id WHERE t.paciente_id = ? ORDER BY t.fechaHora",
+            "idx_turnos_paciente_fecha"),
+        new VerificacionPlan("obtenerReporteGeneral", "turnos",
+            "SELECT m.nombre, COUNT(t.id) FROM turnos t JOIN usuarios m ON t.medico_id = m.id "
+                + "WHERE t.fechaHora >= ? AND t.fechaHora <= ? GROUP BY m.id",
+            "idx_turnos_fecha"),
+        new VerificacionPlan("listarPorMedico (fecha_min)", "turnos",
+            "SELECT t.id FROM turnos t JOIN usuarios p ON t.paciente_id = p.id WHERE t.medico_id = ? ORDER BY t.fecha_min",
+            "idx_turnos_medico_min"),
+        new VerificacionPlan("obtenerReporteGeneral (fecha_min)", "turnos",
+            "SELECT m.nombre, COUNT(t.id) FROM turnos t JOIN usuarios m ON t.medico_id = m.id "
+                + "WHERE t.fecha_min >= ? AND t.fecha_min <= ? GROUP BY m.id",
+            "idx_turnos_min"),
+        new VerificacionPlan("buscarPorRol", "usuarios",
+            "SELECT * FROM usuarios WHERE rol = ?",
+            "idx_usuarios_rol"),
+        new VerificacionPlan("buscar (comienzo de apellido)", "usuarios",
+            "SELECT id FROM usuarios WHERE apellido COLLATE NOCASE >= ? AND apellido COLLATE NOCASE < ? "
+                + "ORDER BY apellido COLLATE NOCASE LIMIT 20",
+            "idx_usuarios_apellido_nocase")
+    );
+
+    private MigradorEsquema() {}
+
+    /**
+     * Aplica las migraciones pendientes.
+     * @return versión del esquema después de migrar
+     * @throws ConnectionException si alguna migración falla (esa migración queda sin aplicar)
+     */
+    public static int migrar() throws ConnectionException {
+        try (ConnectionLease lease = DBConnection.borrow()) {
+            Connection conn = lease.getConnection();
+            try {
+                crearTablaVersiones(conn);
+                lease.commit();
+
+                int actual = versionActual(conn);
+                for (Migracion m : MIGRACIONES) {
+                    if (m.version() <= actual) continue;
+                    aplicar(conn, m);
+                    lease.commit();
+                    actual = m.version();
+                }
+
+                // Actualiza las estadísticas que usa el planificador para elegir índices
+                try (Statement st = conn.createStatement()) {
+                    st.execute("PRAGMA optimize");
+                }
+                lease.commit();
+                return actual;
+            } catch (SQLException e) {
+                throw new ConnectionException("Error al migrar el esquema de la base de datos: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Versión de esquema aplicada en la base (0 si nunca se migró).
+     */
+    public static int versionActual() throws ConnectionException {
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            return versionActual(lease.getConnection());
+        } catch (SQLException e) {
+            throw new ConnectionException("Error al leer la versión del esquema.", e);
+        }
+    }
+
+    /** Última versión que conoce esta aplicación. */
+    public static int versionEsperada() {
+        return MIGRACIONES.get(MIGRACIONES.size() - 1).version();
+    }
+
+    /**
+     * Autochequeo: corre EXPLAIN QUERY PLAN sobre las consultas más usadas y verifica que
+     * SQLite las resuelva con el índice esperado y no recorriendo toda la tabla.
+     * @return lista de problemas encontrados (vacía si todo usa índices)
+     */
+    public static List<String> verificarPlanes() throws ConnectionException {
+        List<String> problemas = new ArrayList<>();
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            Connection conn = lease.getConnection();
+            for (VerificacionPlan v : VERIFICACIONES) {
+                if (filasAproximadas(conn, v.tabla()) < FILAS_MINIMAS_VERIFICACION) continue;
+                String plan = planDeConsulta(conn, v.sql());
+                if (!plan.contains(v.indiceEsperado())) {
+                    problemas.add(v.nombre() + ": no usa " + v.indiceEsperado() + " -> " + plan);
+                }
+            }
+        } catch (SQLException e) {
+            throw new ConnectionException("Error al verificar los planes de consulta.", e);
+        }
+        return problemas;
+    }
+
+    private static void crearTablaVersiones(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    descripcion TEXT NOT NULL,
+                    aplicada_en TEXT NOT NULL)
+                """);
+        }
+    }
+
+    private static int versionActual(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void aplicar(Connection conn, Migracion m) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            for (String sql : m.sentencias()) {
+                st.execute(sql);
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO schema_version (version, descripcion, aplicada_en) VALUES (?, ?, ?)")) {
+            ps.setInt(1, m.version());
+            ps.setString(2, m.descripcion());
+            ps.setString(3, LocalDateTime.now().withNano(0).toString());
+            ps.executeUpdate();
+        }
+    }
+
+    /** Cantidad aproximada de filas: el id más alto (leerlo es inmediato, un COUNT recorre todo). */
+    private static long filasAproximadas(Connection conn, String tabla) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + tabla)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /** Devuelve el detalle del plan (columna "detail") de todos los pasos, separado por " | ". */
+    private static String planDeConsulta(Connection conn, String sql) throws SQLException {
+        StringBuilder sb = new StringBuilder();
+        // Los parámetros sin bindear valen NULL: alcanza para que SQLite arme el plan
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                if (sb.length() > 0) sb.append(" | ");
+                sb.append(rs.getString("detail"));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,15 @@
+/*
+ * ENUMERADOR
+ * Modo en que SQLite guarda y comparte la base entre conexiones.
+ */
+
+package db;
+
+public enum ModoAlmacenamiento {
+    // Journal de rollback clásico: un único pool para lecturas y escrituras.
+    // Mientras alguien escribe, nadie lee (y al revés).
+    CLASICO,
+    // Write-Ahead Log: una conexión dedicada a escribir y varias de solo lectura.
+    // Los lectores ven la última versión confirmada y no bloquean al escritor.
+    WAL
+}
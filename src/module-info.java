@@ -7,4 +7,5 @@
 module TurneroMedico {
 	requires java.sql;
 	requires java.desktop;
+	requires jdk.jfr;
 }
\ No newline at end of file
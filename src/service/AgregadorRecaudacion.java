@@ -0,0 +1,125 @@
+package service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import base.ObraSocial;
+import dao.FilaRecaudacion;
+import dao.FilaReporte;
+
+/**
+ * Arma el reporte de recaudación con tres cortes (por médico, por obra social y por día)
+ * recorriendo una sola vez las filas del resumen diario.
+ *
+ * Se le pasa como visitante a {@link dao.RecaudacionDAO#recorrerResumen}: cada fila suma en
+ * los tres cortes a la vez, sin listas intermedias ni una consulta por corte. Los montos son
+ * los que quedaron registrados en cada turno al reservar (no se recalcula ningún costo).
+ * No es thread-safe: un agregador por hilo (los parciales se juntan con {@link #combinar}).
+ */
+public class AgregadorRecaudacion implements Consumer<FilaRecaudacion> {
+
+    /** Cantidad de turnos y monto recaudado de un corte. */
+    public record Subtotal(int cantidad, double total) {}
+
+    /** Acumulador mutable de un corte mientras se recorre. */
+    private static class Acumulado {
+        int cantidad;
+        double total;
+
+        void sumar(int c, double t) {
+            cantidad += c;
+            total += t;
+        }
+
+        Subtotal subtotal() {
+            return new Subtotal(cantidad, total);
+        }
+    }
+
+    /** Médico de un corte (nombre y apellido se guardan la primera vez que aparece). */
+    private static final class PorMedico extends Acumulado {
+        final String nombre;
+        final String apellido;
+
+        PorMedico(String nombre, String apellido) {
+            this.nombre = nombre;
+            this.apellido = apellido;
+        }
+    }
+
+    private final Map<Integer, PorMedico> porMedico = new LinkedHashMap<>();
+    private final Map<ObraSocial, Acumulado> porObraSocial = new EnumMap<>(ObraSocial.class);
+    private final SortedMap<LocalDate, Acumulado> porDia = new TreeMap<>();
+    private final Acumulado general = new Acumulado();
+    private int filasLeidas;      // filas del resumen diario que pasaron por accept (para EventoReporte)
+
+    @Override
+    public void accept(FilaRecaudacion f) {
+        porMedico.computeIfAbsent(f.idMedico(), id -> new PorMedico(f.nombre(), f.apellido()))
+                 .sumar(f.cantidad(), f.total());
+        porObraSocial.computeIfAbsent(f.obraSocial(), os -> new Acumulado()).sumar(f.cantidad(), f.total());
+        porDia.computeIfAbsent(f.dia(), d -> new Acumulado()).sumar(f.cantidad(), f.total());
+        general.sumar(f.cantidad(), f.total());
+        filasLeidas++;
+    }
+
+    /**
+     * Suma en este agregador lo acumulado por otro (por ejemplo, el de otra partición del
+     * período en {@link MotorReportes}). El otro no se modifica.
+     */
+    public void combinar(AgregadorRecaudacion otro) {
+        otro.porMedico.forEach((id, m) ->
+            porMedico.computeIfAbsent(id, k -> new PorMedico(m.nombre, m.apellido)).sumar(m.cantidad, m.total));
+        otro.porObraSocial.forEach((os, a) ->
+            porObraSocial.computeIfAbsent(os, k -> new Acumulado()).sumar(a.cantidad, a.total));
+        otro.porDia.forEach((d, a) ->
+            porDia.computeIfAbsent(d, k -> new Acumulado()).sumar(a.cantidad, a.total));
+        general.sumar(otro.general.cantidad, otro.general.total);
+        filasLeidas += otro.filasLeidas;
+    }
+
+    /** Corte por médico, ordenado por total recaudado (mayor primero). */
+    public List<FilaReporte> getPorMedico() {
+        List<FilaReporte> filas = new ArrayList<>(porMedico.size());
+        porMedico.forEach((id, m) -> filas.add(new FilaReporte(id, m.nombre, m.apellido, m.cantidad, m.total)));
+        filas.sort(Comparator.comparingDouble(FilaReporte::total).reversed());
+        return filas;
+    }
+
+    /** Corte por obra social del paciente (solo las que tuvieron turnos), en el orden del enum. */
+    public Map<ObraSocial, Subtotal> getPorObraSocial() {
+        Map<ObraSocial, Subtotal> r = new EnumMap<>(ObraSocial.class);
+        porObraSocial.forEach((os, a) -> r.put(os, a.subtotal()));
+        return Collections.unmodifiableMap(r);
+    }
+
+    /** Corte por día (solo los días con turnos), en orden de fecha. */
+    public SortedMap<LocalDate, Subtotal> getPorDia() {
+        SortedMap<LocalDate, Subtotal> r = new TreeMap<>();
+        porDia.forEach((d, a) -> r.put(d, a.subtotal()));
+        return Collections.unmodifiableSortedMap(r);
+    }
+
+    /** Total del período. */
+    public Subtotal getTotal() {
+        return general.subtotal();
+    }
+
+    /** Filas del resumen diario que se leyeron para armar el reporte. */
+    public int getFilasLeidas() {
+        return filasLeidas;
+    }
+
+    public boolean isVacio() {
+        return general.cantidad == 0;
+    }
+}
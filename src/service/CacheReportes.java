@@ -0,0 +1,130 @@
+package service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import base.Turno;
+
+/**
+ * Cache de reportes de recaudación ya calculados, compartido por todas las instancias de
+ * {@link ReporteService}. La clave es el rango de fechas y el médico (-1 = reporte general).
+ *
+ * - Períodos cerrados (terminan antes de hoy): se guardan sin vencimiento; solo cambian si se
+ *   reserva un turno con fecha dentro del período.
+ * - Períodos abiertos (incluyen hoy o días futuros): valen {@value #VIGENCIA_MS} ms, así se ven
+ *   las reservas hechas desde otra PC.
+ * - {@link TurnoService} avisa cada turno reservado: se descartan solo los reportes cuyo rango
+ *   incluye ese día y son de ese médico o generales.
+ * - Tamaño acotado: pasado {@value #MAXIMO_REPORTES} reportes se descarta el usado hace más tiempo.
+ *
+ * Los reportes guardados se comparten: quien los recibe solo debe leerlos.
+ * Es thread-safe (los métodos son synchronized: las operaciones son todas cortas).
+ */
+public class CacheReportes {
+
+    private static final int MAXIMO_REPORTES = 100;
+    private static final long VIGENCIA_MS = 5 * 60 * 1000;
+
+    /** Rango (ambas fechas inclusive) y médico de un reporte. */
+    private record Clave(LocalDate desde, LocalDate hasta, int idMedico) {
+        boolean incluye(int otroMedico, LocalDate dia) {
+            return (idMedico == -1 || idMedico == otroMedico) && !dia.isBefore(desde) && !dia.isAfter(hasta);
+        }
+    }
+
+    /** Reporte guardado con el momento en que vence (Long.MAX_VALUE = período cerrado). */
+    private record Entrada(AgregadorRecaudacion reporte, long vence) {}
+
+    private static final CacheReportes INSTANCIA = new CacheReportes();
+
+    // Mapa en orden de uso que descarta el usado hace más tiempo al pasar el máximo
+    private final Map<Clave, Entrada> reportes = new LinkedHashMap<>(32, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Clave, Entrada> eldest) {
+            return size() > MAXIMO_REPORTES;
+        }
+    };
+
+    // Igual que en CacheUsuarios: quien calcula un reporte anota la versión antes de consultar y
+    // solo lo guarda si no hubo invalidaciones en el medio (si no, podría guardar datos viejos).
+    private long version;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    private CacheReportes() {}
+
+    public static CacheReportes getInstancia() {
+        return INSTANCIA;
+    }
+
+    /** Reporte guardado y vigente para ese rango y médico; null si hay que calcularlo. */
+    public synchronized AgregadorRecaudacion get(LocalDate desde, LocalDate hasta, int idMedico) {
+        Clave clave = new Clave(desde, hasta, idMedico);
+        Entrada e = reportes.get(clave);
+        if (e != null && System.currentTimeMillis() < e.vence()) {
+            aciertos.incrementAndGet();
+            return e.reporte();
+        }
+        if (e != null) {
+            reportes.remove(clave); // vencida
+        }
+        fallos.incrementAndGet();
+        return null;
+    }
+
+    /** Versión actual de la cache; anotarla antes de calcular el reporte (ver {@link #guardar}). */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /** Guarda el reporte, salvo que la cache se haya invalidado después de {@code versionLeida}. */
+    public synchronized void guardar(LocalDate desde, LocalDate hasta, int idMedico,
+                                     AgregadorRecaudacion reporte, long versionLeida) {
+        if (versionLeida != version) return;
+        boolean cerrado = hasta.isBefore(LocalDate.now());
+        long vence = cerrado ? Long.MAX_VALUE : System.currentTimeMillis() + VIGENCIA_MS;
+        reportes.put(new Clave(desde, hasta, idMedico), new Entrada(reporte, vence));
+    }
+
+    /** Descarta los reportes que incluyen alguno de estos turnos (por médico y día). */
+    public synchronized void invalidar(Collection<Turno> turnos) {
+        version++;
+        if (reportes.isEmpty()) return;
+        for (Turno t : turnos) {
+            int idMedico = t.getMedico().getId();
+            LocalDate dia = t.getFechaHora().toLocalDate();
+            reportes.keySet().removeIf(c -> c.incluye(idMedico, dia));
+        }
+    }
+
+    /** Olvida todo (por ejemplo, después de reconstruir el resumen de recaudación). */
+    public synchronized void limpiar() {
+        version++;
+        reportes.clear();
+    }
+
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    /** Porcentaje de reportes resueltos sin ir a la base (0 si todavía no hubo ninguno). */
+    public double getTasaAciertos() {
+        long a = aciertos.get();
+        long total = a + fallos.get();
+        return (total == 0) ? 0 : 100.0 * a / total;
+    }
+
+    public synchronized String getEstadisticas() {
+        return String.format("reportes=%d aciertos=%d fallos=%d (%.1f%% aciertos)",
+                reportes.size(), aciertos.get(), fallos.get(), getTasaAciertos());
+    }
+}
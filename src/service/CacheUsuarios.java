@@ -0,0 +1,174 @@
+package service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import base.Rol;
+import base.Usuario;
+
+/**
+ * Cache de usuarios compartido por todas las instancias de {@link UsuarioService}.
+ *
+ * Guarda usuarios por ID y por DNI, y las listas por rol (médicos, pacientes), para no ir a
+ * la base cada vez que una pantalla arma sus combos o se busca a alguien por DNI.
+ * - Tamaño acotado: pasado {@value #MAXIMO_USUARIOS} usuarios se descarta el usado hace más tiempo.
+ * - Vigencia: cada entrada vale {@value #VIGENCIA_MS} ms; después se vuelve a leer la base
+ *   (así se ven cambios hechos desde otra PC).
+ * - UsuarioService lo invalida al crear, actualizar o eliminar un usuario.
+ *
+ * Es thread-safe (los métodos son synchronized: las operaciones son todas cortas).
+ */
+public class CacheUsuarios {
+
+    private static final int MAXIMO_USUARIOS = 1_000;
+    private static final long VIGENCIA_MS = 5 * 60 * 1000;
+
+    /** Valor guardado con el momento en que vence. */
+    private record Entrada<V>(V valor, long vence) {
+        boolean vigente(long ahora) {
+            return ahora < vence;
+        }
+    }
+
+    private static final CacheUsuarios INSTANCIA = new CacheUsuarios();
+
+    private final Map<Integer, Entrada<Usuario>> porId = lru();
+    private final Map<String, Entrada<Usuario>> porDni = lru();
+    private final Map<Rol, Entrada<List<Usuario>>> porRol = new LinkedHashMap<>();
+
+    // Cambia con cada invalidación. Quien lee de la base anota la versión antes de consultar y
+    // solo guarda si no cambió: así una lectura vieja no pisa una invalidación que llegó en el medio.
+    private long version;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    private CacheUsuarios() {}
+
+    public static CacheUsuarios getInstancia() {
+        return INSTANCIA;
+    }
+
+    /** Usuario con ese ID si está en cache y vigente; null si hay que ir a la base. */
+    public synchronized Usuario getPorId(int id) {
+        return leer(porId, id);
+    }
+
+    /** Usuario con ese DNI si está en cache y vigente; null si hay que ir a la base. */
+    public synchronized Usuario getPorDni(String dni) {
+        return leer(porDni, dni);
+    }
+
+    /** Lista (inmodificable) de usuarios del rol si está en cache y vigente; null si hay que ir a la base. */
+    public synchronized List<Usuario> getPorRol(Rol rol) {
+        return leer(porRol, rol);
+    }
+
+    /** Versión actual de la cache; anotarla antes de consultar la base (ver {@link #guardar}). */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Guarda el usuario (lo encuentran tanto por ID como por DNI), salvo que la cache se haya
+     * invalidado después de {@code versionLeida}.
+     */
+    public synchronized void guardar(Usuario usuario, long versionLeida) {
+        if (versionLeida != version) return;
+        guardar(usuario);
+    }
+
+    private void guardar(Usuario usuario) {
+        Entrada<Usuario> e = new Entrada<>(usuario, vencimiento());
+        porId.put(usuario.getId(), e);
+        porDni.put(usuario.getDni(), e);
+    }
+
+    /**
+     * Guarda la lista del rol y, de paso, cada usuario de la lista. Las listas más grandes que
+     * el máximo de usuarios no se guardan (con miles de pacientes, la cache no alcanzaría igual).
+     */
+    public synchronized void guardarRol(Rol rol, List<Usuario> usuarios, long versionLeida) {
+        if (versionLeida != version || usuarios.size() > MAXIMO_USUARIOS) return;
+        porRol.put(rol, new Entrada<>(List.copyOf(usuarios), vencimiento()));
+        for (Usuario u : usuarios) {
+            guardar(u);
+        }
+    }
+
+    /**
+     * Olvida el usuario (por ID y por su DNI) y las listas de roles, que podrían incluirlo.
+     * Se llama al actualizar o eliminar.
+     */
+    public synchronized void invalidar(int id) {
+        version++;
+        porId.remove(id);
+        // Por DNI se busca por valor: la entrada por ID pudo haberse descartado antes que esta
+        porDni.values().removeIf(e -> e.valor().getId() == id);
+        porRol.clear();
+    }
+
+    /** Olvida la lista del rol (por ejemplo, al dar de alta un usuario con ese rol). */
+    public synchronized void invalidarRol(Rol rol) {
+        version++;
+        porRol.remove(rol);
+    }
+
+    /** Olvida todo. */
+    public synchronized void limpiar() {
+        version++;
+        porId.clear();
+        porDni.clear();
+        porRol.clear();
+    }
+
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    /** Porcentaje de búsquedas resueltas sin ir a la base (0 si todavía no hubo ninguna). */
+    public double getTasaAciertos() {
+        long a = aciertos.get();
+        long total = a + fallos.get();
+        return (total == 0) ? 0 : 100.0 * a / total;
+    }
+
+    public synchronized String getEstadisticas() {
+        return String.format("usuarios=%d roles=%d aciertos=%d fallos=%d (%.1f%% aciertos)",
+                porId.size(), porRol.size(), aciertos.get(), fallos.get(), getTasaAciertos());
+    }
+
+    private <K, V> V leer(Map<K, Entrada<V>> mapa, K clave) {
+        Entrada<V> e = mapa.get(clave);
+        if (e != null && e.vigente(System.currentTimeMillis())) {
+            aciertos.incrementAndGet();
+            return e.valor();
+        }
+        if (e != null) {
+            mapa.remove(clave); // vencida
+        }
+        fallos.incrementAndGet();
+        return null;
+    }
+
+    private static long vencimiento() {
+        return System.currentTimeMillis() + VIGENCIA_MS;
+    }
+
+    /** Mapa en orden de uso que descarta el usado hace más tiempo al pasar el máximo. */
+    private static <K, V> Map<K, V> lru() {
+        return new LinkedHashMap<>(64, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > MAXIMO_USUARIOS;
+            }
+        };
+    }
+}
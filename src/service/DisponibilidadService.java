@@ -0,0 +1,210 @@
+package service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import base.Medico;
+import daoImp.FabricaDAO;
+import db.ConnectionLease;
+import db.DBConnection;
+import exceptions.ConnectionException;
+import exceptions.DAOException;
+import exceptions.ServiceException;
+
+/**
+ * Agenda en memoria de los horarios libres de cada médico.
+ *
+ * Los turnos van de 08:00 a 20:00 cada 30 minutos: 24 horarios por día. Cada día de cada
+ * médico se guarda como un int donde el bit i indica si el horario i está ocupado, así
+ * "¿qué horarios libres tiene el médico X el día D?" es leer un número y recorrer sus bits,
+ * sin ir a la base.
+ *
+ * Los días se cargan la primera vez que se consultan, con una sola consulta para todos los
+ * médicos de ese día (o de varios días seguidos). Después los mantiene al día
+ * {@link TurnoService} al reservar. Los turnos que reserve otra instancia de la aplicación se
+ * ven cuando el día se vuelve a leer (cada {@value #VIGENCIA_MS} ms como máximo); igual la base
+ * tiene la última palabra al reservar (índice único).
+ *
+ * Es un Singleton seguro para usar desde varios hilos.
+ */
+public class DisponibilidadService {
+
+    public static final LocalTime PRIMER_HORARIO = LocalTime.of(8, 0);
+    public static final int MINUTOS_POR_TURNO = 30;
+    public static final int HORARIOS_POR_DIA = 24; // 08:00 a 19:30
+
+    // Hasta dónde busca proximosLibres antes de rendirse, y de a cuántos días carga
+    private static final int DIAS_MAXIMOS_BUSQUEDA = 90;
+    private static final int DIAS_POR_CARGA = 7;
+    // Cada cuánto se relee un día ya cargado, para ver reservas hechas desde otras PCs
+    private static final long VIGENCIA_MS = 5 * 60 * 1000;
+
+    /** Un horario libre de un médico. */
+    public record HorarioLibre(Medico medico, LocalDateTime fechaHora) {}
+
+    /** Ocupación de un día: idMedico -> bits de horarios ocupados. */
+    private static final class Dia {
+        final Map<Integer, Integer> ocupados = new ConcurrentHashMap<>();
+        volatile long cargadoEn; // 0 = nunca se leyó de la base (solo tiene lo marcado por TurnoService)
+
+        boolean vigente() {
+            return cargadoEn != 0 && System.currentTimeMillis() - cargadoEn < VIGENCIA_MS;
+        }
+    }
+
+    private static final DisponibilidadService INSTANCIA = new DisponibilidadService();
+
+    // epochDay -> ocupación de ese día
+    private final Map<Long, Dia> dias = new ConcurrentHashMap<>();
+
+    private DisponibilidadService() {}
+
+    public static DisponibilidadService getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Horarios libres del médico en ese día, en orden. Si el día es hoy, no incluye los que ya pasaron.
+     */
+    public List<LocalTime> horariosLibres(int idMedico, LocalDate dia) throws ServiceException {
+        List<LocalTime> libres = new ArrayList<>(HORARIOS_POR_DIA);
+        if (dia.isBefore(LocalDate.now())) return libres;
+
+        int ocupados = ocupacion(idMedico, dia);
+        int primero = primerHorarioFuturo(dia);
+        for (int i = primero; i < HORARIOS_POR_DIA; i++) {
+            if ((ocupados & (1 << i)) == 0) {
+                libres.add(horario(i));
+            }
+        }
+        return libres;
+    }
+
+    public boolean estaLibre(int idMedico, LocalDateTime fechaHora) throws ServiceException {
+        int i = indice(fechaHora);
+        if (i < 0) return false;
+        return (ocupacion(idMedico, fechaHora.toLocalDate()) & (1 << i)) == 0;
+    }
+
+    /**
+     * Los próximos {@code cantidad} horarios libres a partir de {@code desde}, entre todos los
+     * médicos indicados, ordenados por fecha (y por orden de la lista de médicos si coinciden).
+     * Busca hasta {@value #DIAS_MAXIMOS_BUSQUEDA} días hacia adelante.
+     */
+    public List<HorarioLibre> proximosLibres(Collection<? extends Medico> medicos, LocalDateTime desde, int cantidad)
+            throws ServiceException {
+        List<HorarioLibre> resultado = new ArrayList<>(cantidad);
+        if (medicos.isEmpty() || cantidad <= 0) return resultado;
+
+        LocalDate dia = desde.toLocalDate();
+        LocalDate limite = dia.plusDays(DIAS_MAXIMOS_BUSQUEDA);
+        for (; dia.isBefore(limite) && resultado.size() < cantidad; dia = dia.plusDays(1)) {
+            Dia d = dias.get(dia.toEpochDay());
+            if (d == null || !d.vigente()) {
+                d = cargar(dia, dia.plusDays(DIAS_POR_CARGA - 1));
+            }
+            int primero = Math.max(primerHorarioFuturo(dia), primerHorarioDesde(dia, desde));
+            for (int i = primero; i < HORARIOS_POR_DIA && resultado.size() < cantidad; i++) {
+                int bit = 1 << i;
+                for (Medico m : medicos) {
+                    if ((d.ocupados.getOrDefault(m.getId(), 0) & bit) == 0) {
+                        resultado.add(new HorarioLibre(m, LocalDateTime.of(dia, horario(i))));
+                        if (resultado.size() == cantidad) break;
+                    }
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Marca el horario como ocupado. Lo llama {@link TurnoService} después de reservar (o al
+     * enterarse por la base de que el horario ya estaba tomado). Los horarios fuera de agenda se ignoran.
+     */
+    public void marcarOcupado(int idMedico, LocalDateTime fechaHora) {
+        int i = indice(fechaHora);
+        if (i < 0) return;
+        // También se marca en días no cargados: la carga combina con OR, así no se pierde
+        // un turno reservado mientras la consulta de carga estaba en curso.
+        dias.computeIfAbsent(fechaHora.toLocalDate().toEpochDay(), k -> new Dia())
+            .ocupados.merge(idMedico, 1 << i, (a, b) -> a | b);
+    }
+
+    /** Olvida todo lo cargado: la próxima consulta vuelve a leer la base. */
+    public void invalidar() {
+        dias.clear();
+    }
+
+    public void invalidar(LocalDate dia) {
+        dias.remove(dia.toEpochDay());
+    }
+
+    /** Bits de horarios ocupados del médico ese día, cargando el día si hace falta. */
+    private int ocupacion(int idMedico, LocalDate dia) throws ServiceException {
+        Dia d = dias.get(dia.toEpochDay());
+        if (d == null || !d.vigente()) {
+            d = cargar(dia, dia);
+        }
+        return d.ocupados.getOrDefault(idMedico, 0);
+    }
+
+    /**
+     * Lee de la base los horarios ocupados de todos los médicos entre los dos días (inclusive).
+     * Como nunca se liberan horarios, lo leído se combina con OR con lo que ya había.
+     * @return la ocupación del primer día
+     */
+    private Dia cargar(LocalDate desde, LocalDate hasta) throws ServiceException {
+        descartarPasados();
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            FabricaDAO.turnos(lease.getConnection()).recorrerHorariosOcupados(
+                    LocalDateTime.of(desde, LocalTime.MIN), LocalDateTime.of(hasta, LocalTime.MAX),
+                    (fechaHora, idMedico) -> marcarOcupado(idMedico, fechaHora));
+        } catch (DAOException | ConnectionException e) {
+            throw new ServiceException("Error al cargar la disponibilidad de los médicos", e);
+        }
+        long ahora = System.currentTimeMillis();
+        for (LocalDate dia = desde; !dia.isAfter(hasta); dia = dia.plusDays(1)) {
+            dias.computeIfAbsent(dia.toEpochDay(), k -> new Dia()).cargadoEn = ahora;
+        }
+        return dias.computeIfAbsent(desde.toEpochDay(), k -> new Dia());
+    }
+
+    /** Los días ya pasados no se vuelven a consultar: no tiene sentido tenerlos en memoria. */
+    private void descartarPasados() {
+        long hoy = LocalDate.now().toEpochDay();
+        dias.keySet().removeIf(dia -> dia < hoy);
+    }
+
+    /** Posición del horario en el día (0 = 08:00), o -1 si no es un horario de agenda. */
+    private static int indice(LocalDateTime fechaHora) {
+        int minutos = fechaHora.getHour() * 60 + fechaHora.getMinute() - PRIMER_HORARIO.toSecondOfDay() / 60;
+        if (minutos < 0 || minutos % MINUTOS_POR_TURNO != 0 || fechaHora.getSecond() != 0) return -1;
+        int i = minutos / MINUTOS_POR_TURNO;
+        return (i < HORARIOS_POR_DIA) ? i : -1;
+    }
+
+    private static LocalTime horario(int indice) {
+        return PRIMER_HORARIO.plusMinutes((long) indice * MINUTOS_POR_TURNO);
+    }
+
+    /** Primer horario de ese día que todavía no pasó (0 si el día es futuro). */
+    private static int primerHorarioFuturo(LocalDate dia) {
+        return primerHorarioDesde(dia, LocalDateTime.now());
+    }
+
+    /** Primer horario del día que no es anterior a {@code momento}. */
+    private static int primerHorarioDesde(LocalDate dia, LocalDateTime momento) {
+        if (momento.toLocalDate().isBefore(dia)) return 0;
+        if (momento.toLocalDate().isAfter(dia)) return HORARIOS_POR_DIA;
+        int minutos = momento.getHour() * 60 + momento.getMinute() - PRIMER_HORARIO.toSecondOfDay() / 60;
+        if (minutos <= 0) return 0;
+        // Redondeo hacia arriba: a las 10:10 el primer horario posible es 10:30
+        return Math.min(HORARIOS_POR_DIA, (minutos + MINUTOS_POR_TURNO - 1) / MINUTOS_POR_TURNO);
+    }
+}
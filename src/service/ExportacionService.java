@@ -0,0 +1,139 @@
+package service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import base.ObraSocial;
+import base.Turno;
+import dao.TurnoDAO;
+import daoImp.FabricaDAO;
+import daoImp.RecaudacionDAOImpl;
+import db.ConnectionLease;
+import db.DBConnection;
+import exceptions.ConnectionException;
+import exceptions.DAOException;
+import exceptions.DatosInvalidosException;
+import exceptions.ServiceException;
+import utils.EscritorCsv;
+
+/**
+ * Exporta turnos y recaudación a archivos CSV que se abren con Excel (ver {@link EscritorCsv}).
+ *
+ * Las filas van del cursor de la base al archivo de a una, sin armar listas: el DAO recorre
+ * la consulta ({@code recorrer...}) y cada fila se escribe apenas se lee. Exportar diez
+ * millones de turnos usa la misma memoria que exportar cien.
+ */
+public class ExportacionService {
+
+    private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /** Resultado de una exportación: qué se escribió y cuánto tardó. */
+    public record ResultadoExportacion(Path archivo, long filas, long bytes, long milisegundos) {
+        public double filasPorSegundo() {
+            return (milisegundos == 0) ? filas * 1000.0 : filas * 1000.0 / milisegundos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d filas (%.1f MB) en %.1f s - %.0f filas/s",
+                    filas, bytes / (1024.0 * 1024.0), milisegundos / 1000.0, filasPorSegundo());
+        }
+    }
+
+    /** Trabajo de exportación que escribe en un CSV ya abierto. */
+    @FunctionalInterface
+    private interface Volcado {
+        void escribir(EscritorCsv csv) throws IOException, DAOException, ConnectionException;
+    }
+
+    /**
+     * Exporta turnos ordenados por fecha, con médico, paciente y lo cobrado.
+     * @param idMedico   -1 = todos los médicos
+     * @param idPaciente -1 = todos los pacientes (si se indican los dos, se usa el médico)
+     */
+    public ResultadoExportacion exportarTurnos(Path destino, int idMedico, int idPaciente) throws ServiceException {
+        return exportar(destino, csv -> {
+            csv.encabezado("ID", "Fecha y Hora", "Médico", "DNI Médico", "Paciente", "DNI Paciente",
+                    "Obra Social", "Sobreturno", "Costo");
+            try (ConnectionLease lease = DBConnection.borrowLectura()) {
+                TurnoDAO dao = FabricaDAO.turnos(lease.getConnection());
+                if (idMedico != -1) {
+                    dao.recorrerPorMedico(idMedico, t -> escribirTurno(csv, t));
+                } else if (idPaciente != -1) {
+                    dao.recorrerPorPaciente(idPaciente, t -> escribirTurno(csv, t));
+                } else {
+                    dao.recorrerTodos(t -> escribirTurno(csv, t));
+                }
+            }
+        });
+    }
+
+    /**
+     * Exporta la recaudación del período con el detalle del resumen diario: una fila por
+     * médico, día y obra social. Ambas fechas inclusive.
+     * @param idMedico -1 = todos los médicos
+     */
+    public ResultadoExportacion exportarRecaudacion(Path destino, LocalDate desde, LocalDate hasta, int idMedico)
+            throws ServiceException, DatosInvalidosException {
+        if (desde == null || hasta == null || desde.isAfter(hasta)) {
+            throw new DatosInvalidosException("Seleccione un rango de fechas válido para exportar.");
+        }
+        return exportar(destino, csv -> {
+            csv.encabezado("Día", "Médico", "Obra Social", "Turnos", "Total Recaudado");
+            try (ConnectionLease lease = DBConnection.borrowLectura()) {
+                new RecaudacionDAOImpl(lease.getConnection()).recorrerResumen(desde, hasta, idMedico, f -> {
+                    try {
+                        csv.campo(f.dia().format(FORMATO_DIA))
+                           .campo(f.apellido() + ", " + f.nombre())
+                           .campo(f.obraSocial().name())
+                           .campo(f.cantidad())
+                           .campo(f.total())
+                           .finFila();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        });
+    }
+
+    /** Abre el archivo, corre el volcado, lo cierra y mide. Los errores de escritura salen como ServiceException. */
+    private ResultadoExportacion exportar(Path destino, Volcado volcado) throws ServiceException {
+        long inicio = System.nanoTime();
+        try {
+            EscritorCsv csv = new EscritorCsv(destino);
+            try (csv) {
+                volcado.escribir(csv);
+            }
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+            return new ResultadoExportacion(destino, csv.getFilas(), csv.getBytes(), ms);
+        } catch (IOException | UncheckedIOException e) {
+            throw new ServiceException("No se pudo escribir el archivo " + destino + ": " + e.getMessage(), e);
+        } catch (DAOException | ConnectionException e) {
+            throw new ServiceException("Error al leer los datos a exportar", e);
+        }
+    }
+
+    private static void escribirTurno(EscritorCsv csv, Turno t) {
+        ObraSocial os = t.getPaciente().getObraSocial();
+        try {
+            csv.campo(t.getId())
+               .campo(t.getFechaHora().format(FORMATO_FECHA_HORA))
+               .campo(t.getMedico().getApellido() + ", " + t.getMedico().getNombre())
+               .campo(t.getMedico().getDni())
+               .campo(t.getPaciente().getApellido() + ", " + t.getPaciente().getNombre())
+               .campo(t.getPaciente().getDni())
+               .campo((os != null) ? os.name() : null)
+               .campo(t.isSobreturno() ? "Sí" : "No")
+               .campo(t.getCosto())
+               .finFila();
+        } catch (IOException e) {
+            // El visitante del DAO no puede lanzar IOException: viaja sin chequear y exportar() la recupera
+            throw new UncheckedIOException(e);
+        }
+    }
+}
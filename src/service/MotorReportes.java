@@ -0,0 +1,126 @@
+package service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import daoImp.RecaudacionDAOImpl;
+import db.ConnectionLease;
+import db.DBConnection;
+import db.ModoAlmacenamiento;
+import exceptions.ConnectionException;
+import exceptions.DAOException;
+import exceptions.ServiceException;
+
+/**
+ * Calcula los reportes de recaudación de períodos largos en paralelo.
+ *
+ * Parte el rango de fechas en tramos de al menos {@value #DIAS_MINIMOS_POR_TRAMO} días y
+ * los reparte entre un grupo fijo de hilos. Cada tramo pide su propia conexión de lectura,
+ * recorre su parte del resumen diario con su propio {@link AgregadorRecaudacion}, y al final
+ * se combinan los parciales. Un reporte de varios años para todos los médicos usa tantos
+ * núcleos como conexiones de lectura haya; un rango corto se calcula directo, sin hilos.
+ *
+ * Es un Singleton seguro para usar desde varios hilos. Los hilos son daemon: no impiden
+ * que la aplicación termine.
+ */
+public class MotorReportes {
+
+    // Menos días por tramo no compensa lo que cuesta pedir otra conexión y coordinar hilos
+    private static final int DIAS_MINIMOS_POR_TRAMO = 90;
+    // Tramos por hilo: si uno tarda más (más turnos en esas fechas), los demás hilos toman el resto
+    private static final int TRAMOS_POR_HILO = 2;
+
+    private static final MotorReportes INSTANCIA = new MotorReportes();
+
+    private final int hilos;
+    private final ExecutorService ejecutor;
+
+    private MotorReportes() {
+        // Sin más hilos que conexiones de lectura (sobrarían esperando el pool) ni que núcleos.
+        // En modo CLASICO el pool también lo usan las reservas: dejamos una conexión libre para ellas.
+        int conexiones = DBConnection.getPoolLectura().getMaxSize();
+        if (DBConnection.getModo() != ModoAlmacenamiento.WAL) conexiones--;
+        this.hilos = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), conexiones));
+
+        AtomicInteger numero = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "reportes-" + numero.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static MotorReportes getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Reporte de recaudación entre las dos fechas (inclusive) con todos sus cortes.
+     * @param idMedico -1 = todos los médicos
+     */
+    public AgregadorRecaudacion generar(LocalDate desde, LocalDate hasta, int idMedico) throws ServiceException {
+        List<LocalDate[]> tramos = partir(desde, hasta);
+        if (tramos.size() == 1) {
+            return calcularTramo(desde, hasta, idMedico);
+        }
+
+        List<Future<AgregadorRecaudacion>> parciales = new ArrayList<>(tramos.size());
+        for (LocalDate[] tramo : tramos) {
+            parciales.add(ejecutor.submit(() -> calcularTramo(tramo[0], tramo[1], idMedico)));
+        }
+
+        AgregadorRecaudacion total = new AgregadorRecaudacion();
+        try {
+            for (Future<AgregadorRecaudacion> parcial : parciales) {
+                total.combinar(parcial.get());
+            }
+            return total;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ServiceException se) throw se;
+            throw new ServiceException("Error al generar el reporte", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Se interrumpió el reporte", e);
+        } finally {
+            // Si un tramo falló, los que no empezaron ya no hacen falta
+            for (Future<AgregadorRecaudacion> parcial : parciales) {
+                parcial.cancel(false);
+            }
+        }
+    }
+
+    public int getHilos() {
+        return hilos;
+    }
+
+    /** Divide el rango en tramos consecutivos de días completos (el último puede ser más corto). */
+    private List<LocalDate[]> partir(LocalDate desde, LocalDate hasta) {
+        long dias = ChronoUnit.DAYS.between(desde, hasta) + 1;
+        long cantidad = Math.min((long) hilos * TRAMOS_POR_HILO, Math.max(1, dias / DIAS_MINIMOS_POR_TRAMO));
+        long diasPorTramo = (dias + cantidad - 1) / cantidad;
+
+        List<LocalDate[]> tramos = new ArrayList<>();
+        for (LocalDate inicio = desde; !inicio.isAfter(hasta); inicio = inicio.plusDays(diasPorTramo)) {
+            LocalDate fin = inicio.plusDays(diasPorTramo - 1);
+            tramos.add(new LocalDate[] { inicio, fin.isAfter(hasta) ? hasta : fin });
+        }
+        return tramos;
+    }
+
+    private AgregadorRecaudacion calcularTramo(LocalDate desde, LocalDate hasta, int idMedico) throws ServiceException {
+        AgregadorRecaudacion agregador = new AgregadorRecaudacion();
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            new RecaudacionDAOImpl(lease.getConnection()).recorrerResumen(desde, hasta, idMedico, agregador);
+        } catch (DAOException | ConnectionException e) {
+            throw new ServiceException("Error al consultar la base de datos para el reporte", e);
+        }
+        return agregador;
+    }
+}
@@ -1,117 +1,124 @@
 package service;
 
-import java.sql.Connection;
-import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
-import dao.TurnoDAO;
-import daoImp.TurnoDAOImpl;
+import dao.FilaReporte;
+import daoImp.RecaudacionDAOImpl;
+import db.ConnectionLease;
 import db.DBConnection;
+import exceptions.ConnectionException;
 import exceptions.DAOException;
 import exceptions.DatosInvalidosException;
 import exceptions.ServiceException;
+import utils.EventoReporte;
+import utils.MetricaOperacion;
+import utils.RegistroMetricas;
 
 /**
  * Servicio encargado de la lógica de negocio relacionada con los Reportes.
- * * Se conecta con el TurnoDAO ya que la información de facturación (recaudación)
- * surge de los turnos registrados en el sistema.
+ * * La información de facturación (recaudación) surge de los turnos registrados en el
+ * sistema; los reportes la leen del resumen diario que se mantiene al reservar (RecaudacionDAO).
  */
 public class ReporteService {
-    
-    private final TurnoDAO turnoDao;
-    private final Connection conn;
 
+    private static final MetricaOperacion M_RESUMEN =
+            RegistroMetricas.getInstancia().metrica("ReporteService.generarResumenRecaudacion");
+    
     /**
      * Constructor del servicio.
-     * Inicializa la conexión y el DAO necesario para obtener los datos.
-     * * @throws ServiceException Si ocurre un error al obtener la conexión a la base de datos.
+     * Ya no abre nada: cada reporte pide prestada una conexión de lectura mientras dura la consulta.
+     * * @throws ServiceException Se mantiene por compatibilidad con quienes crean el servicio.
      */
     public ReporteService() throws ServiceException {
-        try {
-            // Obtenemos la conexión única del sistema (Singleton)
-            this.conn = DBConnection.getConnection();
-            
-            // Instanciamos el DAO de Turnos pasándole la conexión.
-            // Usamos TurnoDAO porque los reportes se basan en contar/sumar turnos.
-            this.turnoDao = new TurnoDAOImpl(this.conn);
-            
-        } catch (SQLException e) {
-            // Encapsulamos cualquier error de infraestructura en una excepción de servicio
-            throw new ServiceException("No se pudo iniciar el servicio de reportes", e);
-        }
     }
 
     /**
      * Genera el reporte de recaudación por médico o general.
-     * * Este método valida las fechas ingresadas y decide qué consulta ejecutar en el DAO
+     * * Este método valida las fechas ingresadas y arma el reporte con {@link MotorReportes}
      * (si es para un médico específico o para todos).
      * * @param fechaDesde Fecha de inicio del rango de búsqueda.
      * @param fechaHasta Fecha de fin del rango de búsqueda.
      * @param idMedico   ID del médico a consultar. Si es -1, se asume que se pide el reporte de TODOS.
-     * @return Una lista de arreglos de objetos (Object[]) donde cada fila representa:
-     * [0] = Nombre del Médico (String)
-     * [1] = Apellido del Médico (String)
-     * [2] = Cantidad de Turnos (Integer)
-     * [3] = Total Recaudado (Double)
+     * @return Una fila por médico con turnos en el período, de mayor a menor recaudación
+     * (vacía si no hay datos).
      * @throws ServiceException Si hay un error en la base de datos.
      * @throws DatosInvalidosException Si las fechas son nulas o el rango es inválido.
      */
-    public List<Object[]> generarReporteRecaudacion(LocalDate fechaDesde, LocalDate fechaHasta, int idMedico) 
+    public List<FilaReporte> generarReporteRecaudacion(LocalDate fechaDesde, LocalDate fechaHasta, int idMedico) 
+            throws ServiceException, DatosInvalidosException {
+        return generarResumenRecaudacion(fechaDesde, fechaHasta, idMedico).getPorMedico();
+    }
+
+    /**
+     * Reporte de recaudación con cortes por médico, por obra social y por día (ver {@link AgregadorRecaudacion}).
+     * Lee el resumen diario (unas filas por médico y día en lugar de todos los turnos); los
+     * períodos largos se reparten en tramos que se calculan en paralelo ({@link MotorReportes}).
+     * Las fechas van como días completos, ambas inclusive. Los reportes ya calculados se
+     * reutilizan mientras no haya reservas nuevas en el período ({@link CacheReportes}); el
+     * resultado es compartido y no se debe modificar.
+     * @param idMedico -1 = todos los médicos
+     * @throws DatosInvalidosException si las fechas son nulas o el rango es inválido
+     */
+    public AgregadorRecaudacion generarResumenRecaudacion(LocalDate fechaDesde, LocalDate fechaHasta, int idMedico)
             throws ServiceException, DatosInvalidosException {
-        
         // --- VALIDACIONES DE NEGOCIO ---
-        
+        validarFechas(fechaDesde, fechaHasta);
+
+        // La métrica incluye los aciertos de cache: es lo que espera quien pide el reporte
+        long inicio = M_RESUMEN.iniciar();
+        EventoReporte evento = EventoReporte.iniciar();
+        AgregadorRecaudacion reporte = null;
+        boolean desdeCache = false;
+        try {
+            // El mismo reporte pedido otra vez (sin reservas nuevas en ese período) sale de la cache
+            CacheReportes cache = CacheReportes.getInstancia();
+            reporte = cache.get(fechaDesde, fechaHasta, idMedico);
+            if (reporte != null) {
+                desdeCache = true;
+                return reporte;
+            }
+
+            long version = cache.getVersion();
+            reporte = MotorReportes.getInstancia().generar(fechaDesde, fechaHasta, idMedico);
+            cache.guardar(fechaDesde, fechaHasta, idMedico, reporte, version);
+            return reporte;
+        } catch (ServiceException e) {
+            M_RESUMEN.fallo();
+            throw e;
+        } finally {
+            M_RESUMEN.terminar(inicio);
+            evento.terminar(fechaDesde, fechaHasta, idMedico,
+                    (reporte != null) ? reporte.getFilasLeidas() : -1, desdeCache);
+        }
+    }
+
+    /**
+     * Vuelve a calcular el resumen de recaudación desde la tabla de turnos.
+     * Sirve para bases con turnos cargados por fuera de la aplicación (el resumen se arma con
+     * el costo registrado en cada turno).
+     * @return cantidad de filas (médico, día) del resumen
+     */
+    public int reconstruirResumenRecaudacion() throws ServiceException {
+        try (ConnectionLease lease = DBConnection.borrow()) {
+            int filas = new RecaudacionDAOImpl(lease.getConnection()).reconstruir();
+            lease.commit();
+            CacheReportes.getInstancia().limpiar();
+            return filas;
+        } catch (DAOException | ConnectionException e) {
+            throw new ServiceException("Error al reconstruir el resumen de recaudación", e);
+        }
+    }
+
+    private static void validarFechas(LocalDate fechaDesde, LocalDate fechaHasta) throws DatosInvalidosException {
         // Validamos que las fechas no sean nulas (obligatorio)
         if (fechaDesde == null || fechaHasta == null) {
             throw new DatosInvalidosException("Debe seleccionar las fechas 'Desde' y 'Hasta' para generar el reporte.");
         }
-        
+
         // Validamos coherencia temporal: el inicio no puede ser posterior al fin
         if (fechaDesde.isAfter(fechaHasta)) {
             throw new DatosInvalidosException("La fecha de inicio no puede ser mayor a la fecha de fin.");
         }
-
-        // --- PREPARACIÓN DE DATOS ---
-        
-        // Convertimos LocalDate (solo fecha) a LocalDateTime (fecha y hora) para cubrir el día completo.
-        // Desde: 00:00:00 del día seleccionado
-        LocalDateTime desde = LocalDateTime.of(fechaDesde, LocalTime.MIN);
-        // Hasta: 23:59:59 del día seleccionado
-        LocalDateTime hasta = LocalDateTime.of(fechaHasta, LocalTime.MAX);
-
-        try {
-            // --- EJECUCIÓN DE CONSULTA SEGÚN CRITERIO ---
-            
-            if (idMedico == -1) {
-                // CASO A: Reporte General (Opción "Todos los médicos")
-                // Llamamos al método del DAO que agrupa y lista a todos
-                return turnoDao.obtenerReporteGeneral(desde, hasta);
-                
-            } else {
-                // CASO B: Reporte Individual (Un médico específico)
-                // Llamamos al método del DAO que filtra por ID
-                Object[] resultado = turnoDao.obtenerReporteMedico(idMedico, desde, hasta);
-                
-                // El DAO devuelve un único array (una fila) o null si no hay datos.
-                // Para mantener consistencia con el retorno (List), lo envolvemos en una lista.
-                if (resultado != null) {
-                    List<Object[]> lista = new ArrayList<>();
-                    lista.add(resultado);
-                    return lista;
-                } else {
-                    // Si no hay datos, devolvemos una lista vacía en lugar de null (buena práctica)
-                    return Collections.emptyList();
-                }
-            }
-            
-        } catch (DAOException e) {
-            // Re-lanzamos como excepción de servicio para que la UI muestre un mensaje amigable
-            throw new ServiceException("Error al consultar la base de datos para el reporte", e);
-        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package service;
+
+import base.Turno;
+
+/**
+ * Resultado de reservar un turno dentro de un lote ({@link TurnoService#registrarTurnos}).
+ *
+ * @param turno  el turno pedido
+ * @param estado si quedó reservado o no
+ * @param motivo por qué no se pudo reservar (null si se reservó)
+ */
+public record ResultadoReserva(Turno turno, Estado estado, String motivo) {
+
+    public enum Estado {
+        RESERVADO,
+        CONFLICTO
+    }
+
+    static ResultadoReserva reservado(Turno turno) {
+        return new ResultadoReserva(turno, Estado.RESERVADO, null);
+    }
+
+    static ResultadoReserva conflicto(Turno turno, String motivo) {
+        return new ResultadoReserva(turno, Estado.CONFLICTO, motivo);
+    }
+
+    public boolean isReservado() {
+        return estado == Estado.RESERVADO;
+    }
+}
@@ -1,109 +1,263 @@
 package service;
 
-import java.sql.Connection;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import base.Turno;
+import dao.ClaveTurno;
+import dao.Pagina;
 import dao.TurnoDAO;
-import daoImp.TurnoDAOImpl;
+import daoImp.FabricaDAO;
+import daoImp.RecaudacionDAOImpl;
+import db.ConnectionLease;
 import db.DBConnection;
+import exceptions.ConnectionException;
 import exceptions.DAOException;
-import exceptions.DatosInvalidosException;
 import exceptions.ServiceException;
 import exceptions.TurnoNoDisponibleException;
+import utils.EventoReserva;
+import utils.MetricaOperacion;
+import utils.RegistroMetricas;
 
 public class TurnoService {
-    private final TurnoDAO turnoDao;
-    private final Connection conn; // Necesitamos la conexión para hacer commit
 
+    // Punta a punta (conexión, DAO, resumen y commit); los conflictos de horario no cuentan como error
+    private static final MetricaOperacion M_REGISTRAR = RegistroMetricas.getInstancia().metrica("TurnoService.registrarTurno");
+    private static final MetricaOperacion M_REGISTRAR_LOTE = RegistroMetricas.getInstancia().metrica("TurnoService.registrarTurnos");
+
+    // Ya no guardamos una conexión: cada operación pide prestada una al pool y la devuelve al terminar.
+    // Las escrituras usan DBConnection.borrow() y los listados/reportes DBConnection.borrowLectura().
     public TurnoService() throws DAOException {
-        this.turnoDao = new TurnoDAOImpl();
-        try {
-            // Obtenemos la MISMA conexión que usa el DAO (es un singleton)
-            this.conn = DBConnection.getConnection();
-        } catch (SQLException e) {
-            throw new DAOException("Error al obtener conexión en Service", e);
-        }
     }
 
     public void registrarTurno(Turno turno) throws ServiceException, TurnoNoDisponibleException {
-        try {
-            // Validar Disponibilidad (Regla de Negocio)
-            if (turnoDao.existeTurnoMedico(turno.getMedico().getId(), turno.getFechaHora())) {
-                throw new TurnoNoDisponibleException("El médico ya tiene un turno asignado en esa fecha y hora.");
-            }
+        long inicio = M_REGISTRAR.iniciar();
+        EventoReserva evento = EventoReserva.iniciar();
+        String resultado = EventoReserva.ERROR;
+        // El lease hace rollback solo si salimos sin commit (por ejemplo, si el médico está ocupado)
+        try (ConnectionLease lease = DBConnection.borrow()) {
+            TurnoDAO turnoDao = FabricaDAO.turnos(lease.getConnection());
 
-            // Guardar (El DAO hace el INSERT)
+            // Guardar (El DAO hace el INSERT). La regla de negocio "un turno por médico y horario"
+            // la hace cumplir el índice único de la base: si el horario ya está tomado, el DAO
+            // lanza TurnoNoDisponibleException. No hay consulta previa, así no hay carrera entre puestos.
             turnoDao.guardar(turno);
-            
+            // El resumen de recaudación se actualiza en la misma transacción: si algo falla, no cuenta el turno
+            new RecaudacionDAOImpl(lease.getConnection()).sumarTurnos(List.of(turno));
+
             // Confirmar cambios en la base de datos
-            conn.commit();
-            
-        } catch (Exception e) {
-            // Si algo falla, deshacemos cualquier cambio pendiente
-            try {
-                if (conn != null) conn.rollback();
-            } catch (SQLException ex) {
-                ex.printStackTrace();
+            lease.commit();
+            resultado = EventoReserva.RESERVADO;
+            marcarOcupado(turno);
+            // Los reportes ya calculados que incluyen ese día y médico quedaron desactualizados
+            CacheReportes.getInstancia().invalidar(List.of(turno));
+
+        } catch (TurnoNoDisponibleException e) {
+            resultado = EventoReserva.OCUPADO;
+            // La agenda en memoria no lo sabía (lo reservó otra instancia): la corregimos
+            marcarOcupado(turno);
+            throw e;
+        } catch (DAOException | ConnectionException e) {
+            M_REGISTRAR.fallo();
+            throw new ServiceException("Error al registrar turno: " + e.getMessage(), e);
+        } finally {
+            M_REGISTRAR.terminar(inicio);
+            evento.terminar(turno.getMedico().getId(), turno.getFechaHora(), turno.isSobreturno(), resultado, 1);
+        }
+    }
+
+    /**
+     * Reserva varios turnos de una vez (por ejemplo, una serie semanal o la agenda importada de otro sistema).
+     * Todo va en una sola transacción: una consulta para ver qué horarios ya están tomados y un
+     * batch de INSERT para el resto. Un horario ocupado no cancela el lote: ese turno vuelve como
+     * CONFLICTO con el motivo y los demás se reservan igual.
+     * @return un resultado por turno, en el mismo orden que la lista recibida
+     */
+    public List<ResultadoReserva> registrarTurnos(List<Turno> turnos) throws ServiceException {
+        long inicio = M_REGISTRAR_LOTE.iniciar();
+        // Un evento por turno del lote, todos con la duración del lote (solo si Flight Recorder los graba)
+        EventoReserva[] eventos = EventoReserva.isHabilitado() ? new EventoReserva[turnos.size()] : null;
+        if (eventos != null) {
+            for (int i = 0; i < eventos.length; i++) eventos[i] = EventoReserva.iniciar();
+        }
+        ResultadoReserva[] resultados = new ResultadoReserva[turnos.size()];
+
+        // Dos turnos normales del lote para el mismo médico y horario: se queda el primero
+        Set<String> vistos = new HashSet<>();
+        for (int i = 0; i < turnos.size(); i++) {
+            Turno t = turnos.get(i);
+            if (!t.isSobreturno() && !vistos.add(t.getMedico().getId() + "|" + t.getFechaHora())) {
+                resultados[i] = ResultadoReserva.conflicto(t, "Horario repetido dentro del mismo lote.");
             }
+        }
+
+        List<Turno> reservados = new ArrayList<>();
+        boolean confirmado = false;
+        try (ConnectionLease lease = DBConnection.borrow()) {
+            TurnoDAO turnoDao = FabricaDAO.turnos(lease.getConnection());
 
-            if (e instanceof TurnoNoDisponibleException) {
-                throw (TurnoNoDisponibleException) e; //si el medico está ocupado
+            boolean[] ocupados = turnoDao.existenTurnosMedico(turnos);
+            List<Turno> aGuardar = new ArrayList<>();
+            List<Integer> posiciones = new ArrayList<>();
+            for (int i = 0; i < turnos.size(); i++) {
+                if (resultados[i] != null) continue;
+                if (ocupados[i]) {
+                    resultados[i] = ResultadoReserva.conflicto(turnos.get(i), "El médico ya tiene un turno asignado en esa fecha y hora.");
+                } else {
+                    aGuardar.add(turnos.get(i));
+                    posiciones.add(i);
+                }
             }
-            throw new ServiceException("Error al registrar turno: " + e.getMessage(), e);
+
+            if (!aGuardar.isEmpty()) {
+                int[] insertados = turnoDao.guardarLote(aGuardar);
+                for (int j = 0; j < insertados.length; j++) {
+                    int i = posiciones.get(j);
+                    if (insertados[j] > 0) reservados.add(turnos.get(i));
+                    // 0 filas: otro puesto tomó el horario entre la consulta y el INSERT (lo frenó el índice único)
+                    resultados[i] = (insertados[j] > 0)
+                            ? ResultadoReserva.reservado(turnos.get(i))
+                            : ResultadoReserva.conflicto(turnos.get(i), "El horario fue tomado por otro puesto mientras se reservaba.");
+                }
+                new RecaudacionDAOImpl(lease.getConnection()).sumarTurnos(reservados);
+            }
+
+            lease.commit();
+            confirmado = true;
+        } catch (DAOException | ConnectionException e) {
+            M_REGISTRAR_LOTE.fallo();
+            throw new ServiceException("Error al registrar turnos: " + e.getMessage(), e);
+        } finally {
+            M_REGISTRAR_LOTE.terminar(inicio);
+            if (eventos != null) terminarEventos(eventos, turnos, confirmado ? resultados : null);
+        }
+        // Reservados o en conflicto, después del commit todos esos horarios están ocupados
+        for (Turno t : turnos) {
+            marcarOcupado(t);
+        }
+        CacheReportes.getInstancia().invalidar(reservados);
+        return Arrays.asList(resultados);
+    }
+
+    /** Graba los eventos de un lote; sin resultados (el lote no llegó al commit) todos cuentan como ERROR. */
+    private void terminarEventos(EventoReserva[] eventos, List<Turno> turnos, ResultadoReserva[] resultados) {
+        for (int i = 0; i < eventos.length; i++) {
+            Turno t = turnos.get(i);
+            String resultado = (resultados == null) ? EventoReserva.ERROR
+                    : resultados[i].isReservado() ? EventoReserva.RESERVADO : EventoReserva.OCUPADO;
+            eventos[i].terminar(t.getMedico().getId(), t.getFechaHora(), t.isSobreturno(), resultado, eventos.length);
+        }
+    }
+
+    /** Avisa a la agenda en memoria que el horario del turno quedó tomado (los sobreturnos no ocupan horario). */
+    private void marcarOcupado(Turno turno) {
+        if (!turno.isSobreturno()) {
+            DisponibilidadService.getInstancia().marcarOcupado(turno.getMedico().getId(), turno.getFechaHora());
         }
     }
 
     public List<Turno> listarTurnos() throws ServiceException {
-        try {
-            return turnoDao.listarTodos();
-        } catch (DAOException e) {
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            return FabricaDAO.turnos(lease.getConnection()).listarTodos();
+        } catch (DAOException | ConnectionException e) {
             throw new ServiceException("Error al listar turnos", e);
         }
     }
-    
+
     public List<Turno> listarTurnosPorPaciente(int idPaciente) throws ServiceException {
-        try {
-            return turnoDao.listarPorPaciente(idPaciente);
-        } catch (DAOException e) {
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            return FabricaDAO.turnos(lease.getConnection()).listarPorPaciente(idPaciente);
+        } catch (DAOException | ConnectionException e) {
             throw new ServiceException("Error al listar turnos del paciente", e);
         }
     }
-    
+
     public List<Turno> listarTurnosPorMedico(int idMedico) throws ServiceException {
-        try {
-            return turnoDao.listarPorMedico(idMedico);
-        } catch (DAOException e) {
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            return FabricaDAO.turnos(lease.getConnection()).listarPorMedico(idMedico);
+        } catch (DAOException | ConnectionException e) {
             throw new ServiceException("Error al obtener turnos del médico", e);
         }
     }
-    
-    public List<Object[]> generarReporte(LocalDate fechaDesde, LocalDate fechaHasta, int idMedico) 
-            throws ServiceException, DatosInvalidosException {
-        
-        // Validaciones
-        if (fechaDesde == null || fechaHasta == null) throw new DatosInvalidosException("Seleccione ambas fechas.");
-        if (fechaDesde.isAfter(fechaHasta)) throw new DatosInvalidosException("Fecha desde mayor a fecha hasta.");
-
-        LocalDateTime desde = LocalDateTime.of(fechaDesde, LocalTime.MIN);
-        LocalDateTime hasta = LocalDateTime.of(fechaHasta, LocalTime.MAX);
-
-        try {
-            if (idMedico == -1) {
-                return turnoDao.obtenerReporteGeneral(desde, hasta);
-            } else {
-                Object[] res = turnoDao.obtenerReporteMedico(idMedico, desde, hasta);
-                List<Object[]> list = new ArrayList<>();
-                if (res != null) list.add(res);
-                return list;
-            }
-        } catch (DAOException e) {
-            throw new ServiceException("Error generando reporte", e);
+
+    /**
+     * Página de turnos ordenada por fecha, para pantallas que muestran el historial de a partes.
+     * @param idMedico   -1 = todos los médicos
+     * @param idPaciente -1 = todos los pacientes
+     * @param fechaDesde null = sin límite inferior
+     * @param fechaHasta null = sin límite superior (incluye todo ese día)
+     * @param despuesDe  clave del último turno ya mostrado; null = primera página
+     */
+    public Pagina<Turno> listarPaginaTurnos(int idMedico, int idPaciente, LocalDate fechaDesde, LocalDate fechaHasta,
+                                            ClaveTurno despuesDe, int tamanio) throws ServiceException {
+        LocalDateTime desde = (fechaDesde != null) ? LocalDateTime.of(fechaDesde, LocalTime.MIN) : null;
+        LocalDateTime hasta = (fechaHasta != null) ? LocalDateTime.of(fechaHasta, LocalTime.MAX) : null;
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            return FabricaDAO.turnos(lease.getConnection())
+                    .listarPagina(idMedico, idPaciente, desde, hasta, despuesDe, tamanio);
+        } catch (DAOException | ConnectionException e) {
+            throw new ServiceException("Error al listar turnos", e);
+        }
+    }
+
+    /**
+     * Cantidad de turnos de {@link #listarPaginaTurnos} sin filtro de fechas (ver {@link TurnoDAO#contarTurnos}).
+     * @param idMedico   -1 = todos los médicos
+     * @param idPaciente -1 = todos los pacientes
+     */
+    public int contarTurnos(int idMedico, int idPaciente) throws ServiceException {
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            return FabricaDAO.turnos(lease.getConnection()).contarTurnos(idMedico, idPaciente);
+        } catch (DAOException | ConnectionException e) {
+            throw new ServiceException("Error al contar turnos", e);
+        }
+    }
+
+    /**
+     * Clave a {@code saltar} lugares de {@code desde} en {@link #listarPaginaTurnos} (sin filtro de
+     * fechas), para pedir una página lejana sin traer las intermedias (ver {@link TurnoDAO#buscarClave}).
+     * @return null si el listado no llega tan lejos
+     */
+    public ClaveTurno buscarClaveTurno(int idMedico, int idPaciente, ClaveTurno desde, int saltar) throws ServiceException {
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            return FabricaDAO.turnos(lease.getConnection()).buscarClave(idMedico, idPaciente, desde, saltar);
+        } catch (DAOException | ConnectionException e) {
+            throw new ServiceException("Error al buscar turnos", e);
+        }
+    }
+
+    /**
+     * Recorre todos los turnos sin cargarlos en memoria (ver {@link TurnoDAO#recorrerTodos}).
+     * La conexión de lectura queda tomada hasta que termina el recorrido.
+     */
+    public void recorrerTurnos(Consumer<? super Turno> visitante) throws ServiceException {
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            FabricaDAO.turnos(lease.getConnection()).recorrerTodos(visitante);
+        } catch (DAOException | ConnectionException e) {
+            throw new ServiceException("Error al recorrer turnos", e);
+        }
+    }
+
+    public void recorrerTurnosPorPaciente(int idPaciente, Consumer<? super Turno> visitante) throws ServiceException {
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            FabricaDAO.turnos(lease.getConnection()).recorrerPorPaciente(idPaciente, visitante);
+        } catch (DAOException | ConnectionException e) {
+            throw new ServiceException("Error al recorrer turnos del paciente", e);
+        }
+    }
+
+    public void recorrerTurnosPorMedico(int idMedico, Consumer<? super Turno> visitante) throws ServiceException {
+        try (ConnectionLease lease = DBConnection.borrowLectura()) {
+            FabricaDAO.turnos(lease.getConnection()).recorrerPorMedico(idMedico, visitante);
+        } catch (DAOException | ConnectionException e) {
+            throw new ServiceException("Error al recorrer turnos del médico", e);
         }
     }
-}
\ No newline at end of file
+}
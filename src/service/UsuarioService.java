@@ -1,73 +1,72 @@
 package service;
 
+import dao.Pagina;
 import dao.UsuarioDAO;
-import daoImp.UsuarioDAOImpl;
-import db.DBUtils;
+import daoImp.FabricaDAO;
+import db.ConnectionLease;
 import db.DBConnection;
 import exceptions.ConnectionException;
 import exceptions.DAOException;
 import exceptions.DatosInvalidosException;
+import utils.MetricaOperacion;
+import utils.RegistroMetricas;
 import utils.ValidationUtils;
 import base.Medico;
 import base.Paciente;
 import base.Rol;
 import base.Usuario;
 
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Servicio para la gestión de usuarios (médicos y pacientes). Incluye
- * validaciones y manejo de transacciones.
+ * validaciones y manejo de transacciones. Las búsquedas por ID, por DNI y las listas
+ * por rol pasan por {@link CacheUsuarios}.
  */
 public class UsuarioService {
-	private final UsuarioDAO usuarioDao;
-	private final Connection conn;
+
+	private static final MetricaOperacion M_BUSCAR_POR_DNI =
+			RegistroMetricas.getInstancia().metrica("UsuarioService.buscarPorDni");
+	private static final MetricaOperacion M_BUSCAR =
+			RegistroMetricas.getInstancia().metrica("UsuarioService.buscarUsuarios");
+
+	private final CacheUsuarios cache = CacheUsuarios.getInstancia();
 
 	/**
-	 * Constructor que inicializa el DAO y obtiene la conexión única.
+	 * Constructor. Ya no toma una conexión fija: cada operación pide prestada una
+	 * al pool y la devuelve al terminar.
 	 * 
-	 * @throws DAOException si ocurre un error al inicializar DAO
-	 * @throws SQLException si falla la conexión
+	 * @throws DAOException se mantiene por compatibilidad con quienes crean el servicio
+	 * @throws SQLException se mantiene por compatibilidad con quienes crean el servicio
 	 */
 	public UsuarioService() throws DAOException, SQLException {
-		this.usuarioDao = new UsuarioDAOImpl();
-		this.conn = DBConnection.getConnection();
 	}
 
 	/**
 	 * Crea un nuevo usuario tras validar campos.
 	 * 
-	 * @throws DAOException si ocurre un error al inicializar DAO
-	 * @throws SQLException si falla la conexión
+	 * @throws DAOException si ocurre un error en la base de datos
+	 * @throws ConnectionException si no se pudo obtener o confirmar la conexión
 	 */
 	public void crearUsuario(Usuario usuario) throws DAOException, DatosInvalidosException, ConnectionException {
 		// Validar campos obligatorios
 		ValidationUtils.validarNoVacio(usuario.getDni(), usuario.getNombre(), usuario.getApellido());
 		ValidationUtils.validarDni(usuario.getDni());
-		// Si el buscarPorDni devuelve algo distinto de null, significa que ya está ocupado.
-	    if (usuarioDao.buscarPorDni(usuario.getDni()) != null) {
-	        throw new DatosInvalidosException("El usuario con DNI " + usuario.getDni() + " ya se encuentra registrado.");
-	    }
 
-		try {
+		// Si sale sin commit (DNI repetido o error), el lease hace rollback al cerrarse
+		try (ConnectionLease lease = DBConnection.borrow()) {
+			UsuarioDAO usuarioDao = FabricaDAO.usuarios(lease.getConnection());
+			// Sin consulta previa: si el DNI ya está ocupado, el índice único de la base rechaza
+			// el INSERT y el DAO lanza DatosInvalidosException.
 			boolean ok = usuarioDao.guardar(usuario);
 			if (!ok)
 				throw new DAOException("No se pudo guardar el usuario.");
-			DBUtils.commit(conn);
-		} catch (Exception e) {
-			try {
-				DBUtils.rollback(conn);
-			} catch (ConnectionException rollbackEx) {
-				throw new ConnectionException("Error al rollbackear transaccion: " + rollbackEx.getMessage(),
-						rollbackEx);
-			}
-			if (e instanceof DAOException)
-				throw (DAOException) e;
-			throw new DAOException(e.getMessage(), e);
+			lease.commit();
 		}
+		cache.invalidarRol(usuario.getRol());
 	}
 
 	/**
@@ -80,21 +79,14 @@ public class UsuarioService {
 		ValidationUtils.validarNoVacio(usuario.getDni(), usuario.getNombre(), usuario.getApellido());
 		ValidationUtils.validarDni(usuario.getDni());
 
-		try {
-			boolean ok = usuarioDao.actualizar(usuario);
+		try (ConnectionLease lease = DBConnection.borrow()) {
+			boolean ok = FabricaDAO.usuarios(lease.getConnection()).actualizar(usuario);
 			if (!ok)
 				throw new DAOException("No se pudo actualizar el usuario.");
-			DBUtils.commit(conn);
-		} catch (Exception e) {
-			try {
-				DBUtils.rollback(conn);
-			} catch (ConnectionException rollbackEx) {
-				throw new ConnectionException("Error al rollbackear transaccion: " + rollbackEx.getMessage(),
-						rollbackEx);
-			}
-			if (e instanceof DAOException)
-				throw (DAOException) e;
-			throw new DAOException(e.getMessage(), e);
+			lease.commit();
+		} finally {
+			// Aunque falle, puede que la cache ya no coincida con la base: se vuelve a leer
+			cache.invalidar(usuario.getId());
 		}
 	}
 
@@ -104,21 +96,25 @@ public class UsuarioService {
 	 * @throws ConnectionException
 	 */
 	public void eliminarUsuario(int id) throws DAOException, ConnectionException {
-		try {
-			boolean ok = usuarioDao.eliminar(id);
+		try (ConnectionLease lease = DBConnection.borrow()) {
+			boolean ok = FabricaDAO.usuarios(lease.getConnection()).eliminar(id);
 			if (!ok)
 				throw new DAOException("No se pudo eliminar el usuario.");
-			DBUtils.commit(conn);
-		} catch (Exception e) {
-			try {
-				DBUtils.rollback(conn);
-			} catch (ConnectionException rollbackEx) {
-				throw new ConnectionException("Error al rollbackear transaccion: " + rollbackEx.getMessage(),
-						rollbackEx);
-			}
-			if (e instanceof DAOException)
-				throw (DAOException) e;
-			throw new DAOException(e.getMessage(), e);
+			lease.commit();
+		} finally {
+			cache.invalidar(id);
+		}
+	}
+
+	/**
+	 * Pide una conexión de solo lectura. Los métodos de consulta solo declaran DAOException,
+	 * así que el error de conexión se envuelve en una.
+	 */
+	private ConnectionLease borrowLectura() throws DAOException {
+		try {
+			return DBConnection.borrowLectura();
+		} catch (ConnectionException e) {
+			throw new DAOException("Error al obtener conexión: " + e.getMessage(), e);
 		}
 	}
 
@@ -127,17 +123,39 @@ public class UsuarioService {
 	 */
 	public Usuario buscarPorDni(String dni) throws DAOException, DatosInvalidosException {
 		ValidationUtils.validarDni(dni);
-		return usuarioDao.buscarPorDni(dni);
+		// Se mide también cuando sale de la cache: es la latencia que ve el login
+		long inicio = M_BUSCAR_POR_DNI.iniciar();
+		try {
+			Usuario u = cache.getPorDni(dni);
+			if (u != null) return u;
+			long version = cache.getVersion();
+			try (ConnectionLease lease = borrowLectura()) {
+				u = FabricaDAO.usuarios(lease.getConnection()).buscarPorDni(dni);
+			}
+			if (u != null) cache.guardar(u, version);
+			return u;
+		} catch (DAOException e) {
+			M_BUSCAR_POR_DNI.fallo();
+			throw e;
+		} finally {
+			M_BUSCAR_POR_DNI.terminar(inicio);
+		}
 	}
 	
 	/**
      * Busca un usuario por su ID.
      */
     public Usuario buscarPorId(int id) throws DAOException, DatosInvalidosException {
-        Usuario u = usuarioDao.buscarPorId(id);
+        Usuario u = cache.getPorId(id);
+        if (u != null) return u;
+        long version = cache.getVersion();
+        try (ConnectionLease lease = borrowLectura()) {
+            u = FabricaDAO.usuarios(lease.getConnection()).buscarPorId(id);
+        }
         if (u == null) {
             throw new DatosInvalidosException("Usuario con ID " + id + " no existe.");
         }
+        cache.guardar(u, version);
         return u;
     }
 
@@ -145,14 +163,33 @@ public class UsuarioService {
 	 * Lista todos los usuarios.
 	 */
 	public List<Usuario> listarUsuarios() throws DAOException {
-		return usuarioDao.listarTodos();
+		try (ConnectionLease lease = borrowLectura()) {
+			return FabricaDAO.usuarios(lease.getConnection()).listarTodos();
+		}
 	}
 
-	/** Lista todos los usuarios con un rol dado. */
+	/** Lista todos los usuarios con un rol dado (la lista devuelta no se puede modificar). */
     public List<Usuario> listarPorRol(Rol rol) throws DAOException {
-        return usuarioDao.buscarPorRol(rol);
+        List<Usuario> lista = cache.getPorRol(rol);
+        if (lista != null) return lista;
+        long version = cache.getVersion();
+        try (ConnectionLease lease = borrowLectura()) {
+            lista = FabricaDAO.usuarios(lease.getConnection()).buscarPorRol(rol);
+        }
+        cache.guardarRol(rol, lista, version);
+        return Collections.unmodifiableList(lista);
     }
     
+    /**
+     * Página de usuarios con un rol dado, ordenada por ID.
+     * @param despuesDeId ID del último usuario ya mostrado; 0 = primera página
+     */
+    public Pagina<Usuario> listarPaginaPorRol(Rol rol, int despuesDeId, int tamanio) throws DAOException {
+        try (ConnectionLease lease = borrowLectura()) {
+            return FabricaDAO.usuarios(lease.getConnection()).listarPagina(rol, despuesDeId, tamanio);
+        }
+    }
+
     /** Lista solo los médicos (rol = MEDICO). */
     public List<Medico> listarMedicos() throws DAOException {
         List<Usuario> all = listarPorRol(Rol.MEDICO);
@@ -173,17 +210,38 @@ public class UsuarioService {
         return pac;
     }
 	
+	/**
+	 * Buscador por nombre, apellido o DNI (o parte de ellos), pensado para consultar mientras
+	 * se escribe: devuelve los más relevantes primero y como máximo {@code limite}.
+	 * @param rol null = todos los roles
+	 */
+	public List<Usuario> buscarUsuarios(String texto, Rol rol, int limite) throws DAOException {
+		long inicio = M_BUSCAR.iniciar();
+		try (ConnectionLease lease = borrowLectura()) {
+			return FabricaDAO.usuarios(lease.getConnection()).buscar(texto, rol, limite);
+		} catch (DAOException e) {
+			M_BUSCAR.fallo();
+			throw e;
+		} finally {
+			M_BUSCAR.terminar(inicio);
+		}
+	}
+
 	/**
 	 * Busca usuarios por nombre.
 	 */
 	public List<Usuario> buscarPorNombre(String nombre) throws DAOException {
-		return usuarioDao.buscarPorNombre(nombre);
+		try (ConnectionLease lease = borrowLectura()) {
+			return FabricaDAO.usuarios(lease.getConnection()).buscarPorNombre(nombre);
+		}
 	}
 
 	/**
 	 * Busca usuarios por apellido.
 	 */
 	public List<Usuario> buscarPorApellido(String apellido) throws DAOException {
-		return usuarioDao.buscarPorApellido(apellido);
+		try (ConnectionLease lease = borrowLectura()) {
+			return FabricaDAO.usuarios(lease.getConnection()).buscarPorApellido(apellido);
+		}
 	}
 }
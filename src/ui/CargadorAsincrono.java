@@ -0,0 +1,152 @@
+package ui;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+import utils.EventoRecargaPanel;
+
+/**
+ * Ejecuta consultas de las pantallas fuera del hilo de Swing (EDT) para que la ventana no se
+ * congele mientras la base responde, y devuelve el resultado al EDT para actualizar la tabla.
+ *
+ * Cada pantalla usa su propio cargador:
+ * - Mientras hay una carga en curso se muestra {@link #getIndicador()} (barra "cargando").
+ * - Si se pide una carga nueva antes de que termine la anterior, la anterior se descarta:
+ *   su resultado nunca llega a la pantalla.
+ * - {@link #cargarDiferido} junta pedidos seguidos (por ejemplo, varios refrescos en pocos
+ *   milisegundos) y ejecuta solo el último.
+ *
+ * Todos los métodos se llaman desde el EDT, y los callbacks también corren en el EDT.
+ * Cada carga queda registrada como {@link EventoRecargaPanel} en Flight Recorder, con el nombre
+ * de la pantalla y el hilo donde corrió la consulta.
+ */
+public class CargadorAsincrono {
+
+    /** Trabajo que corre en segundo plano (llamadas a servicios). No debe tocar componentes Swing. */
+    @FunctionalInterface
+    public interface Tarea<T> {
+        T ejecutar() throws Exception;
+    }
+
+    // Espera por defecto para juntar pedidos seguidos en cargarDiferido
+    private static final int DEMORA_MS = 250;
+
+    private final String pantalla;      // nombre que aparece en EventoRecargaPanel
+    private final JProgressBar indicador;
+    private final Timer temporizador;
+    private Runnable pendiente;        // último pedido diferido, lo ejecuta el temporizador
+    private SwingWorker<?, ?> actual;  // carga en curso (null si no hay)
+    private int generacion;            // se incrementa con cada carga; las viejas se reconocen por número
+
+    /** @param pantalla nombre de la pantalla o carga, para identificarla en Flight Recorder */
+    public CargadorAsincrono(String pantalla) {
+        this.pantalla = pantalla;
+        indicador = new JProgressBar();
+        indicador.setIndeterminate(true);
+        indicador.setStringPainted(true);
+        indicador.setString("Cargando...");
+        indicador.setVisible(false);
+
+        temporizador = new Timer(DEMORA_MS, e -> {
+            Runnable r = pendiente;
+            pendiente = null;
+            if (r != null) r.run();
+        });
+        temporizador.setRepeats(false);
+    }
+
+    /** Barra que se muestra mientras hay una carga en curso; la pantalla la ubica donde quiera. */
+    public JProgressBar getIndicador() {
+        return indicador;
+    }
+
+    public boolean isCargando() {
+        return actual != null;
+    }
+
+    /**
+     * Ejecuta la tarea en segundo plano. Si había otra carga en curso, se cancela y su resultado se ignora.
+     * @param alTerminar recibe el resultado (en el EDT)
+     * @param alFallar   recibe la excepción que lanzó la tarea (en el EDT)
+     */
+    public <T> void cargar(Tarea<T> tarea, Consumer<? super T> alTerminar, Consumer<? super Exception> alFallar) {
+        // Un pedido inmediato reemplaza también a uno diferido que todavía no salió
+        temporizador.stop();
+        pendiente = null;
+        cancelarActual();
+
+        final int miGeneracion = ++generacion;
+        final EventoRecargaPanel evento = EventoRecargaPanel.iniciar();
+        SwingWorker<T, Void> worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                evento.setHiloCarga(Thread.currentThread());
+                return tarea.ejecutar();
+            }
+
+            @Override
+            protected void done() {
+                // Llegó tarde: ya se pidió otra carga después de esta
+                if (miGeneracion != generacion) {
+                    evento.terminar(pantalla, EventoRecargaPanel.DESCARTADA, 0);
+                    return;
+                }
+                actual = null;
+                indicador.setVisible(false);
+                if (isCancelled()) {
+                    evento.terminar(pantalla, EventoRecargaPanel.DESCARTADA, 0);
+                    return;
+                }
+                // Lo que tarda actualizar la pantalla es tiempo con la ventana congelada
+                long inicioEdt = System.nanoTime();
+                String resultado = EventoRecargaPanel.OK;
+                try {
+                    alTerminar.accept(get());
+                } catch (ExecutionException e) {
+                    resultado = EventoRecargaPanel.ERROR;
+                    Throwable causa = e.getCause();
+                    alFallar.accept(causa instanceof Exception ex ? ex : e);
+                } catch (InterruptedException | CancellationException e) {
+                    // no debería pasar: done() corre cuando la tarea ya terminó
+                }
+                evento.terminar(pantalla, resultado, System.nanoTime() - inicioEdt);
+            }
+        };
+        actual = worker;
+        indicador.setVisible(true);
+        worker.execute();
+    }
+
+    /**
+     * Igual que {@link #cargar}, pero espera un momento antes de salir: si llega otro pedido
+     * en ese tiempo, este se descarta y solo se ejecuta el último.
+     */
+    public <T> void cargarDiferido(Tarea<T> tarea, Consumer<? super T> alTerminar, Consumer<? super Exception> alFallar) {
+        pendiente = () -> cargar(tarea, alTerminar, alFallar);
+        temporizador.restart();
+    }
+
+    /** Descarta la carga en curso y los pedidos pendientes (por ejemplo, al cerrar la pantalla). */
+    public void cancelar() {
+        temporizador.stop();
+        pendiente = null;
+        cancelarActual();
+        generacion++;
+        indicador.setVisible(false);
+    }
+
+    private void cancelarActual() {
+        if (actual != null) {
+            // Sin interrumpir el hilo: cortar un driver JDBC a mitad de una consulta puede dejar la
+            // conexión inutilizable. La consulta termina sola, devuelve la conexión al pool y su
+            // resultado se ignora (done() ve que cambió la generación).
+            actual.cancel(false);
+            actual = null;
+        }
+    }
+}
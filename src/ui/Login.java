@@ -14,6 +14,8 @@ public class Login extends JFrame {
 	private JTextField tfDni;
 	private JButton btnLogin;
 	private UsuarioService usuarioService;
+	// La búsqueda del usuario corre fuera del EDT
+	private final CargadorAsincrono cargador = new CargadorAsincrono("Login");
 
 	public Login() {
 		setTitle("Turnero Medico UP");
@@ -65,6 +67,15 @@ public class Login extends JFrame {
 		btnLogin = new JButton("Login");
 		panelLogin.add(btnLogin, gbc);
 
+		// Indicador de carga (se ve solo mientras se busca el usuario). Va dentro de un panel
+		// con su tamaño reservado porque la ventana no se puede agrandar después del pack().
+		gbc.gridy = 4;
+		gbc.fill = GridBagConstraints.HORIZONTAL;
+		JPanel panelCarga = new JPanel(new BorderLayout());
+		panelCarga.setPreferredSize(cargador.getIndicador().getPreferredSize());
+		panelCarga.add(cargador.getIndicador(), BorderLayout.CENTER);
+		panelLogin.add(panelCarga, gbc);
+
 		add(panelLogin, BorderLayout.CENTER);
 
 		// Ajustes finales
@@ -79,8 +90,9 @@ public class Login extends JFrame {
 
 	private void handleLogin() { //
 		String dni = tfDni.getText().trim();
-		try {
-			Usuario u = usuarioService.buscarPorDni(dni);
+		btnLogin.setEnabled(false);
+		cargador.cargar(() -> usuarioService.buscarPorDni(dni), u -> {
+			btnLogin.setEnabled(true);
 			if (u == null) {
 				JOptionPane.showMessageDialog(this, "Usuario no registrado.", "Error", JOptionPane.ERROR_MESSAGE);
 			} else {
@@ -88,8 +100,14 @@ public class Login extends JFrame {
 				PantallaPrincipal pp = new PantallaPrincipal(u);
 				pp.setVisible(true);
 			}
-		} catch (DAOException | DatosInvalidosException ex) {
-			JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-		}
+		}, ex -> {
+			btnLogin.setEnabled(true);
+			if (ex instanceof DAOException || ex instanceof DatosInvalidosException) {
+				JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+			} else {
+				ex.printStackTrace();
+				JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+			}
+		});
 	}
 }
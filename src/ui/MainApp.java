@@ -9,14 +9,25 @@ package ui;
 import javax.swing.SwingUtilities;
 import javax.swing.JOptionPane;
 
+import java.nio.file.Path;
+
+import db.MigradorEsquema;
+import utils.RegistroMetricas;
+
 public class MainApp {
 
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> { //uso invokeLater porque las interfaces no son seguras para hilos, si no lo uso se puede crashear la jvm.
             try {
-                // Ya NO inicializamos la DB aca. 
-                // Asumo que la tabla existe.
-                
+                // Creamos/actualizamos tablas e índices antes de abrir cualquier pantalla
+                MigradorEsquema.migrar();
+                // Autochequeo: si alguna consulta clave dejó de usar su índice lo avisamos por consola
+                for (String problema : MigradorEsquema.verificarPlanes()) {
+                    System.err.println("[Esquema] " + problema);
+                }
+
+                iniciarVolcadoMetricas();
+
                 Login loginFrame = new Login();
                 loginFrame.setVisible(true);
                 
@@ -28,4 +39,15 @@ public class MainApp {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Vuelca las métricas de latencia cada tanto a un archivo de texto
+     * (turnera.metricas.archivo, por defecto "metricas.txt"; vacío lo desactiva).
+     */
+    private static void iniciarVolcadoMetricas() {
+        String archivo = System.getProperty("turnera.metricas.archivo", "metricas.txt");
+        if (!RegistroMetricas.isActivo() || archivo.isBlank()) return;
+        long segundos = Long.getLong("turnera.metricas.segundos", 60L);
+        RegistroMetricas.getInstancia().iniciarVolcado(Path.of(archivo), segundos);
+    }
+}
@@ -3,19 +3,21 @@ package ui;
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
-import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSpinner;
+import javax.swing.JTabbedPane;
 import javax.swing.JTable;
 import javax.swing.SpinnerDateModel;
 import javax.swing.table.DefaultTableModel;
@@ -23,7 +25,12 @@ import javax.swing.table.DefaultTableModel;
 import base.Medico;
 import base.Rol;
 import base.Usuario;
-import service.TurnoService;
+import dao.FilaReporte;
+import exceptions.DatosInvalidosException;
+import service.AgregadorRecaudacion;
+import service.CacheReportes;
+import service.ExportacionService;
+import service.ReporteService;
 import service.UsuarioService;
 
 /**
@@ -36,16 +43,31 @@ import service.UsuarioService;
 public class PanelReportes extends JPanel {
     private static final long serialVersionUID = 1L;
 
-    private TurnoService turnoService;
+    private ReporteService reporteService;
     private UsuarioService usuarioService;
     private Usuario usuarioActual; // Usuario logueado para validar permisos
 
     // Componentes gráficos
     private JSpinner spinnerDesde;
     private JSpinner spinnerHasta;
-    private JComboBox<Medico> cmbMedicos;
+    private SelectorUsuario<Medico> selectorMedico;
     private JTable tabla;
     private DefaultTableModel modelo;
+    // Cortes del mismo reporte (se calculan en una sola pasada, ver AgregadorRecaudacion)
+    private DefaultTableModel modeloObraSocial;
+    private DefaultTableModel modeloDias;
+    private JButton btnGenerar;
+    private JButton btnExportar;
+    // Aciertos de la cache de reportes (cuántas veces el reporte no se volvió a calcular)
+    private JLabel lblCache;
+
+    private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // La exportación tiene su propio cargador: no cancela un reporte en curso (ni al revés)
+    private final CargadorAsincrono exportador = new CargadorAsincrono("PanelReportes.exportar");
+
+    // El reporte se calcula fuera del EDT: con muchos turnos puede tardar
+    private final CargadorAsincrono cargador = new CargadorAsincrono("PanelReportes");
 
     /**
      * Constructor modificado para recibir el usuario actual.
@@ -56,7 +78,7 @@ public class PanelReportes extends JPanel {
         
         try {
             // Inicializamos servicios (Mismo patrón que en otros paneles)
-            this.turnoService = new TurnoService();
+            this.reporteService = new ReporteService();
             this.usuarioService = new UsuarioService();
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error iniciando servicios: " + e.getMessage());
@@ -79,37 +101,52 @@ public class PanelReportes extends JPanel {
         panelFiltros.add(spinnerHasta);
 
         // Filtro: Selección de Médico
-        panelFiltros.add(new JLabel("Médico:"));
-        cmbMedicos = new JComboBox<>();
-        cargarMedicosEnCombo(); // Lógica inteligente de carga según rol
-        panelFiltros.add(cmbMedicos);
+        panelFiltros.add(new JLabel(usuarioActual.getRol() == Rol.ADMIN ? "Médico (vacío = todos):" : "Médico:"));
+        selectorMedico = new SelectorUsuario<>(usuarioService, Rol.MEDICO, Medico.class);
+        configurarSelectorMedico(); // Lógica inteligente según rol
+        panelFiltros.add(selectorMedico);
 
         add(panelFiltros, BorderLayout.NORTH);
 
-        // --- 2. TABLA DE RESULTADOS (Centro) ---
+        // --- 2. TABLAS DE RESULTADOS (Centro, una pestaña por corte) ---
         // Definimos las columnas: Nombre del Médico, Cantidad de Turnos, Total Recaudado
-        modelo = new DefaultTableModel(
-            new String[]{"Médico", "Turnos Atendidos", "Total Recaudado"}, 0
-        ) {
-            private static final long serialVersionUID = 1L;
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Hacemos que la tabla sea de solo lectura
-            }
-        };
-        
+        modelo = crearModelo("Médico");
+        modeloObraSocial = crearModelo("Obra Social");
+        modeloDias = crearModelo("Día");
+
         tabla = new JTable(modelo);
-        add(new JScrollPane(tabla), BorderLayout.CENTER);
+        JTabbedPane pestanias = new JTabbedPane();
+        pestanias.addTab("Por médico", new JScrollPane(tabla));
+        pestanias.addTab("Por obra social", new JScrollPane(new JTable(modeloObraSocial)));
+        pestanias.addTab("Por día", new JScrollPane(new JTable(modeloDias)));
+        add(pestanias, BorderLayout.CENTER);
 
         // --- 3. BOTONERA (Sur) ---
         JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        JButton btnGenerar = new JButton("Generar Reporte");
+        btnGenerar = new JButton("Generar Reporte");
         btnGenerar.addActionListener(e -> generarReporte());
         
+        lblCache = new JLabel();
+        panelBotones.add(lblCache);
+        panelBotones.add(cargador.getIndicador());
         panelBotones.add(btnGenerar);
+        btnExportar = new JButton("Exportar CSV");
+        btnExportar.addActionListener(e -> exportarReporte());
+        panelBotones.add(btnExportar);
         add(panelBotones, BorderLayout.SOUTH);
     }
 
+    /** Modelo de solo lectura con la columna del corte, cantidad de turnos y total recaudado. */
+    private static DefaultTableModel crearModelo(String corte) {
+        return new DefaultTableModel(new String[]{corte, "Turnos Atendidos", "Total Recaudado"}, 0) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false; // Hacemos que la tabla sea de solo lectura
+            }
+        };
+    }
+
     /**
      * Crea un JSpinner configurado como calendario (dd/MM/yyyy).
      */
@@ -123,91 +160,132 @@ public class PanelReportes extends JPanel {
     }
 
     /**
-     * Carga el ComboBox de médicos aplicando reglas de negocio según el rol.
+     * Configura el selector de médicos aplicando reglas de negocio según el rol.
      */
-    private void cargarMedicosEnCombo() {
-        cmbMedicos.removeAllItems();
-        try {
-            if (usuarioActual.getRol() == Rol.ADMIN) {
-                // CASO ADMIN: Ve la opción "Todos" y luego la lista de médicos
-                
-                // 1. Crear opción "cualquiera" para representar a todos
-                // Usamos una clase anónima para sobrescribir toString() solo visualmente TODO: investigar si esto se puede hacer mas limpio
-                Medico opcionTodos = new Medico(-1, "", "", "", "", 0, null) {
-                    @Override
-                    public String toString() {
-                        return "--- Todos los Médicos ---";
-                    }
-                };
-                cmbMedicos.addItem(opcionTodos);
-
-                // 2. Cargar médicos reales desde la base de datos
-                for (Medico m : usuarioService.listarMedicos()) {
-                    cmbMedicos.addItem(m);
-                }
-                
-            } else if (usuarioActual.getRol() == Rol.MEDICO) {
-                // CASO MÉDICO: Solo se ve a sí mismo
-                // Casteamos el usuario actual a Medico y lo agregamos como única opción
-                cmbMedicos.addItem((Medico) usuarioActual);
-                cmbMedicos.setEnabled(false);
-            }
-            // Si es PACIENTE no debería entrar a esta pantalla, pero por seguridad el combo quedaría vacío.
-            
-        } catch (Exception e) { 
-            e.printStackTrace(); 
+    private void configurarSelectorMedico() {
+        if (usuarioActual.getRol() == Rol.MEDICO) {
+            // CASO MÉDICO: Solo se ve a sí mismo
+            selectorMedico.setSeleccionado((Medico) usuarioActual);
+            selectorMedico.setEnabled(false);
         }
+        // CASO ADMIN: busca un médico escribiendo; con el campo vacío, el reporte es de todos
+        // Si es PACIENTE no debería entrar a esta pantalla.
     }
 
     /**
-     * Ejecuta la lógica de reporte llamando al servicio y actualizando la tabla.
+     * ID del médico del reporte: el elegido, o -1 (todos) si el campo está vacío.
+     * Si se escribió algo pero no se eligió un médico de la lista, avisa y devuelve null: no se
+     * puede tomar como "todos" lo que el usuario quiso acotar a un médico.
+     */
+    private Integer medicoDelReporte() {
+        if (selectorMedico.hayTextoSinElegir()) {
+            JOptionPane.showMessageDialog(this, "Elija un médico de la lista, o borre el texto para ver todos los médicos.",
+                    "Validación", JOptionPane.WARNING_MESSAGE);
+            return null;
+        }
+        Medico seleccionado = selectorMedico.getSeleccionado();
+        return (seleccionado == null) ? -1 : seleccionado.getId();
+    }
+
+    /**
+     * Ejecuta la lógica de reporte llamando al servicio (en segundo plano) y actualizando la tabla.
      */
     private void generarReporte() {
-        try {
-            // 1. Obtener fechas de los Spinners
-            LocalDate desde = ((Date)spinnerDesde.getValue()).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            LocalDate hasta = ((Date)spinnerHasta.getValue()).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-
-            // 2. Obtener el ID del médico seleccionado
-            Medico seleccionado = (Medico) cmbMedicos.getSelectedItem();
-            if (seleccionado == null) return;
-
-            // Si el ID es -1 (objeto cualquiera "Todos"), el servicio sabrá que es un reporte general.
-            int idMedico = seleccionado.getId();
-
-            // 3. Llamada al servicio (devuelve lista de Object[] para no usar DTOs)
-            // [0]=Nombre, [1]=Apellido, [2]=Cantidad(int), [3]=Total(double)
-            List<Object[]> resultados = turnoService.generarReporte(desde, hasta, idMedico);
-
-            // 4. Llenar la tabla
-            modelo.setRowCount(0);
-            double granTotal = 0;
-            
-            for (Object[] fila : resultados) {
-                String nombre = (String) fila[0];
-                String apellido = (String) fila[1];
-                int cantidad = (Integer) fila[2];
-                double total = (Double) fila[3];
-
-                modelo.addRow(new Object[] {
-                    apellido + ", " + nombre,
-                    cantidad,
-                    String.format("$ %.2f", total) // Formato moneda
-                });
-                granTotal += total;
-            }
+        // 1. Obtener fechas de los Spinners (los componentes se leen en el EDT)
+        LocalDate desde = ((Date)spinnerDesde.getValue()).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        LocalDate hasta = ((Date)spinnerHasta.getValue()).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
 
-            // 5. Feedback visual
-            if (resultados.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No se encontraron datos para el período seleccionado.");
-            } else if (idMedico == -1) {
-                // Si es reporte general ("Todos"), agregamos una fila final con la suma total
-                modelo.addRow(new Object[]{"--- TOTAL GRAL ---", "", String.format("$ %.2f", granTotal)});
-            }
+        // 2. Obtener el ID del médico seleccionado (-1 = reporte general)
+        Integer elegido = medicoDelReporte();
+        if (elegido == null) return;
+        int idMedico = elegido;
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error al generar reporte: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        // 3. Llamada al servicio: los tres cortes salen de un solo recorrido del resumen diario
+        btnGenerar.setEnabled(false);
+        cargador.cargar(
+            () -> reporteService.generarResumenRecaudacion(desde, hasta, idMedico),
+            resultados -> {
+                btnGenerar.setEnabled(true);
+                CacheReportes cache = CacheReportes.getInstancia();
+                lblCache.setText(String.format("Cache: %.0f%% aciertos", cache.getTasaAciertos()));
+                lblCache.setToolTipText(cache.getEstadisticas());
+                mostrarResultados(resultados, idMedico);
+            },
+            e -> {
+                btnGenerar.setEnabled(true);
+                if (e instanceof DatosInvalidosException) {
+                    JOptionPane.showMessageDialog(this, e.getMessage(), "Validación", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Error al generar reporte: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            });
+    }
+
+    /**
+     * Exporta a CSV el detalle del período y médico elegidos (una fila por médico, día y obra social).
+     */
+    private void exportarReporte() {
+        LocalDate desde = ((Date)spinnerDesde.getValue()).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        LocalDate hasta = ((Date)spinnerHasta.getValue()).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        Integer elegido = medicoDelReporte();
+        if (elegido == null) return;
+        int idMedico = elegido;
+
+        Path destino = SelectorArchivoCsv.elegir(this, "recaudacion_" + desde + "_" + hasta + ".csv");
+        if (destino == null) return;
+
+        btnExportar.setEnabled(false);
+        exportador.cargar(
+            () -> new ExportacionService().exportarRecaudacion(destino, desde, hasta, idMedico),
+            r -> {
+                btnExportar.setEnabled(true);
+                JOptionPane.showMessageDialog(this, "Exportación terminada: " + r);
+            },
+            e -> {
+                btnExportar.setEnabled(true);
+                if (e instanceof DatosInvalidosException) {
+                    JOptionPane.showMessageDialog(this, e.getMessage(), "Validación", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Error al exportar: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            });
+    }
+
+    private void mostrarResultados(AgregadorRecaudacion reporte, int idMedico) {
+        // 4. Llenar las tablas
+        modelo.setRowCount(0);
+        modeloObraSocial.setRowCount(0);
+        modeloDias.setRowCount(0);
+        double granTotal = 0;
+
+        List<FilaReporte> resultados = reporte.getPorMedico();
+        for (FilaReporte fila : resultados) {
+            modelo.addRow(new Object[] {
+                fila.apellido() + ", " + fila.nombre(),
+                fila.cantidad(),
+                String.format("$ %.2f", fila.total()) // Formato moneda
+            });
+            granTotal += fila.total();
         }
+        reporte.getPorObraSocial().forEach((os, sub) -> agregarFila(modeloObraSocial, os, sub));
+        reporte.getPorDia().forEach((dia, sub) -> agregarFila(modeloDias, dia.format(FORMATO_DIA), sub));
+
+        // 5. Feedback visual
+        if (resultados.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No se encontraron datos para el período seleccionado.");
+        } else if (idMedico == -1) {
+            // Si es reporte general ("Todos"), agregamos una fila final con la suma total
+            modelo.addRow(new Object[]{"--- TOTAL GRAL ---", "", String.format("$ %.2f", granTotal)});
+        }
+        if (!resultados.isEmpty()) {
+            agregarFila(modeloObraSocial, "--- TOTAL ---", reporte.getTotal());
+            agregarFila(modeloDias, "--- TOTAL ---", reporte.getTotal());
+        }
+    }
+
+    private static void agregarFila(DefaultTableModel m, Object corte, AgregadorRecaudacion.Subtotal sub) {
+        m.addRow(new Object[]{corte, sub.cantidad(), String.format("$ %.2f", sub.total())});
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,15 @@
 package ui;
 
 import base.Medico;
-import exceptions.DAOException;
+import base.Rol;
+import base.Usuario;
+import dao.Pagina;
 import exceptions.DatosInvalidosException;
 import service.UsuarioService;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
 
 /**
  * Panel que muestra el listado de médicos y permite CRUD
@@ -21,6 +22,14 @@ public class PanelTablaMedicos extends JPanel {
     private final JTable tabla;
     private final DefaultTableModel modelo;
     private final BotonPanel botonPanel;
+    private final JButton btnCargarMas;
+
+    // Paginación: de a cuántos médicos se trae y el ID del último mostrado
+    private static final int TAMANIO_PAGINA = 100;
+    private int ultimoId = 0;
+
+    // Las consultas del listado corren fuera del EDT
+    private final CargadorAsincrono cargador = new CargadorAsincrono("PanelTablaMedicos");
 
     public PanelTablaMedicos(UsuarioService usuarioService) {
         this.usuarioService = usuarioService;
@@ -45,9 +54,17 @@ public class PanelTablaMedicos extends JPanel {
         tabla = new JTable(modelo);
         add(new JScrollPane(tabla), BorderLayout.CENTER);
 
-        // Botones: Agregar, Editar, Eliminar
+        // Botones: Agregar, Editar, Eliminar (y debajo, la paginación)
         botonPanel = new BotonPanel();
-        add(botonPanel, BorderLayout.SOUTH);
+        btnCargarMas = new JButton("Cargar más");
+        btnCargarMas.addActionListener(e -> cargarPagina());
+        JPanel panelSur = new JPanel(new BorderLayout());
+        panelSur.add(botonPanel, BorderLayout.CENTER);
+        JPanel panelPaginas = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        panelPaginas.add(btnCargarMas);
+        panelPaginas.add(cargador.getIndicador());
+        panelSur.add(panelPaginas, BorderLayout.SOUTH);
+        add(panelSur, BorderLayout.SOUTH);
 
         // Oculto los botones que no uso en este panel
         botonPanel.getBtnLimpiar().setVisible(false);
@@ -61,26 +78,47 @@ public class PanelTablaMedicos extends JPanel {
         recargarDatos();
     }
 
-    /** Recarga la lista de médicos desde la base de datos */
+    /** Recarga la lista de médicos desde la base de datos (desde la primera página) */
     public void recargarDatos() {
-        modelo.setRowCount(0);
-        try {
-            List<Medico> medicos = usuarioService.listarMedicos();
-            for (Medico m : medicos) {
-                modelo.addRow(new Object[]{
-                    m.getDni(),
-                    m.getNombre(),
-                    m.getApellido(),
-                    m.getEmail(),
-                    m.getHonorariosPorConsulta()
-                });
-            }
-        } catch (DAOException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error al cargar médicos: " + ex.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+        btnCargarMas.setEnabled(false);
+        cargador.cargarDiferido(() -> usuarioService.listarPaginaPorRol(Rol.MEDICO, 0, TAMANIO_PAGINA), pagina -> {
+            modelo.setRowCount(0);
+            ultimoId = 0;
+            mostrarPagina(pagina);
+        }, this::mostrarError);
+    }
+
+    /** Agrega a la tabla la siguiente página de médicos */
+    private void cargarPagina() {
+        btnCargarMas.setEnabled(false);
+        int desde = ultimoId; // se lee en el EDT, antes de salir a segundo plano
+        cargador.cargar(() -> usuarioService.listarPaginaPorRol(Rol.MEDICO, desde, TAMANIO_PAGINA),
+                this::mostrarPagina, this::mostrarError);
+    }
+
+    private void mostrarPagina(Pagina<Usuario> pagina) {
+        for (Usuario u : pagina.getElementos()) {
+            Medico m = (Medico) u;
+            modelo.addRow(new Object[]{
+                m.getDni(),
+                m.getNombre(),
+                m.getApellido(),
+                m.getEmail(),
+                m.getHonorariosPorConsulta()
+            });
+        }
+        if (!pagina.isEmpty()) {
+            ultimoId = pagina.getUltimo().getId();
         }
+        btnCargarMas.setEnabled(pagina.hayMas());
+    }
+
+    private void mostrarError(Exception ex) {
+        ex.printStackTrace();
+        btnCargarMas.setEnabled(ultimoId > 0);
+        JOptionPane.showMessageDialog(this,
+            "Error al cargar médicos: " + ex.getMessage(),
+            "Error", JOptionPane.ERROR_MESSAGE);
     }
 
     /**
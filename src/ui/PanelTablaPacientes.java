@@ -2,12 +2,12 @@ package ui;
 
 import base.Rol;
 import base.Usuario;
+import dao.Pagina;
 import service.UsuarioService;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
 
 /**
  * Panel que muestra el ABM de pacientes:
@@ -19,6 +19,14 @@ public class PanelTablaPacientes extends JPanel {
     private final JTable tabla;
     private final DefaultTableModel modelo;
     private final BotonPanel botonPanel;
+    private final JButton btnCargarMas;
+
+    // Paginación: de a cuántos pacientes se trae y el ID del último mostrado
+    private static final int TAMANIO_PAGINA = 100;
+    private int ultimoId = 0;
+
+    // Las consultas del listado corren fuera del EDT
+    private final CargadorAsincrono cargador = new CargadorAsincrono("PanelTablaPacientes");
 
     public PanelTablaPacientes(UsuarioService usuarioService) {
         this.usuarioService = usuarioService;
@@ -40,9 +48,17 @@ public class PanelTablaPacientes extends JPanel {
         tabla = new JTable(modelo);
         add(new JScrollPane(tabla), BorderLayout.CENTER);
 
-        // Panel de botones reutilizable
+        // Panel de botones reutilizable (y debajo, la paginación)
         botonPanel = new BotonPanel();
-        add(botonPanel, BorderLayout.SOUTH);
+        btnCargarMas = new JButton("Cargar más");
+        btnCargarMas.addActionListener(e -> cargarPagina());
+        JPanel panelSur = new JPanel(new BorderLayout());
+        panelSur.add(botonPanel, BorderLayout.CENTER);
+        JPanel panelPaginas = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        panelPaginas.add(btnCargarMas);
+        panelPaginas.add(cargador.getIndicador());
+        panelSur.add(panelPaginas, BorderLayout.SOUTH);
+        add(panelSur, BorderLayout.SOUTH);
         
         // Oculto los botones que no uso en este panel
         botonPanel.getBtnLimpiar().setVisible(false);
@@ -91,28 +107,45 @@ public class PanelTablaPacientes extends JPanel {
         recargarDatos();
     }
 
-    /**  
-     * Recarga la tabla con todos los pacientes (rol PACIENTE).
-     */
+    /** Recarga la lista de pacientes desde la base de datos (desde la primera página) */
     public void recargarDatos() {
-        modelo.setRowCount(0);
-        try {
-            List<Usuario> todos = usuarioService.listarUsuarios();
-            for (Usuario u : todos) {
-                if (u.getRol() == Rol.PACIENTE) {
-                    modelo.addRow(new Object[]{
-                        u.getDni(),
-                        u.getNombre(),
-                        u.getApellido(),
-                        u.getEmail()
-                    });
-                }
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                "Error al cargar pacientes: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+        btnCargarMas.setEnabled(false);
+        cargador.cargarDiferido(() -> usuarioService.listarPaginaPorRol(Rol.PACIENTE, 0, TAMANIO_PAGINA), pagina -> {
+            modelo.setRowCount(0);
+            ultimoId = 0;
+            mostrarPagina(pagina);
+        }, this::mostrarError);
+    }
+
+    /** Agrega a la tabla la siguiente página de pacientes */
+    private void cargarPagina() {
+        btnCargarMas.setEnabled(false);
+        int desde = ultimoId; // se lee en el EDT, antes de salir a segundo plano
+        cargador.cargar(() -> usuarioService.listarPaginaPorRol(Rol.PACIENTE, desde, TAMANIO_PAGINA),
+                this::mostrarPagina, this::mostrarError);
+    }
+
+    private void mostrarPagina(Pagina<Usuario> pagina) {
+        for (Usuario u : pagina.getElementos()) {
+            modelo.addRow(new Object[]{
+                u.getDni(),
+                u.getNombre(),
+                u.getApellido(),
+                u.getEmail()
+            });
         }
+        if (!pagina.isEmpty()) {
+            ultimoId = pagina.getUltimo().getId();
+        }
+        btnCargarMas.setEnabled(pagina.hayMas());
+    }
+
+    private void mostrarError(Exception e) {
+        e.printStackTrace();
+        btnCargarMas.setEnabled(ultimoId > 0);
+        JOptionPane.showMessageDialog(this,
+            "Error al cargar pacientes: " + e.getMessage(),
+            "Error", JOptionPane.ERROR_MESSAGE);
     }
 
     /**
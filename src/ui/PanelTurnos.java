@@ -5,21 +5,22 @@ import base.Paciente;
 import base.Rol;
 import base.Turno;
 import base.Usuario;
+import service.DisponibilidadService;
+import service.ExportacionService;
 import service.TurnoService;
 import service.UsuarioService;
 import utils.ValidationUtils;
 import exceptions.DatosInvalidosException;
+import exceptions.TurnoNoDisponibleException;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.Date;
-import java.util.List;
 
 public class PanelTurnos extends JPanel {
     private static final long serialVersionUID = 1L;
@@ -30,14 +31,28 @@ public class PanelTurnos extends JPanel {
     
     // Componentes gráficos
     private JComboBox<Medico> cmbMedicos;
-    private JComboBox<Paciente> cmbPacientes;
+    // Con miles de pacientes no se cargan todos en un combo: se buscan mientras se escribe
+    private SelectorUsuario<Paciente> selectorPaciente;
     
     // Nuevos componentes para Fecha y Hora
     private JSpinner spinnerFecha;
     private JComboBox<String> comboHora;
     
     private JTable tabla;
-    private DefaultTableModel modelo;
+    // Trae los turnos de a páginas a medida que se hace scroll (ver TurnosTableModel)
+    private TurnosTableModel modelo;
+
+    // La exportación lee todo el historial: corre en segundo plano
+    private final CargadorAsincrono exportador = new CargadorAsincrono("PanelTurnos.exportar");
+    private JButton btnExportar;
+
+    // La lista de médicos y la reserva (que puede esperar al único escritor de la base) tampoco van en el EDT
+    private final CargadorAsincrono cargadorMedicos = new CargadorAsincrono("PanelTurnos.medicos");
+    private final CargadorAsincrono reservador = new CargadorAsincrono("PanelTurnos.reserva");
+    // Los horarios libres suelen salir de memoria, pero si el día no está cargado (o venció) se lee
+    // la base: por eso también van en segundo plano. Si se cambia de médico o fecha, gana el último pedido
+    private final CargadorAsincrono cargadorHorarios = new CargadorAsincrono("PanelTurnos.horarios");
+    private JButton btnGuardar;
 
     public PanelTurnos(Usuario usuarioActual) {
         this.usuarioActual = usuarioActual;
@@ -64,9 +79,8 @@ public class PanelTurnos extends JPanel {
         // -- Selector de Paciente --
         if (usuarioActual.getRol() != Rol.PACIENTE) {
             panelForm.add(new JLabel("Paciente:"));
-            cmbPacientes = new JComboBox<>();
-            cargarPacientes();
-            panelForm.add(cmbPacientes);
+            selectorPaciente = new SelectorUsuario<>(usuarioService, Rol.PACIENTE, Paciente.class);
+            panelForm.add(selectorPaciente);
         }
 
         // -- Selector de FECHA (Calendario simple con Spinner) --
@@ -85,8 +99,12 @@ public class PanelTurnos extends JPanel {
         cargarHorariosDisponibles();
         panelForm.add(comboHora);
 
+        // Al cambiar médico o fecha se actualizan los horarios libres
+        cmbMedicos.addActionListener(e -> cargarHorariosDisponibles());
+        spinnerFecha.addChangeListener(e -> cargarHorariosDisponibles());
+
         // -- Botón Guardar --
-        JButton btnGuardar = new JButton("Confirmar Turno");
+        btnGuardar = new JButton("Confirmar Turno");
         btnGuardar.addActionListener(e -> guardarTurno());
         
         panelForm.add(new JLabel("")); // Espaciador
@@ -95,43 +113,56 @@ public class PanelTurnos extends JPanel {
         add(panelForm, BorderLayout.NORTH);
 
         // --- 2. SECCIÓN TABLA (CENTRO) ---
-        String[] columnas;
-        if (usuarioActual.getRol() == Rol.PACIENTE) {
-            columnas = new String[]{"Fecha y Hora", "Médico", "Costo"};
-        } else {
-            columnas = new String[]{"Fecha y Hora", "Médico", "Paciente", "Costo"};
-        }
-
-        modelo = new DefaultTableModel(columnas, 0) {
-            private static final long serialVersionUID = 1L;
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
+        // Las columnas dependen del rol; las define el modelo
+        modelo = new TurnosTableModel(turnoService, usuarioActual, this::mostrarError);
         
         tabla = new JTable(modelo);
         add(new JScrollPane(tabla), BorderLayout.CENTER);
+
+        // --- 3. INDICADOR DE CARGA (ABAJO) ---
+        JPanel panelCarga = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        panelCarga.add(modelo.getIndicador());
+        panelCarga.add(cargadorMedicos.getIndicador());
+        panelCarga.add(reservador.getIndicador());
+        panelCarga.add(cargadorHorarios.getIndicador());
+        panelCarga.add(exportador.getIndicador());
+        btnExportar = new JButton("Exportar CSV");
+        btnExportar.addActionListener(e -> exportarTurnos());
+        panelCarga.add(btnExportar);
+        add(panelCarga, BorderLayout.SOUTH);
         
         recargarTabla();
     }
 
-    /** Carga horarios de 08:00 a 20:00 cada 30 minutos */
+    /** Carga los horarios libres (08:00 a 20:00 cada 30 minutos) del médico elegido en la fecha elegida */
     private void cargarHorariosDisponibles() {
-        for (int hora = 8; hora < 20; hora++) {
-            comboHora.addItem(String.format("%02d:00", hora));
-            comboHora.addItem(String.format("%02d:30", hora));
+        comboHora.removeAllItems();
+        Medico m = (Medico) cmbMedicos.getSelectedItem();
+        if (m == null) {
+            cargadorHorarios.cancelar();
+            return;
         }
+        int idMedico = m.getId();
+        LocalDate fecha = fechaSeleccionada(); // se leen en el EDT, antes de salir a segundo plano
+        cargadorHorarios.cargar(() -> DisponibilidadService.getInstancia().horariosLibres(idMedico, fecha), horas -> {
+            for (LocalTime hora : horas) comboHora.addItem(hora.toString());
+        }, Exception::printStackTrace);
     }
 
-    private void cargarMedicos() {
-        try {
-            for (Medico m : usuarioService.listarMedicos()) cmbMedicos.addItem(m);
-        } catch (Exception e) { e.printStackTrace(); }
+    private LocalDate fechaSeleccionada() {
+        Date fechaDate = (Date) spinnerFecha.getValue();
+        // Convertir a LocalDate (nueva API de Java 8)
+        return fechaDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
     }
 
-    private void cargarPacientes() {
-        try {
-            for (Paciente p : usuarioService.listarPacientes()) cmbPacientes.addItem(p);
-        } catch (Exception e) { e.printStackTrace(); }
+    /** Llena el combo de médicos en segundo plano; al elegirse el primero se cargan sus horarios */
+    private void cargarMedicos() {
+        cargadorMedicos.cargar(usuarioService::listarMedicos, medicos -> {
+            for (Medico m : medicos) cmbMedicos.addItem(m);
+        }, e -> {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error al cargar médicos: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        });
     }
 
     private void guardarTurno() {
@@ -142,7 +173,7 @@ public class PanelTurnos extends JPanel {
             if (usuarioActual.getRol() == Rol.PACIENTE) {
                 p = (Paciente) usuarioActual;
             } else {
-                p = (Paciente) cmbPacientes.getSelectedItem();
+                p = selectorPaciente.getSeleccionado();
             }
 
             if (m == null || p == null) {
@@ -150,12 +181,16 @@ public class PanelTurnos extends JPanel {
             }
 
             // 1. Obtener FECHA del Spinner
-            Date fechaDate = (Date) spinnerFecha.getValue();
-            // Convertir a LocalDate (nueva API de Java 8)
-            LocalDate fecha = fechaDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            LocalDate fecha = fechaSeleccionada();
 
             // 2. Obtener HORA del Combo
             String horaStr = (String) comboHora.getSelectedItem();
+            if (horaStr == null && cargadorHorarios.isCargando()) {
+                throw new DatosInvalidosException("Todavía se están cargando los horarios libres.");
+            }
+            if (horaStr == null) {
+                throw new DatosInvalidosException("El médico no tiene horarios libres en esa fecha.");
+            }
             LocalTime hora = LocalTime.parse(horaStr);
 
             // 3. Combinar en LocalDateTime
@@ -165,11 +200,26 @@ public class PanelTurnos extends JPanel {
             ValidationUtils.validarFechaFutura(fechaHora);
 
             Turno t = new Turno(fechaHora, m, p);
-            turnoService.registrarTurno(t);
-            
-            JOptionPane.showMessageDialog(this, "Turno registrado exitosamente.");
-            recargarTabla();
-            
+            // La reserva corre en segundo plano; el botón queda deshabilitado hasta que termine
+            btnGuardar.setEnabled(false);
+            reservador.cargar(() -> {
+                turnoService.registrarTurno(t);
+                return t;
+            }, r -> {
+                btnGuardar.setEnabled(true);
+                JOptionPane.showMessageDialog(this, "Turno registrado exitosamente.");
+                modelo.turnoAgregado(r);
+                cargarHorariosDisponibles();
+            }, ex -> {
+                btnGuardar.setEnabled(true);
+                if (ex instanceof TurnoNoDisponibleException) {
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Horario ocupado", JOptionPane.WARNING_MESSAGE);
+                    cargarHorariosDisponibles();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+
         } catch (DatosInvalidosException ex) {
              JOptionPane.showMessageDialog(this, ex.getMessage(), "Validación", JOptionPane.WARNING_MESSAGE);
         } catch (Exception ex) {
@@ -177,44 +227,34 @@ public class PanelTurnos extends JPanel {
         }
     }
 
+    /** Vuelve a mostrar el listado desde la base (el modelo trae solo las páginas a la vista). */
     private void recargarTabla() {
-        modelo.setRowCount(0);
-        try {
-            List<Turno> turnos;
-            
-            // Los turnos ya vienen ordenados desde el DAO (ORDER BY fechaHora ASC)
-            if (usuarioActual.getRol() == Rol.PACIENTE) {
-                turnos = turnoService.listarTurnosPorPaciente(usuarioActual.getId());
-            } else if (usuarioActual.getRol() == Rol.MEDICO) {
-                turnos = turnoService.listarTurnosPorMedico(usuarioActual.getId());
-            } else {
-                turnos = turnoService.listarTurnos();
-            }
+        modelo.recargar();
+    }
 
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-            
-            for (Turno t : turnos) {
-                if (usuarioActual.getRol() == Rol.PACIENTE) {
-                    modelo.addRow(new Object[]{
-                        t.getFechaHora().format(fmt),
-                        t.getMedico().getApellido() + " " + t.getMedico().getNombre(),
-                        "$" + t.getCosto()
-                    });
-                } else if (usuarioActual.getRol() == Rol.MEDICO) {
-                    modelo.addRow(new Object[]{
-                        t.getFechaHora().format(fmt),
-                        t.getPaciente().getApellido() + " " + t.getPaciente().getNombre(),
-                        "$" + t.getCosto()
-                    });
-                } else {
-                    modelo.addRow(new Object[]{
-                        t.getFechaHora().format(fmt),
-                        t.getMedico().getApellido(),
-                        t.getPaciente().getApellido(),
-                        "$" + t.getCosto()
-                    });
-                }
-            }
-        } catch (Exception e) { e.printStackTrace(); }
+    /** Exporta a CSV los mismos turnos que muestra la tabla (todo el historial, no solo lo cargado). */
+    private void exportarTurnos() {
+        Path destino = SelectorArchivoCsv.elegir(this, "turnos.csv");
+        if (destino == null) return;
+        int idMedico = (usuarioActual.getRol() == Rol.MEDICO) ? usuarioActual.getId() : -1;
+        int idPaciente = (usuarioActual.getRol() == Rol.PACIENTE) ? usuarioActual.getId() : -1;
+
+        btnExportar.setEnabled(false);
+        exportador.cargar(
+            () -> new ExportacionService().exportarTurnos(destino, idMedico, idPaciente),
+            r -> {
+                btnExportar.setEnabled(true);
+                JOptionPane.showMessageDialog(this, "Exportación terminada: " + r);
+            },
+            e -> {
+                btnExportar.setEnabled(true);
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Error al exportar: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            });
+    }
+
+    private void mostrarError(Exception e) {
+        e.printStackTrace();
+        JOptionPane.showMessageDialog(this, "Error al cargar turnos: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
     }
-}
\ No newline at end of file
+}
@@ -7,6 +7,7 @@ package ui;
 import base.Rol;
 import base.Usuario;
 import exceptions.DAOException;
+import service.ReporteService;
 import service.UsuarioService;
 import service.TurnoService;
 
@@ -27,11 +28,15 @@ public class PantallaPrincipal extends JFrame {
     private UsuarioService usuarioService;
     private final TurnoService turnoService;
 
+    // Tareas largas del menú (reconstruir el resumen) fuera del EDT
+    private final CargadorAsincrono cargador = new CargadorAsincrono("PantallaPrincipal");
+
     // Menús
     private JMenuItem miMedicos;
     private JMenuItem miPacientes;
     private JMenuItem miTurnos;
     private JMenuItem miReportes;
+    private JMenuItem miReconstruirResumen;
     private JMenuItem miSalir;
 
     public PantallaPrincipal(Usuario usuario) {
@@ -66,6 +71,7 @@ public class PantallaPrincipal extends JFrame {
         miPacientes = new JMenuItem("Pacientes");
         miTurnos = new JMenuItem("Turnos");
         miReportes = new JMenuItem("Reportes");
+        miReconstruirResumen = new JMenuItem("Reconstruir resumen de recaudación");
 
         // Lógica de roles
         if (loggedUser.getRol() == Rol.ADMIN) {
@@ -73,6 +79,7 @@ public class PantallaPrincipal extends JFrame {
             mnGestion.add(miPacientes);
             mnGestion.addSeparator();
             mnGestion.add(miReportes);
+            mnGestion.add(miReconstruirResumen);
         }
         mnGestion.add(miTurnos); 
 
@@ -81,6 +88,7 @@ public class PantallaPrincipal extends JFrame {
         miPacientes.addActionListener(e -> abrirPacientes());
         miTurnos.addActionListener(e -> abrirTurnos());
         miReportes.addActionListener(e -> abrirReportes());
+        miReconstruirResumen.addActionListener(e -> reconstruirResumen());
 
         // --- ESTRUCTURA PRINCIPAL (LAYOUT) ---
         
@@ -99,6 +107,7 @@ public class PantallaPrincipal extends JFrame {
         JLabel lblFooter = new JLabel("TP - UP - Joaquin Carruego - 2025");
         lblFooter.setFont(new Font("Arial", Font.BOLD, 12));
         footerPanel.add(lblFooter);
+        footerPanel.add(cargador.getIndicador());
         
         mainPanel.add(footerPanel, BorderLayout.SOUTH);
 
@@ -158,4 +167,29 @@ public class PantallaPrincipal extends JFrame {
             ex.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Recalcula el resumen de recaudación que usan los reportes (en segundo plano: con muchos
+     * turnos tarda unos segundos).
+     */
+    private void reconstruirResumen() {
+        int r = JOptionPane.showConfirmDialog(this,
+                "Se recalculará el resumen de recaudación a partir de todos los turnos. ¿Continuar?",
+                "Reconstruir resumen", JOptionPane.YES_NO_OPTION);
+        if (r != JOptionPane.YES_OPTION) return;
+
+        miReconstruirResumen.setEnabled(false);
+        cargador.cargar(
+            () -> new ReporteService().reconstruirResumenRecaudacion(),
+            filas -> {
+                miReconstruirResumen.setEnabled(true);
+                JOptionPane.showMessageDialog(this, "Resumen reconstruido: " + filas + " días con turnos.");
+            },
+            ex -> {
+                miReconstruirResumen.setEnabled(true);
+                ex.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Error al reconstruir el resumen: " + ex.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            });
+    }
+}
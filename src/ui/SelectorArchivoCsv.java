@@ -0,0 +1,40 @@
+package ui;
+
+import java.awt.Component;
+import java.io.File;
+import java.nio.file.Path;
+
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+/**
+ * Diálogo "Guardar como" para las exportaciones a CSV de las pantallas.
+ */
+public class SelectorArchivoCsv {
+
+    private SelectorArchivoCsv() {}
+
+    /**
+     * Pide dónde guardar el archivo (agrega ".csv" si falta y confirma antes de reemplazar uno existente).
+     * @return el archivo elegido, o null si se canceló
+     */
+    public static Path elegir(Component padre, String nombreSugerido) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Exportar a CSV (Excel)");
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV (Excel)", "csv"));
+        chooser.setSelectedFile(new File(nombreSugerido));
+        if (chooser.showSaveDialog(padre) != JFileChooser.APPROVE_OPTION) return null;
+
+        File archivo = chooser.getSelectedFile();
+        if (!archivo.getName().toLowerCase().endsWith(".csv")) {
+            archivo = new File(archivo.getParentFile(), archivo.getName() + ".csv");
+        }
+        if (archivo.exists()) {
+            int r = JOptionPane.showConfirmDialog(padre, "El archivo " + archivo.getName() + " ya existe. ¿Reemplazarlo?",
+                    "Exportar", JOptionPane.YES_NO_OPTION);
+            if (r != JOptionPane.YES_OPTION) return null;
+        }
+        return archivo.toPath();
+    }
+}
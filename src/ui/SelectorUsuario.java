@@ -0,0 +1,196 @@
+package ui;
+
+import java.awt.BorderLayout;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.swing.DefaultListModel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import base.Rol;
+import base.Usuario;
+import service.UsuarioService;
+
+/**
+ * Campo de texto con autocompletado para elegir un usuario (paciente o médico) sin cargar
+ * la lista completa: mientras se escribe, busca en {@link UsuarioService#buscarUsuarios}
+ * (por nombre, apellido o DNI) y despliega los {@value #MAXIMO_RESULTADOS} más relevantes.
+ *
+ * No consulta nada hasta que se escribe. Las búsquedas salen con una pequeña demora
+ * (si se sigue escribiendo, solo va la última) y fuera del EDT, con {@link CargadorAsincrono}.
+ * Flechas arriba/abajo recorren la lista, Enter o clic eligen y Escape la cierra.
+ * Si se edita el texto después de elegir, la selección se borra.
+ *
+ * @param <T> Paciente o Medico, según el rol que se busca
+ */
+public class SelectorUsuario<T extends Usuario> extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAXIMO_RESULTADOS = 15;
+
+    private final UsuarioService usuarioService;
+    private final Rol rol;
+    private final Class<T> tipo;
+
+    private final JTextField campo = new JTextField();
+    private final DefaultListModel<T> resultados = new DefaultListModel<>();
+    private final JList<T> lista = new JList<>(resultados);
+    private final JPopupMenu desplegable = new JPopupMenu();
+    private final CargadorAsincrono cargador = new CargadorAsincrono("SelectorUsuario");
+
+    private T seleccionado;
+    private boolean ignorarCambios; // mientras se escribe el texto del elegido (no es una búsqueda)
+    private final List<Consumer<T>> alCambiar = new ArrayList<>();
+
+    /**
+     * @param rol  rol de los usuarios que se ofrecen (PACIENTE o MEDICO)
+     * @param tipo clase correspondiente (Paciente.class o Medico.class)
+     */
+    public SelectorUsuario(UsuarioService usuarioService, Rol rol, Class<T> tipo) {
+        super(new BorderLayout());
+        this.usuarioService = usuarioService;
+        this.rol = rol;
+        this.tipo = tipo;
+
+        campo.setToolTipText("Escriba nombre, apellido o DNI");
+        add(campo, BorderLayout.CENTER);
+
+        lista.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        lista.setFocusable(false);
+        lista.setVisibleRowCount(8);
+        desplegable.setFocusable(false); // el foco queda en el campo para seguir escribiendo
+        desplegable.add(new JScrollPane(lista));
+
+        campo.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { textoCambiado(); }
+            @Override public void removeUpdate(DocumentEvent e) { textoCambiado(); }
+            @Override public void changedUpdate(DocumentEvent e) { textoCambiado(); }
+        });
+        campo.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                teclaPresionada(e);
+            }
+        });
+        lista.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int i = lista.locationToIndex(e.getPoint());
+                if (i >= 0) elegir(resultados.get(i));
+            }
+        });
+    }
+
+    /** Usuario elegido, o null si no se eligió ninguno (o se borró el texto). */
+    public T getSeleccionado() {
+        return seleccionado;
+    }
+
+    /** true si hay algo escrito pero no se eligió ningún usuario de la lista. */
+    public boolean hayTextoSinElegir() {
+        return seleccionado == null && !campo.getText().isBlank();
+    }
+
+    /** Elige un usuario desde el código (null = limpiar), sin buscar. */
+    public void setSeleccionado(T usuario) {
+        desplegable.setVisible(false);
+        cargador.cancelar();
+        ignorarCambios = true;
+        campo.setText(usuario == null ? "" : texto(usuario));
+        ignorarCambios = false;
+        cambiarSeleccion(usuario);
+    }
+
+    /** Se llama (en el EDT) cada vez que cambia el usuario elegido, con el nuevo o null. */
+    public void addCambioListener(Consumer<T> listener) {
+        alCambiar.add(listener);
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+        campo.setEnabled(enabled);
+        if (!enabled) desplegable.setVisible(false);
+    }
+
+    private void textoCambiado() {
+        if (ignorarCambios) return;
+        // Se está escribiendo otra cosa: lo elegido antes ya no vale
+        cambiarSeleccion(null);
+
+        String texto = campo.getText().trim();
+        if (texto.isEmpty()) {
+            cargador.cancelar();
+            desplegable.setVisible(false);
+            return;
+        }
+        cargador.cargarDiferido(
+            () -> usuarioService.buscarUsuarios(texto, rol, MAXIMO_RESULTADOS),
+            this::mostrarResultados,
+            e -> {
+                e.printStackTrace();
+                desplegable.setVisible(false);
+            });
+    }
+
+    private void mostrarResultados(List<Usuario> encontrados) {
+        resultados.clear();
+        for (Usuario u : encontrados) {
+            if (tipo.isInstance(u)) resultados.addElement(tipo.cast(u));
+        }
+        if (resultados.isEmpty() || !campo.isShowing()) {
+            desplegable.setVisible(false);
+            return;
+        }
+        lista.setSelectedIndex(0);
+        desplegable.setPopupSize(campo.getWidth(), desplegable.getPreferredSize().height);
+        desplegable.show(campo, 0, campo.getHeight());
+    }
+
+    private void teclaPresionada(KeyEvent e) {
+        if (!desplegable.isVisible()) return;
+        int i = lista.getSelectedIndex();
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_DOWN -> moverSeleccion(Math.min(i + 1, resultados.size() - 1));
+            case KeyEvent.VK_UP -> moverSeleccion(Math.max(i - 1, 0));
+            case KeyEvent.VK_ENTER -> {
+                if (i >= 0) elegir(resultados.get(i));
+            }
+            case KeyEvent.VK_ESCAPE -> desplegable.setVisible(false);
+            default -> { return; }
+        }
+        e.consume();
+    }
+
+    private void moverSeleccion(int i) {
+        lista.setSelectedIndex(i);
+        lista.ensureIndexIsVisible(i);
+    }
+
+    private void elegir(T usuario) {
+        setSeleccionado(usuario);
+    }
+
+    private void cambiarSeleccion(T usuario) {
+        if (usuario == seleccionado) return;
+        seleccionado = usuario;
+        for (Consumer<T> l : alCambiar) l.accept(usuario);
+    }
+
+    /** Texto con que se muestra un usuario (el DNI ayuda a distinguir homónimos). */
+    private static String texto(Usuario u) {
+        return u + " - DNI " + u.getDni();
+    }
+}
@@ -0,0 +1,355 @@
+package ui;
+
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+import base.Rol;
+import base.Turno;
+import base.Usuario;
+import dao.ClaveTurno;
+import dao.Pagina;
+import service.TurnoService;
+import utils.EventoRecargaPanel;
+
+/**
+ * Modelo de la grilla de turnos que no carga todo el historial: trae de la base solo las
+ * páginas que se están viendo, a medida que se hace scroll, y arma el texto de cada celda
+ * recién cuando la tabla la dibuja.
+ *
+ * Al abrir se piden en paralelo la primera página (se muestra enseguida) y la cantidad de
+ * turnos, que es una consulta chica (ver {@link TurnoService#contarTurnos}); con ella la barra
+ * de scroll toma su tamaño real. Cada página se pide por clave, a partir del último turno de la
+ * anterior. Para saltar lejos (arrastrando la barra) se busca esa clave desde la posición
+ * conocida más cercana, que puede ser el principio, el final o una página ya vista, y se guarda
+ * para los próximos saltos.
+ *
+ * La memoria no crece con el tamaño del historial: como máximo {@value #PAGINAS_EN_MEMORIA}
+ * páginas (las menos usadas se descartan) y {@value #MAXIMO_CLAVES} posiciones conocidas.
+ * Al registrar un turno ({@link #turnoAgregado}) solo se descartan las páginas desde su fecha en
+ * adelante, que son las que se corren una fila.
+ *
+ * Todo el estado se usa solo desde el EDT; las consultas corren en segundo plano.
+ */
+public class TurnosTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private static final int TAMANIO_PAGINA = 200;
+    private static final int PAGINAS_EN_MEMORIA = 20;
+    // Consultas de páginas en paralelo como máximo (al arrastrar la barra no se piden todas las intermedias)
+    private static final int MAXIMO_EN_CURSO = 3;
+    // Posiciones con clave conocida que se guardan como máximo para saltar a páginas lejanas
+    private static final int MAXIMO_CLAVES = 512;
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final TurnoService turnoService;
+    private final Rol rol;
+    private final int idMedico;   // -1 = todos
+    private final int idPaciente; // -1 = todos
+    private final String[] columnas;
+    private final Consumer<Exception> alFallar;
+
+    // El total se carga con un CargadorAsincrono: si se recarga varias veces seguidas, se hace una sola consulta
+    private final CargadorAsincrono cargadorTotal = new CargadorAsincrono("Turnos.total");
+    // Nombre de las cargas de página en EventoRecargaPanel
+    private static final String PANTALLA_PAGINA = "Turnos.pagina";
+
+    // Páginas cargadas, en orden de uso (LRU): al pasar el máximo se descarta la usada hace más tiempo
+    private final Map<Integer, List<Turno>> paginas = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Turno>> eldest) {
+            return size() > PAGINAS_EN_MEMORIA;
+        }
+    };
+    private final Set<Integer> enCurso = new HashSet<>();
+    // Páginas que se pidieron con el máximo de consultas en curso: se vuelven a pedir si siguen a la vista
+    private final Set<Integer> postergadas = new HashSet<>();
+    // Páginas cuya consulta falló: no se reintentan hasta recargar (si no, cada repintado mostraría el error de nuevo)
+    private final Set<Integer> fallidas = new HashSet<>();
+
+    // Fila -> clave del turno en esa fila, para pedir la página siguiente sin recorrer las anteriores
+    private final TreeMap<Integer, ClaveTurno> claves = new TreeMap<>();
+
+    private boolean totalCargado; // false hasta que llega la cantidad de turnos
+    private boolean finConocido;  // ya se cargó la última página: filas es exacto
+    private int filas;
+    private int generacion;       // cambia con cada recarga; las respuestas viejas se ignoran
+
+    /** Resultado de pedir una página: la clave desde la que se listó y la página (null si no llega tan lejos). */
+    private record Carga(ClaveTurno desde, Pagina<Turno> pagina) {}
+
+    /**
+     * @param usuarioActual define qué turnos se ven (los propios para médico y paciente, todos para admin) y las columnas
+     * @param alFallar      qué hacer si falla una consulta (se llama en el EDT)
+     */
+    public TurnosTableModel(TurnoService turnoService, Usuario usuarioActual, Consumer<Exception> alFallar) {
+        this.turnoService = turnoService;
+        this.rol = usuarioActual.getRol();
+        this.idMedico = (rol == Rol.MEDICO) ? usuarioActual.getId() : -1;
+        this.idPaciente = (rol == Rol.PACIENTE) ? usuarioActual.getId() : -1;
+        this.alFallar = alFallar;
+        if (rol == Rol.PACIENTE) {
+            columnas = new String[]{"Fecha y Hora", "Médico", "Costo"};
+        } else if (rol == Rol.MEDICO) {
+            columnas = new String[]{"Fecha y Hora", "Paciente", "Costo"};
+        } else {
+            columnas = new String[]{"Fecha y Hora", "Médico", "Paciente", "Costo"};
+        }
+    }
+
+    /** Barra "cargando" que se muestra mientras se cuenta el total de turnos. */
+    public JProgressBar getIndicador() {
+        return cargadorTotal.getIndicador();
+    }
+
+    /** Descarta lo cargado y vuelve a leer desde la base (al abrir la pantalla). */
+    public void recargar() {
+        generacion++;
+        paginas.clear();
+        enCurso.clear();
+        postergadas.clear();
+        fallidas.clear();
+        claves.clear();
+        totalCargado = false;
+        finConocido = false;
+        pedirPagina(0);
+        cargadorTotal.cargarDiferido(
+            () -> turnoService.contarTurnos(idMedico, idPaciente),
+            this::totalCargado, alFallar);
+    }
+
+    /**
+     * Suma un turno recién registrado sin volver a leer todo: las páginas y claves anteriores a
+     * su fecha siguen valiendo; desde ahí en adelante todo se corre una fila y se vuelve a pedir
+     * cuando se vea. Si el turno no es de este listado no cambia nada.
+     */
+    public void turnoAgregado(Turno turno) {
+        if (idMedico != -1 && turno.getMedico().getId() != idMedico) return;
+        if (idPaciente != -1 && turno.getPaciente().getId() != idPaciente) return;
+        if (!totalCargado) {
+            // El total todavía no llegó y puede incluir o no este turno: se cuenta de nuevo
+            recargar();
+            return;
+        }
+        ClaveTurno nueva = ClaveTurno.de(turno);
+        generacion++;
+        enCurso.clear();
+        postergadas.clear();
+        fallidas.clear();
+        // Una página incompleta puede ser la última: el turno nuevo puede ir al final de ella
+        paginas.values().removeIf(p -> p.size() < TAMANIO_PAGINA
+                || ClaveTurno.de(p.get(p.size() - 1)).compareTo(nueva) > 0);
+        claves.values().removeIf(c -> c.compareTo(nueva) > 0);
+        filas++;
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnas.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnas[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int nroPagina = row / TAMANIO_PAGINA;
+        List<Turno> pagina = paginas.get(nroPagina);
+        if (pagina == null) {
+            if (fallidas.contains(nroPagina)) return (column == 0) ? "Error al cargar" : "";
+            pedirPagina(nroPagina);
+            return (column == 0) ? "Cargando..." : "";
+        }
+        int fila = row % TAMANIO_PAGINA;
+        // Puede faltar alguna fila si un turno quedó sin médico o paciente (el listado los une con usuarios)
+        if (fila >= pagina.size()) return "";
+        return formatear(pagina.get(fila), column);
+    }
+
+    /** Turno de esa fila, o null si su página todavía no está cargada. */
+    public Turno getTurno(int row) {
+        List<Turno> pagina = paginas.get(row / TAMANIO_PAGINA);
+        int fila = row % TAMANIO_PAGINA;
+        return (pagina != null && fila < pagina.size()) ? pagina.get(fila) : null;
+    }
+
+    /** Texto de la celda, armado recién cuando la tabla lo pide. */
+    private Object formatear(Turno t, int column) {
+        if (column == 0) return t.getFechaHora().format(FORMATO_FECHA);
+        if (column == columnas.length - 1) return "$" + t.getCosto();
+        if (rol == Rol.PACIENTE) {
+            return t.getMedico().getApellido() + " " + t.getMedico().getNombre();
+        } else if (rol == Rol.MEDICO) {
+            return t.getPaciente().getApellido() + " " + t.getPaciente().getNombre();
+        } else {
+            return (column == 1) ? t.getMedico().getApellido() : t.getPaciente().getApellido();
+        }
+    }
+
+    private void pedirPagina(int nroPagina) {
+        if (enCurso.contains(nroPagina)) return;
+        // Sin el total solo se muestra la primera página
+        if (nroPagina > 0 && !totalCargado) return;
+        if (enCurso.size() >= MAXIMO_EN_CURSO) {
+            postergadas.add(nroPagina);
+            return;
+        }
+        enCurso.add(nroPagina);
+
+        // La página empieza después de la fila anterior a la primera suya
+        final int anterior = nroPagina * TAMANIO_PAGINA - 1;
+        ClaveTurno partida = null;
+        int saltar = 0; // 0 = la clave de partida ya es la de la fila anterior
+        if (nroPagina > 0) {
+            partida = claves.get(anterior);
+            if (partida == null) {
+                // Desde la posición conocida más cercana: la de antes (o el principio) o la de después (o el final)
+                Map.Entry<Integer, ClaveTurno> antes = claves.floorEntry(anterior);
+                Map.Entry<Integer, ClaveTurno> despues = claves.ceilingEntry(anterior);
+                int desdeAntes = (antes != null) ? antes.getKey() : -1;
+                int desdeDespues = (despues != null) ? despues.getKey() : filas;
+                if (desdeDespues - anterior < anterior - desdeAntes) {
+                    partida = (despues != null) ? despues.getValue() : null;
+                    saltar = anterior - desdeDespues;
+                } else {
+                    partida = (antes != null) ? antes.getValue() : null;
+                    saltar = anterior - desdeAntes;
+                }
+            }
+        }
+
+        final int miGeneracion = generacion;
+        final ClaveTurno desde = partida;
+        final int distancia = saltar;
+        final EventoRecargaPanel evento = EventoRecargaPanel.iniciar();
+        new SwingWorker<Carga, Void>() {
+            @Override
+            protected Carga doInBackground() throws Exception {
+                evento.setHiloCarga(Thread.currentThread());
+                ClaveTurno clave = desde;
+                if (distancia != 0) {
+                    clave = turnoService.buscarClaveTurno(idMedico, idPaciente, desde, distancia);
+                    if (clave == null) return new Carga(null, null);
+                }
+                return new Carga(clave, turnoService.listarPaginaTurnos(idMedico, idPaciente, null, null, clave, TAMANIO_PAGINA));
+            }
+
+            @Override
+            protected void done() {
+                if (miGeneracion != generacion) {
+                    evento.terminar(PANTALLA_PAGINA, EventoRecargaPanel.DESCARTADA, 0);
+                    return;
+                }
+                enCurso.remove(nroPagina);
+                long inicioEdt = System.nanoTime();
+                String resultado = EventoRecargaPanel.OK;
+                try {
+                    Carga carga = get();
+                    if (carga.pagina() == null) {
+                        // El total era una estimación por arriba: el listado termina antes de esta página
+                        ajustarFilas(Math.min(filas, nroPagina * TAMANIO_PAGINA));
+                    } else {
+                        if (distancia != 0) recordarClave(anterior, carga.desde());
+                        paginaCargada(nroPagina, carga.pagina());
+                    }
+                } catch (ExecutionException e) {
+                    resultado = EventoRecargaPanel.ERROR;
+                    fallidas.add(nroPagina);
+                    alFallar.accept(e.getCause() instanceof Exception ex ? ex : e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                evento.terminar(PANTALLA_PAGINA, resultado, System.nanoTime() - inicioEdt);
+                reintentarPostergadas();
+            }
+        }.execute();
+    }
+
+    private void paginaCargada(int nroPagina, Pagina<Turno> pagina) {
+        List<Turno> elementos = pagina.getElementos();
+        paginas.put(nroPagina, elementos);
+        int primera = nroPagina * TAMANIO_PAGINA;
+        if (elementos.size() == TAMANIO_PAGINA) {
+            // La clave del último sirve para pedir la página siguiente directo
+            recordarClave(primera + TAMANIO_PAGINA - 1, ClaveTurno.de(pagina.getUltimo()));
+        }
+        if (!pagina.hayMas()) {
+            // Última página: ahora el total es exacto (corrige una estimación)
+            finConocido = true;
+            ajustarFilas(primera + elementos.size());
+        } else if (!totalCargado) {
+            // Todavía no sabemos el total: mostramos la primera página así la pantalla abre enseguida
+            ajustarFilas(elementos.size());
+        } else if (filas <= primera + elementos.size()) {
+            // Se registraron turnos después de contar: hay por lo menos una fila más
+            ajustarFilas(primera + elementos.size() + 1);
+        }
+        int ultima = Math.min(filas, primera + TAMANIO_PAGINA) - 1;
+        if (ultima >= primera) fireTableRowsUpdated(primera, ultima);
+    }
+
+    private void totalCargado(int total) {
+        totalCargado = true;
+        int antes = filas;
+        // Si ya se vio la última página, el total que se contó no agrega nada
+        if (!finConocido) ajustarFilas(total);
+        // Las filas que estaban "Cargando..." se vuelven a dibujar y piden su página
+        int visibles = Math.min(antes, filas);
+        if (visibles > 0) fireTableRowsUpdated(0, visibles - 1);
+    }
+
+    /** Cambia la cantidad de filas y avisa a la tabla las que se agregan o se quitan al final. */
+    private void ajustarFilas(int nuevas) {
+        int antes = filas;
+        filas = nuevas;
+        if (filas > antes) {
+            fireTableRowsInserted(antes, filas - 1);
+        } else if (filas < antes) {
+            fireTableRowsDeleted(filas, antes - 1);
+        }
+    }
+
+    /** Guarda la clave de una fila; si pasa del máximo, olvida la posición más lejana a esa fila. */
+    private void recordarClave(int fila, ClaveTurno clave) {
+        claves.put(fila, clave);
+        if (claves.size() > MAXIMO_CLAVES) {
+            claves.remove((fila - claves.firstKey() > claves.lastKey() - fila) ? claves.firstKey() : claves.lastKey());
+        }
+    }
+
+    /** Avisa que cambiaron las filas de las páginas postergadas: si siguen a la vista, la tabla las vuelve a pedir. */
+    private void reintentarPostergadas() {
+        if (postergadas.isEmpty()) return;
+        Set<Integer> pendientes = new HashSet<>(postergadas);
+        postergadas.clear();
+        for (int nroPagina : pendientes) {
+            int primera = nroPagina * TAMANIO_PAGINA;
+            int ultima = Math.min(filas, primera + TAMANIO_PAGINA) - 1;
+            if (ultima >= primera) fireTableRowsUpdated(primera, ultima);
+        }
+    }
+}
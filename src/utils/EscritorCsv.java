@@ -0,0 +1,157 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escribe un archivo CSV fila por fila, pensado para exportaciones grandes (millones de filas).
+ *
+ * Formato para que Excel en español lo abra directo con doble clic:
+ * - UTF-8 con BOM al principio (sin el BOM, Excel muestra mal los acentos).
+ * - Separador ';' y decimales con coma.
+ * - Fin de línea CRLF; los campos con ';', comillas o saltos de línea van entre comillas.
+ *
+ * Cada fila se arma en un StringBuilder reutilizado y se codifica directo a un buffer de
+ * {@value #TAMANIO_BUFFER} bytes que se vuelca al archivo por un FileChannel cuando se llena:
+ * la memoria usada no depende de la cantidad de filas.
+ *
+ * Uso: {@code escritor.campo(a).campo(b).finFila();} No es thread-safe.
+ */
+public class EscritorCsv implements AutoCloseable {
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+    private static final byte[] BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+    private static final char SEPARADOR = ';';
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+    private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder linea = new StringBuilder(256);
+    private boolean primerCampo = true;
+    private long filas;
+    private long bytes;
+
+    /** Crea (o reemplaza) el archivo y escribe el BOM. */
+    public EscritorCsv(Path destino) throws IOException {
+        canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        buffer.put(BOM);
+    }
+
+    /** Escribe la fila de encabezados. No cuenta en {@link #getFilas()}. */
+    public EscritorCsv encabezado(String... columnas) throws IOException {
+        for (String c : columnas) campo(c);
+        terminarLinea();
+        return this;
+    }
+
+    /** Campo de texto (null = vacío). Se pone entre comillas solo si hace falta. */
+    public EscritorCsv campo(String valor) {
+        separar();
+        if (valor == null) return this;
+        if (necesitaComillas(valor)) {
+            linea.append('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == '"') linea.append('"');
+                linea.append(c);
+            }
+            linea.append('"');
+        } else {
+            linea.append(valor);
+        }
+        return this;
+    }
+
+    public EscritorCsv campo(long valor) {
+        separar();
+        linea.append(valor);
+        return this;
+    }
+
+    /** Importe con dos decimales y coma decimal (sin String.format: se llama millones de veces). */
+    public EscritorCsv campo(double importe) {
+        separar();
+        long centavos = Math.round(importe * 100);
+        if (centavos < 0) {
+            linea.append('-');
+            centavos = -centavos;
+        }
+        long resto = centavos % 100;
+        linea.append(centavos / 100).append(',');
+        if (resto < 10) linea.append('0');
+        linea.append(resto);
+        return this;
+    }
+
+    /** Termina la fila actual y la pasa al buffer (se escribe al archivo cuando se llena). */
+    public void finFila() throws IOException {
+        terminarLinea();
+        filas++;
+    }
+
+    private void terminarLinea() throws IOException {
+        linea.append('\r').append('\n');
+        CharBuffer cb = CharBuffer.wrap(linea);
+        while (true) {
+            CoderResult r = codificador.encode(cb, buffer, false);
+            if (r.isOverflow()) {
+                volcar();
+            } else if (r.isUnderflow()) {
+                break;
+            } else {
+                r.throwException(); // carácter que no se puede codificar (no pasa con UTF-8)
+            }
+        }
+        linea.setLength(0);
+        primerCampo = true;
+    }
+
+    /** Filas de datos escritas (sin el encabezado). */
+    public long getFilas() {
+        return filas;
+    }
+
+    /** Bytes escritos al archivo hasta ahora (lo que queda en el buffer se suma al cerrar). */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /** Escribe lo que queda en el buffer y cierra el archivo. */
+    @Override
+    public void close() throws IOException {
+        try {
+            volcar();
+        } finally {
+            canal.close();
+        }
+    }
+
+    private void separar() {
+        if (!primerCampo) linea.append(SEPARADOR);
+        primerCampo = false;
+    }
+
+    private void volcar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytes += canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static boolean necesitaComillas(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == SEPARADOR || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
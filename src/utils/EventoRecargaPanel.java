@@ -0,0 +1,64 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de Java Flight Recorder por cada recarga de una pantalla ({@code ui.CargadorAsincrono}).
+ * Dura desde el pedido hasta que el resultado se aplicó en el EDT. {@link #hiloCarga} es el hilo
+ * donde corrió la consulta: sus eventos {@link EventoSql} en ese intervalo son los de esta recarga.
+ */
+@Name("turnera.RecargaPanel")
+@Label("Recarga de pantalla")
+@Category({"Turnera", "Interfaz"})
+@Description("Carga de datos de una pantalla, del pedido a la tabla actualizada")
+@StackTrace(false)
+public class EventoRecargaPanel extends Event {
+
+    public static final String OK = "OK";
+    public static final String ERROR = "ERROR";
+    public static final String DESCARTADA = "DESCARTADA";
+
+    @Label("Pantalla")
+    private String pantalla;
+
+    @Label("Resultado")
+    @Description("OK, ERROR o DESCARTADA (llegó otra recarga antes de que terminara)")
+    private String resultado;
+
+    @Label("Hilo de carga")
+    private Thread hiloCarga;
+
+    @Label("Tiempo en el EDT")
+    @Description("Lo que tardó aplicar el resultado en la pantalla (la ventana no responde mientras tanto)")
+    @Timespan(Timespan.NANOSECONDS)
+    private long tiempoEdt;
+
+    /** Crea el evento y empieza a medir (en el EDT, al pedir la carga). */
+    public static EventoRecargaPanel iniciar() {
+        EventoRecargaPanel evento = new EventoRecargaPanel();
+        evento.begin();
+        return evento;
+    }
+
+    /** Anota el hilo donde corre la consulta; se llama desde ese hilo. */
+    public void setHiloCarga(Thread hiloCarga) {
+        this.hiloCarga = hiloCarga;
+    }
+
+    /** Termina de medir (en el EDT) y lo graba si supera el umbral configurado. */
+    public void terminar(String pantalla, String resultado, long tiempoEdt) {
+        end();
+        if (shouldCommit()) {
+            this.pantalla = pantalla;
+            this.resultado = resultado;
+            this.tiempoEdt = tiempoEdt;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package utils;
+
+import java.time.LocalDate;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder por cada reporte de recaudación pedido
+ * ({@code service.ReporteService#generarResumenRecaudacion}), salga o no de la cache.
+ */
+@Name("turnera.Reporte")
+@Label("Reporte de recaudación")
+@Category({"Turnera", "Servicios"})
+@Description("Reporte generado: período, médico y filas leídas")
+public class EventoReporte extends Event {
+
+    @Label("Desde")
+    private String desde;
+
+    @Label("Hasta")
+    private String hasta;
+
+    @Label("Médico")
+    @Description("-1 = todos los médicos")
+    private int idMedico;
+
+    @Label("Filas")
+    @Description("Filas del resumen diario que se leyeron para armar el reporte (-1 si falló)")
+    private int filas;
+
+    @Label("Desde cache")
+    private boolean desdeCache;
+
+    /** Crea el evento y empieza a medir. */
+    public static EventoReporte iniciar() {
+        EventoReporte evento = new EventoReporte();
+        evento.begin();
+        return evento;
+    }
+
+    /** Termina de medir y lo graba si supera el umbral configurado. */
+    public void terminar(LocalDate desde, LocalDate hasta, int idMedico, int filas, boolean desdeCache) {
+        end();
+        if (shouldCommit()) {
+            this.desde = desde.toString();
+            this.hasta = hasta.toString();
+            this.idMedico = idMedico;
+            this.filas = filas;
+            this.desdeCache = desdeCache;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package utils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/**
+ * Evento de Java Flight Recorder por cada intento de reserva de un turno
+ * ({@code service.TurnoService#registrarTurno} y {@code registrarTurnos}).
+ */
+@Name("turnera.Reserva")
+@Label("Reserva de turno")
+@Category({"Turnera", "Servicios"})
+@Description("Intento de reserva: médico, horario y resultado")
+@StackTrace(false)
+public class EventoReserva extends Event {
+
+    public static final String RESERVADO = "RESERVADO";
+    public static final String OCUPADO = "OCUPADO";
+    public static final String ERROR = "ERROR";
+
+    private static final EventType TIPO = EventType.getEventType(EventoReserva.class);
+
+    @Label("Médico")
+    private int idMedico;
+
+    @Label("Horario")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    private long horario;
+
+    @Label("Sobreturno")
+    private boolean sobreturno;
+
+    @Label("Resultado")
+    @Description("RESERVADO, OCUPADO (el horario ya estaba tomado) o ERROR")
+    private String resultado;
+
+    @Label("Tamaño del lote")
+    @Description("1 si fue una reserva suelta; en un lote la duración es la del lote entero")
+    private int lote;
+
+    /** Si alguna grabación tiene el evento activo. */
+    public static boolean isHabilitado() {
+        return TIPO.isEnabled();
+    }
+
+    /** Crea el evento y empieza a medir. */
+    public static EventoReserva iniciar() {
+        EventoReserva evento = new EventoReserva();
+        evento.begin();
+        return evento;
+    }
+
+    /** Termina de medir y lo graba si supera el umbral configurado. */
+    public void terminar(int idMedico, LocalDateTime horario, boolean sobreturno, String resultado, int lote) {
+        end();
+        if (shouldCommit()) {
+            this.idMedico = idMedico;
+            this.horario = horario.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            this.sobreturno = sobreturno;
+            this.resultado = resultado;
+            this.lote = lote;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder por cada llamada a un DAO (una consulta o escritura en la base).
+ * Lo registran los decoradores {@code daoImp.TurnoDAOMedido} y {@code daoImp.UsuarioDAOMedido}.
+ * La duración es la del evento; en JMC se ve en el hilo que hizo la consulta.
+ */
+@Name("turnera.Sql")
+@Label("Consulta SQL")
+@Category({"Turnera", "Base de datos"})
+@Description("Llamada a un DAO: sentencia, filas y tiempo")
+@StackTrace(false)
+public class EventoSql extends Event {
+
+    private static final EventType TIPO = EventType.getEventType(EventoSql.class);
+
+    @Label("Sentencia")
+    @Description("DAO y método, por ejemplo TurnoDAO.listarPorMedico")
+    private String sentencia;
+
+    @Label("Filas")
+    @Description("Filas leídas o escritas (-1 si falló)")
+    private int filas;
+
+    /** Si alguna grabación tiene el evento activo (se puede activar en caliente con jcmd). */
+    public static boolean isHabilitado() {
+        return TIPO.isEnabled();
+    }
+
+    /** Crea el evento y empieza a medir. */
+    public static EventoSql iniciar() {
+        EventoSql evento = new EventoSql();
+        evento.begin();
+        return evento;
+    }
+
+    /** Termina de medir y lo graba si supera el umbral configurado. */
+    public void terminar(MetricaOperacion operacion, int filas) {
+        end();
+        if (shouldCommit()) {
+            this.sentencia = operacion.getNombre();
+            this.filas = filas;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package utils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversión de fechas al formato numérico con que se guardan los turnos (columna fecha_min):
+ * minutos desde 1970-01-01 00:00. Se toma la hora "de pared" tal cual, sin zona horaria
+ * (igual que el texto yyyy-MM-dd HH:mm:ss y que strftime('%s', ...) de SQLite), así los
+ * cambios de horario no corren los turnos.
+ */
+public class FechaUtils {
+
+    private FechaUtils() {}
+
+    /** Minutos desde 1970-01-01 00:00 (los segundos se descartan). */
+    public static long aMinutos(LocalDateTime fechaHora) {
+        return Math.floorDiv(fechaHora.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /** Inversa de {@link #aMinutos(LocalDateTime)}. */
+    public static LocalDateTime desdeMinutos(long minutos) {
+        return LocalDateTime.ofEpochSecond(minutos * 60, 0, ZoneOffset.UTC);
+    }
+}
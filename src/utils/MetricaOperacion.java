@@ -0,0 +1,64 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Llamadas, errores y latencias de una operación (un método de un DAO o de un servicio).
+ * Se obtiene con {@link RegistroMetricas#metrica} una sola vez (por ejemplo en un campo
+ * static) y se usa así, sin crear objetos en cada llamada:
+ * <pre>
+ *   long inicio = METRICA.iniciar();
+ *   try {
+ *       return dao.buscar(...);
+ *   } catch (Exception e) {
+ *       METRICA.fallo();
+ *       throw e;
+ *   } finally {
+ *       METRICA.terminar(inicio);
+ *   }
+ * </pre>
+ * Con {@code turnera.metricas=false} no registra nada (los decoradores de DAO pueden seguir
+ * existiendo si Flight Recorder está grabando {@link EventoSql}).
+ */
+public class MetricaOperacion {
+
+    /** Foto de la métrica; las latencias en nanosegundos. */
+    public record Instantanea(String nombre, long errores, HistogramaLatencias.Instantanea latencias) {
+        public long llamadas() {
+            return latencias.cantidad();
+        }
+    }
+
+    private final String nombre;
+    private final HistogramaLatencias latencias = new HistogramaLatencias();
+    private final AtomicLong errores = new AtomicLong();
+
+    MetricaOperacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /** Marca de tiempo de inicio de la llamada (para {@link #terminar}). */
+    public long iniciar() {
+        return System.nanoTime();
+    }
+
+    /** Cuenta la llamada y su duración (haya terminado bien o con error). */
+    public void terminar(long inicio) {
+        if (!RegistroMetricas.isActivo()) return;
+        latencias.registrar(System.nanoTime() - inicio);
+    }
+
+    /** Cuenta un error; la llamada se cuenta igual en {@link #terminar}. */
+    public void fallo() {
+        if (!RegistroMetricas.isActivo()) return;
+        errores.incrementAndGet();
+    }
+
+    public Instantanea instantanea() {
+        return new Instantanea(nombre, errores.get(), latencias.instantanea());
+    }
+}
@@ -0,0 +1,123 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de las métricas por operación de toda la aplicación (Singleton).
+ *
+ * Los DAO (ver {@code daoImp.FabricaDAO}) y los servicios más usados cuentan llamadas,
+ * errores y latencias en una {@link MetricaOperacion} por método. Desde acá se leen todas
+ * juntas ({@link #instantaneas()}, {@link #formatear()}) y se pueden volcar cada tanto a un
+ * archivo de texto ({@link #iniciarVolcado}).
+ *
+ * Se desactiva con la propiedad del sistema {@code turnera.metricas=false}: los DAO dejan de
+ * envolverse (salvo que Flight Recorder esté grabando {@link EventoSql}) y el costo es cero.
+ */
+public class RegistroMetricas {
+
+    private static final boolean ACTIVO = Boolean.parseBoolean(System.getProperty("turnera.metricas", "true"));
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private static final RegistroMetricas INSTANCIA = new RegistroMetricas();
+
+    private final Map<String, MetricaOperacion> metricas = new ConcurrentHashMap<>();
+    private ScheduledExecutorService volcador;
+
+    private RegistroMetricas() {}
+
+    public static RegistroMetricas getInstancia() {
+        return INSTANCIA;
+    }
+
+    public static boolean isActivo() {
+        return ACTIVO;
+    }
+
+    /** Métrica con ese nombre (por ejemplo "TurnoDAO.guardar"); se crea la primera vez. */
+    public MetricaOperacion metrica(String nombre) {
+        return metricas.computeIfAbsent(nombre, MetricaOperacion::new);
+    }
+
+    /** Foto de todas las métricas que tuvieron al menos una llamada, ordenadas por nombre. */
+    public List<MetricaOperacion.Instantanea> instantaneas() {
+        List<MetricaOperacion.Instantanea> lista = new ArrayList<>();
+        for (MetricaOperacion m : metricas.values()) {
+            MetricaOperacion.Instantanea i = m.instantanea();
+            if (i.llamadas() > 0) lista.add(i);
+        }
+        lista.sort(Comparator.comparing(MetricaOperacion.Instantanea::nombre));
+        return lista;
+    }
+
+    /** Tabla de texto con todas las métricas (latencias en milisegundos). */
+    public String formatear() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Métricas al ").append(LocalDateTime.now().format(FORMATO_HORA)).append('\n');
+        sb.append(String.format("%-45s %10s %8s %9s %9s %9s %9s %9s %9s%n", "Operación", "llamadas", "errores",
+                "prom ms", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "máx ms"));
+        for (MetricaOperacion.Instantanea i : instantaneas()) {
+            HistogramaLatencias.Instantanea l = i.latencias();
+            sb.append(String.format(Locale.ROOT, "%-45s %10d %8d %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    i.nombre(), i.llamadas(), i.errores(), ms(l.promedio()), ms(l.p50()), ms(l.p90()),
+                    ms(l.p99()), ms(l.p999()), ms(l.maximo())));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escribe {@link #formatear()} en el archivo, reemplazándolo entero (se escribe a un temporal y
+     * se renombra: quien lo lea nunca ve un archivo a medio escribir).
+     */
+    public void volcar(Path archivo) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        Files.writeString(temporal, formatear(), StandardCharsets.UTF_8);
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Vuelca las métricas al archivo cada {@code segundos}, en un hilo daemon. Llamarla de nuevo
+     * reemplaza el volcado anterior.
+     */
+    public synchronized void iniciarVolcado(Path archivo, long segundos) {
+        detenerVolcado();
+        volcador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metricas-volcado");
+            t.setDaemon(true);
+            return t;
+        });
+        volcador.scheduleAtFixedRate(() -> {
+            try {
+                volcar(archivo);
+            } catch (IOException e) {
+                System.err.println("[Métricas] No se pudo escribir " + archivo + ": " + e.getMessage());
+            }
+        }, segundos, segundos, TimeUnit.SECONDS);
+    }
+
+    /** Frena el volcado periódico (si había uno). */
+    public synchronized void detenerVolcado() {
+        if (volcador != null) {
+            volcador.shutdownNow();
+            volcador = null;
+        }
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}